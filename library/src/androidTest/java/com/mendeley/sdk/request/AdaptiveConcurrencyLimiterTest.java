@@ -0,0 +1,97 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveConcurrencyLimiterTest extends AndroidTestCase {
+
+    private static final Uri DOCUMENTS_URL = Uri.parse("https://api.mendeley.com/documents/123");
+    private static final String DOCUMENTS_FAMILY = EndpointFamily.of(DOCUMENTS_URL);
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        limiter = AdaptiveConcurrencyLimiter.getInstance();
+        limiter.setEnabled(true);
+        limiter.configure(2, 1, 4, 2.0, 0.5);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        limiter.configure(8, 1, 64, 2.0, 0.5);
+        limiter.setEnabled(false);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_endpointFamily_groupsUrlsByTheirFirstPathSegment() {
+        assertEquals("family", "api.mendeley.com/documents", DOCUMENTS_FAMILY);
+        assertEquals("same family", DOCUMENTS_FAMILY, EndpointFamily.of(Uri.parse("https://api.mendeley.com/documents?limit=20")));
+    }
+
+    @SmallTest
+    public void test_acquire_queuesRequests_overTheLimit() throws Exception {
+        // GIVEN the limit of the family is in use
+        final AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(DOCUMENTS_URL, null);
+        final AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(DOCUMENTS_URL, null);
+
+        // WHEN another request is sent
+        final CountDownLatch acquired = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquire(DOCUMENTS_URL, null).release();
+                    acquired.countDown();
+                } catch (MendeleyException ignored) {
+                }
+            }
+        }).start();
+
+        // THEN it is queued
+        assertFalse("request queued", acquired.await(300, TimeUnit.MILLISECONDS));
+        assertEquals("queued requests", 1, limiter.getQueued(DOCUMENTS_FAMILY));
+
+        // AND it is sent once a slot is free
+        first.release();
+        assertTrue("request sent", acquired.await(1, TimeUnit.SECONDS));
+        second.release();
+        assertEquals("in flight requests", 0, limiter.getInFlight(DOCUMENTS_FAMILY));
+    }
+
+    @SmallTest
+    public void test_release_shrinksTheLimit_whenThrottled() throws Exception {
+        // GIVEN a request that gets throttled
+        final AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(DOCUMENTS_URL, null);
+        permit.onDropped();
+
+        // WHEN releasing it
+        permit.release();
+
+        // THEN the limit decreases
+        assertEquals("limit", 1, limiter.getLimit(DOCUMENTS_FAMILY));
+    }
+
+    @SmallTest
+    public void test_configure_keepsTrackOfTheRequestsInFlight() throws Exception {
+        // GIVEN a request in flight
+        final AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(DOCUMENTS_URL, null);
+
+        // WHEN reconfiguring the limiter and releasing the request
+        limiter.configure(3, 1, 4, 2.0, 0.5);
+        assertEquals("in flight requests after configuring", 1, limiter.getInFlight(DOCUMENTS_FAMILY));
+        permit.release();
+
+        // THEN the family sees the request released, with the new limit
+        assertEquals("in flight requests", 0, limiter.getInFlight(DOCUMENTS_FAMILY));
+        assertEquals("limit", 3, limiter.getLimit(DOCUMENTS_FAMILY));
+    }
+}
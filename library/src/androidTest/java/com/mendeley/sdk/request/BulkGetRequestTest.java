@@ -0,0 +1,138 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkGetRequestTest extends AndroidTestCase {
+
+    private AtomicInteger requests;
+    private AtomicInteger running;
+    private AtomicInteger maxRunning;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        requests = new AtomicInteger();
+        running = new AtomicInteger();
+        maxRunning = new AtomicInteger();
+    }
+
+    @SmallTest
+    public void test_run_requestsRepeatedIdsOnce() throws Exception {
+        // GIVEN a bulk request with repeated ids
+        final BulkGetRequest<String> request = new BulkGetRequest<>(Arrays.asList("a", "b", "a", "c", "b"), new FakeItemRequestFactory());
+
+        // WHEN run
+        final BulkGetRequest.Result<String> result = request.run().resource;
+
+        // THEN every id is requested once, and the items keep the order of the ids
+        assertEquals("requests", 3, requests.get());
+        assertEquals("ids", Arrays.asList("a", "b", "c"), new ArrayList<>(result.items.keySet()));
+        assertEquals("item", "item a", result.items.get("a"));
+    }
+
+    @SmallTest
+    public void test_run_boundsTheConcurrency() throws Exception {
+        // GIVEN a bulk request with many ids
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add("id" + i);
+        }
+        final BulkGetRequest<String> request = new BulkGetRequest<>(ids, new FakeItemRequestFactory());
+        request.setMaxConcurrency(3);
+
+        // WHEN run
+        final BulkGetRequest.Result<String> result = request.run().resource;
+
+        // THEN every item is retrieved, with no more than three requests at the same time
+        assertEquals("items", 20, result.items.size());
+        assertTrue("max running", maxRunning.get() <= 3);
+    }
+
+    @SmallTest
+    public void test_run_reportsPartialFailures() throws Exception {
+        // GIVEN a bulk request with one id that fails
+        final BulkGetRequest<String> request = new BulkGetRequest<>(Arrays.asList("a", "fail", "c"), new FakeItemRequestFactory());
+        final List<String> streamedIds = Collections.synchronizedList(new ArrayList<String>());
+        request.setItemListener(new BulkGetRequest.ItemListener<String>() {
+            @Override
+            public void onItem(String id, String item) {
+                streamedIds.add(id);
+            }
+
+            @Override
+            public void onItemFailed(String id, MendeleyException mendeleyException) {
+            }
+        });
+
+        // WHEN run
+        final BulkGetRequest.Result<String> result = request.run().resource;
+
+        // THEN the rest of the items are retrieved and the failure is reported
+        assertFalse("complete", result.isComplete());
+        assertEquals("items", 2, result.items.size());
+        assertTrue("failure reported", result.failures.containsKey("fail"));
+        assertEquals("streamed items", 2, streamedIds.size());
+    }
+
+    @SmallTest
+    public void test_run_completes_whenTheItemListenerThrows() throws Exception {
+        // GIVEN a bulk request whose listener fails
+        final BulkGetRequest<String> request = new BulkGetRequest<>(Arrays.asList("a", "fail", "c"), new FakeItemRequestFactory());
+        request.setItemListener(new BulkGetRequest.ItemListener<String>() {
+            @Override
+            public void onItem(String id, String item) {
+                throw new IllegalStateException("listener bug");
+            }
+
+            @Override
+            public void onItemFailed(String id, MendeleyException mendeleyException) {
+                throw new IllegalStateException("listener bug");
+            }
+        });
+
+        // WHEN run
+        final BulkGetRequest.Result<String> result = request.run().resource;
+
+        // THEN it still completes with every item
+        assertEquals("items", 2, result.items.size());
+        assertTrue("failure reported", result.failures.containsKey("fail"));
+    }
+
+    private class FakeItemRequestFactory implements BulkGetRequest.ItemRequestFactory<String> {
+        @Override
+        public Request<String> newRequest(final String id) {
+            return new Request<String>(null) {
+                @Override
+                protected Response doRun() throws MendeleyException {
+                    requests.incrementAndGet();
+                    final int current = running.incrementAndGet();
+                    int max;
+                    while (current > (max = maxRunning.get()) && !maxRunning.compareAndSet(max, current)) {
+                        // retry
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    if (id.equals("fail")) {
+                        throw new MendeleyException("not found");
+                    }
+                    return new Response("item " + id, (Date) null, null);
+                }
+            };
+        }
+    }
+}
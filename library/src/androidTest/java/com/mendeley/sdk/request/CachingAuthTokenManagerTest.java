@@ -0,0 +1,57 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.CachingAuthTokenManager;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+public class CachingAuthTokenManagerTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_constructor_readsTheTokensOfTheWrappedManager() {
+        // GIVEN a manager with tokens
+        final InMemoryAuthTokenManager delegate = new InMemoryAuthTokenManager();
+        delegate.saveTokens("access token", "refresh token", "bearer", 3600);
+
+        // WHEN wrapped
+        final CachingAuthTokenManager manager = new CachingAuthTokenManager(delegate);
+
+        // THEN the wrapper has its tokens
+        assertEquals("access token", "access token", manager.getAccessToken());
+        assertEquals("refresh token", "refresh token", manager.getRefreshToken());
+        assertEquals("expiration date", delegate.getAuthTokenExpirationDate(), manager.getAuthTokenExpirationDate());
+    }
+
+    @SmallTest
+    public void test_saveTokens_isVisibleStraightAway_andPersistedInBackground() throws Exception {
+        // GIVEN a caching manager
+        final InMemoryAuthTokenManager delegate = new InMemoryAuthTokenManager();
+        final CachingAuthTokenManager manager = new CachingAuthTokenManager(delegate);
+
+        // WHEN saving new tokens
+        manager.saveTokens("new access token", "new refresh token", "bearer", 3600);
+
+        // THEN they are returned straight away, and written to the wrapped manager
+        assertEquals("access token", "new access token", manager.getAccessToken());
+        Thread.sleep(200);
+        assertEquals("persisted access token", "new access token", delegate.getAccessToken());
+        assertEquals("persisted refresh token", "new refresh token", delegate.getRefreshToken());
+    }
+
+    @SmallTest
+    public void test_clearTokens_removesTheTokens() throws Exception {
+        // GIVEN a caching manager with tokens
+        final InMemoryAuthTokenManager delegate = new InMemoryAuthTokenManager();
+        delegate.saveTokens("access token", "refresh token", "bearer", 3600);
+        final CachingAuthTokenManager manager = new CachingAuthTokenManager(delegate);
+
+        // WHEN clearing them
+        manager.clearTokens();
+
+        // THEN they are gone, also from the wrapped manager
+        assertNull("access token", manager.getAccessToken());
+        Thread.sleep(200);
+        assertNull("persisted access token", delegate.getAccessToken());
+    }
+}
@@ -0,0 +1,113 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.exceptions.CircuitOpenException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CircuitBreakerTest extends AndroidTestCase {
+
+    private static final Uri FILES_URL = Uri.parse("https://api.mendeley.com/files/1234");
+    private static final String FILES_FAMILY = "api.mendeley.com/files";
+
+    private CircuitBreaker circuitBreaker;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        circuitBreaker = CircuitBreaker.getInstance();
+        circuitBreaker.configure(new CircuitBreaker.Configuration.Builder()
+                .setWindowSize(4)
+                .setMinimumCalls(4)
+                .setFailureRateThreshold(0.5)
+                .setOpenDurationMs(200)
+                .setHalfOpenProbes(1)
+                .build());
+        circuitBreaker.setEnabled(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        circuitBreaker.setEnabled(false);
+        circuitBreaker.configure(new CircuitBreaker.Configuration.Builder().build());
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_acquire_failsFast_onceTheFailureThresholdIsExceeded() throws Exception {
+        // GIVEN half of the calls of the family fail
+        recordCalls(2, 2);
+
+        // WHEN sending another request
+        try {
+            circuitBreaker.acquire(FILES_URL);
+            fail("circuit not open");
+        } catch (CircuitOpenException e) {
+            // THEN it fails without being sent
+            assertEquals("endpoint family", FILES_FAMILY, e.endpointFamily);
+            assertEquals("state", CircuitBreaker.State.OPEN, circuitBreaker.getState(FILES_FAMILY));
+        }
+    }
+
+    @SmallTest
+    public void test_acquire_closesTheCircuit_afterASuccessfulProbe() throws Exception {
+        // GIVEN an open circuit
+        final List<CircuitBreaker.State> states = new ArrayList<CircuitBreaker.State>();
+        final CircuitBreaker.StateListener listener = new CircuitBreaker.StateListener() {
+            @Override
+            public void onStateChanged(String endpointFamily, CircuitBreaker.State previousState, CircuitBreaker.State newState) {
+                states.add(newState);
+            }
+        };
+        circuitBreaker.addStateListener(listener);
+        recordCalls(0, 4);
+
+        // WHEN a probe succeeds after the open duration
+        Thread.sleep(300);
+        final CircuitBreaker.Permit probe = circuitBreaker.acquire(FILES_URL);
+        probe.onSuccess(10);
+        probe.release();
+
+        // THEN the circuit is closed again
+        assertEquals("state", CircuitBreaker.State.CLOSED, circuitBreaker.getState(FILES_FAMILY));
+
+        // AND every change is published
+        circuitBreaker.removeStateListener(listener);
+        assertEquals("published states", 3, states.size());
+        assertEquals("opened", CircuitBreaker.State.OPEN, states.get(0));
+        assertEquals("half opened", CircuitBreaker.State.HALF_OPEN, states.get(1));
+        assertEquals("closed", CircuitBreaker.State.CLOSED, states.get(2));
+    }
+
+    @SmallTest
+    public void test_acquire_reopensTheCircuit_afterAFailedProbe() throws Exception {
+        // GIVEN an open circuit
+        recordCalls(0, 4);
+
+        // WHEN a probe fails after the open duration
+        Thread.sleep(300);
+        final CircuitBreaker.Permit probe = circuitBreaker.acquire(FILES_URL);
+        probe.onFailure();
+        probe.release();
+
+        // THEN the circuit is open again
+        assertEquals("state", CircuitBreaker.State.OPEN, circuitBreaker.getState(FILES_FAMILY));
+    }
+
+    private void recordCalls(int successes, int failures) throws CircuitOpenException {
+        for (int i = 0; i < successes; i++) {
+            final CircuitBreaker.Permit permit = circuitBreaker.acquire(FILES_URL);
+            permit.onSuccess(10);
+            permit.release();
+        }
+        for (int i = 0; i < failures; i++) {
+            final CircuitBreaker.Permit permit = circuitBreaker.acquire(FILES_URL);
+            permit.onFailure();
+            permit.release();
+        }
+    }
+}
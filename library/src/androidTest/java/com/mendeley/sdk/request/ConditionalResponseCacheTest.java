@@ -0,0 +1,154 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ConditionalResponseCacheTest extends AndroidTestCase {
+
+    private ConditionalResponseCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = ConditionalResponseCache.getInstance();
+        cache.install(new File(System.getProperty("java.io.tmpdir"), "conditional-response-cache-test"), 1024);
+        cache.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        cache.setStaleWhileRevalidate(false);
+        cache.clear();
+        cache.uninstall();
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_get_returnsTheStoredEntry() {
+        // GIVEN a stored response
+        final byte[] body = "{\"id\":\"1\"}".getBytes();
+        final Object parsed = new Object();
+        cache.put("key", new ConditionalResponseCache.Entry("\"etag\"", null, "Mon, 01 Feb 2016 10:00:00 GMT", null, body), parsed);
+
+        // WHEN getting it
+        final ConditionalResponseCache.Entry entry = cache.get("key");
+
+        // THEN it is returned with its validators
+        assertEquals("etag", "\"etag\"", entry.etag);
+        assertNull("last modified", entry.lastModified);
+        assertEquals("server date", "Mon, 01 Feb 2016 10:00:00 GMT", entry.serverDate);
+        assertTrue("body", Arrays.equals(body, entry.body));
+
+        // AND the parsed resource is kept in memory
+        assertSame("parsed resource", parsed, cache.getParsedResource("key"));
+    }
+
+    @SmallTest
+    public void test_get_deletesTheEntry_whenItsBodyLengthIsCorrupt() throws Exception {
+        // GIVEN a stored response whose body length got corrupt
+        cache.put("key", new ConditionalResponseCache.Entry("\"etag\"", null, null, null, new byte[10]), new Object());
+        final File dir = new File(System.getProperty("java.io.tmpdir"), "conditional-response-cache-test");
+        final File[] files = dir.listFiles();
+        assertEquals("stored files", 1, files.length);
+        final RandomAccessFile raf = new RandomAccessFile(files[0], "rw");
+        try {
+            // the length is written right before the body
+            raf.seek(raf.length() - 10 - 4);
+            raf.writeInt(-1);
+        } finally {
+            raf.close();
+        }
+
+        // WHEN getting it
+        final ConditionalResponseCache.Entry entry = cache.get("key");
+
+        // THEN it is not returned, and its file is deleted
+        assertNull("entry", entry);
+        assertFalse("file deleted", files[0].exists());
+    }
+
+    @SmallTest
+    public void test_clear_deletesTheStoredEntries() {
+        // GIVEN a stored response
+        cache.put("key", new ConditionalResponseCache.Entry("\"etag\"", null, null, null, new byte[10]), new Object());
+
+        // WHEN clearing the cache
+        cache.clear();
+
+        // THEN it is gone
+        assertNull("entry", cache.get("key"));
+        assertNull("parsed resource", cache.getParsedResource("key"));
+    }
+
+    @SmallTest
+    public void test_put_evictsTheOldestEntries_whenOverTheMaxSize() throws Exception {
+        // GIVEN a stored response
+        cache.put("old", new ConditionalResponseCache.Entry("\"old\"", null, null, null, new byte[600]), new Object());
+        Thread.sleep(1100);
+
+        // WHEN storing a newer one that does not fit
+        cache.put("new", new ConditionalResponseCache.Entry("\"new\"", null, null, null, new byte[600]), new Object());
+
+        // THEN the oldest one is evicted
+        assertNull("old entry", cache.get("old"));
+        assertNotNull("new entry", cache.get("new"));
+    }
+
+    @SmallTest
+    public void test_staleResponse_isACopy_revalidatedByARequestOfItsOwn() throws Exception {
+        // GIVEN a cached response, served stale while revalidated
+        final LoopbackTransport transport = new LoopbackTransport().setDefaultResponse(new LoopbackTransport.CannedResponse.Builder()
+                .setContentType("application/json")
+                .addHeader("ETag", "\"1\"")
+                .setBody("{}")
+                .build());
+        cache.setStaleWhileRevalidate(true);
+        final List<String> fresh = new MyListRequest(transport).run().resource;
+
+        // WHEN running the request again, and cancelling it once answered
+        final MyListRequest request = new MyListRequest(transport);
+        final List<String> stale = request.run().resource;
+        request.cancel();
+
+        // THEN the cached result is copied, not shared
+        assertEquals("stale resource", fresh, stale);
+        assertNotSame("stale resource", fresh, stale);
+
+        // AND the revalidation is not aborted by the cancellation
+        final long deadline = System.currentTimeMillis() + 2000;
+        while (transport.getRequestCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals("requests sent", 2, transport.getRequestCount());
+    }
+
+    private static class MyListRequest extends GetAuthorizedRequest<List<String>> {
+
+        MyListRequest(Transport transport) {
+            super(Uri.parse("https://api.mendeley.com/documents"), newAuthTokenManager(), new ClientCredentials("client id", "client secret"));
+            setTransport(transport);
+        }
+
+        private static InMemoryAuthTokenManager newAuthTokenManager() {
+            final InMemoryAuthTokenManager authTokenManager = new InMemoryAuthTokenManager();
+            authTokenManager.saveTokens("access token", "refresh token", "bearer", 3600);
+            return authTokenManager;
+        }
+
+        @Override
+        protected List<String> manageResponse(InputStream is) throws Exception {
+            return Collections.singletonList("document");
+        }
+    }
+}
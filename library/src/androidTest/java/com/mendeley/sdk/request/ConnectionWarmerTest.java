@@ -0,0 +1,66 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ConnectionWarmer;
+import com.mendeley.sdk.HttpClientRegistry;
+import com.mendeley.sdk.Request;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionWarmerTest extends AndroidTestCase {
+
+    private LoopbackTransport transport;
+    private ConnectionWarmer warmer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        transport = new LoopbackTransport();
+        HttpClientRegistry.getInstance().setTransport(transport);
+        warmer = ConnectionWarmer.getInstance();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        warmer.setWarmUpListener(null);
+        HttpClientRegistry.getInstance().setTransport(null);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_warmUp_sendsAHeadRequestToTheApi_andReportsTheTimeTaken() throws Exception {
+        // GIVEN a listener
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long[] elapsed = new long[] {-1};
+        warmer.setWarmUpListener(new ConnectionWarmer.WarmUpListener() {
+            @Override
+            public void onWarmedUp(long elapsedMs) {
+                elapsed[0] = elapsedMs;
+                latch.countDown();
+            }
+
+            @Override
+            public void onWarmUpFailed(IOException e) {
+                latch.countDown();
+            }
+        });
+        final long warmUpsBefore = warmer.getWarmUps();
+
+        // WHEN warming up
+        warmer.warmUp();
+
+        // THEN a HEAD request is sent to the API in background
+        assertTrue("warmed up", latch.await(5, TimeUnit.SECONDS));
+        assertEquals("method", "HEAD", transport.getLastRequest().method());
+        assertEquals("url", Request.MENDELEY_API_BASE_URL, transport.getLastRequest().url().toString());
+
+        // AND the time taken is reported
+        assertTrue("elapsed time", elapsed[0] >= 0);
+        assertEquals("last warm up time", elapsed[0], warmer.getLastWarmUpMs());
+        assertEquals("warm ups", warmUpsBefore + 1, warmer.getWarmUps());
+    }
+}
@@ -0,0 +1,70 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Deadline;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+
+public class DeadlineTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_check_throws_oncePassed() throws Exception {
+        // GIVEN a deadline that has passed
+        final Deadline deadline = Deadline.after(10, TimeUnit.MILLISECONDS);
+        Thread.sleep(20);
+
+        // WHEN checking it
+        try {
+            deadline.check();
+            fail("deadline exceeded not thrown");
+        } catch (DeadlineExceededException e) {
+            // THEN it fails
+            assertTrue("expired", deadline.isExpired());
+            assertEquals("remaining time", 0, deadline.getRemainingMs());
+        }
+    }
+
+    @SmallTest
+    public void test_check_doesNotThrow_beforePassing() throws Exception {
+        // GIVEN a deadline in the future
+        final Deadline deadline = Deadline.after(1, TimeUnit.MINUTES);
+
+        // WHEN checking it
+        deadline.check();
+
+        // THEN it has time left
+        assertFalse("expired", deadline.isExpired());
+        assertTrue("remaining time", deadline.getRemainingMs() > 0);
+    }
+
+    @SmallTest
+    public void test_cancelOnExpiry_cancelsTheCall_whenTheDeadlinePasses() throws Exception {
+        // GIVEN a call watched by a deadline
+        final Call call = new LoopbackTransport().newCall(new okhttp3.Request.Builder().url("https://api.mendeley.com/documents").build());
+        Deadline.after(50, TimeUnit.MILLISECONDS).cancelOnExpiry(call);
+
+        // WHEN the deadline passes
+        Thread.sleep(200);
+
+        // THEN the call is cancelled
+        assertTrue("cancelled", call.isCanceled());
+    }
+
+    @SmallTest
+    public void test_cancelOnExpiry_doesNotCancelTheCall_ifUnwatchedInTime() throws Exception {
+        // GIVEN a call watched by a deadline
+        final Call call = new LoopbackTransport().newCall(new okhttp3.Request.Builder().url("https://api.mendeley.com/documents").build());
+
+        // WHEN it is unwatched before the deadline passes
+        Deadline.after(50, TimeUnit.MILLISECONDS).cancelOnExpiry(call).cancel(false);
+        Thread.sleep(200);
+
+        // THEN it is not cancelled
+        assertFalse("cancelled", call.isCanceled());
+    }
+}
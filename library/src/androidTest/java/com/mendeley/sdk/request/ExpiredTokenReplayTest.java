@@ -0,0 +1,120 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+public class ExpiredTokenReplayTest extends AndroidTestCase {
+
+    private static final String URL = "https://api.mendeley.com/documents";
+
+    private InMemoryAuthTokenManager authTokenManager;
+    private List<okhttp3.Request> sentRequests;
+    private Transport transport;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        authTokenManager = new InMemoryAuthTokenManager();
+        authTokenManager.saveTokens("old access token", "refresh token", "bearer", 3600);
+
+        final LoopbackTransport expiredTransport = new LoopbackTransport().setDefaultResponse(new LoopbackTransport.CannedResponse.Builder()
+                .setCode(401)
+                .setContentType("application/json")
+                .setBody("{\"message\":\"Token has expired\"}")
+                .build());
+        final LoopbackTransport okTransport = new LoopbackTransport().setDefaultResponse(new LoopbackTransport.CannedResponse.Builder()
+                .setContentType("application/json")
+                .setBody("{}")
+                .build());
+
+        sentRequests = new ArrayList<>();
+        transport = new Transport() {
+            @Override
+            public Call newCall(okhttp3.Request request) {
+                sentRequests.add(request);
+                if (sentRequests.size() == 1) {
+                    // another request refreshes the token while this one is in flight
+                    authTokenManager.saveTokens("new access token", "new refresh token", "bearer", 3600);
+                    return expiredTransport.newCall(request);
+                }
+                return okTransport.newCall(request);
+            }
+        };
+    }
+
+    @SmallTest
+    public void test_run_sendsTheSameRequestAgain_whenTheTokenExpiresInFlight() throws Exception {
+        // GIVEN a request whose token expires in flight
+        final MyPostRequest request = new MyPostRequest(true);
+        request.setTransport(transport);
+
+        // WHEN running it
+        request.run();
+
+        // THEN it is sent again with the new token
+        assertEquals("sent requests", 2, sentRequests.size());
+        assertEquals("token of the first request", "Bearer old access token", sentRequests.get(0).header("Authorization"));
+        assertEquals("token of the second request", "Bearer new access token", sentRequests.get(1).header("Authorization"));
+
+        // AND the body is not built again
+        assertEquals("bodies built", 1, request.bodiesBuilt);
+        assertSame("body", sentRequests.get(0).body(), sentRequests.get(1).body());
+    }
+
+    @SmallTest
+    public void test_run_fails_whenTheTokenExpiresInFlight_andTheBodyCannotBeSentAgain() throws Exception {
+        // GIVEN a one-shot request whose token expires in flight
+        final MyPostRequest request = new MyPostRequest(false);
+        request.setTransport(transport);
+
+        // WHEN running it
+        try {
+            request.run();
+            fail("request succeeded");
+        } catch (HttpResponseException e) {
+            // THEN it fails without being sent again
+            assertEquals("response code", 401, e.httpReturnCode);
+            assertEquals("sent requests", 1, sentRequests.size());
+        }
+    }
+
+    private class MyPostRequest extends PostAuthorizedRequest<Void> {
+
+        private final boolean bodyReplayable;
+        private int bodiesBuilt;
+
+        MyPostRequest(boolean bodyReplayable) {
+            super(Uri.parse(URL), authTokenManager, new ClientCredentials("client id", "client secret"));
+            this.bodyReplayable = bodyReplayable;
+        }
+
+        @Override
+        protected RequestBody getBody() {
+            bodiesBuilt++;
+            return RequestBody.create(MediaType.parse("application/json"), "{}");
+        }
+
+        @Override
+        protected boolean isBodyReplayable() {
+            return bodyReplayable;
+        }
+
+        @Override
+        protected Void manageResponse(InputStream is) throws Exception {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.io.IOException;
+
+public class ExponentialBackoffRetryPolicyTest extends AndroidTestCase {
+
+    private ExponentialBackoffRetryPolicy policy;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        policy = new ExponentialBackoffRetryPolicy(3, 100, 1000, 10000);
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_retriesConnectionErrors_onlyForIdempotentRequests() {
+        final long idempotentDelay = policy.getRetryDelayMs(new RetryPolicy.Attempt(1, true, 0, -1, 0, new IOException()));
+        final long nonIdempotentDelay = policy.getRetryDelayMs(new RetryPolicy.Attempt(1, false, 0, -1, 0, new IOException()));
+
+        assertTrue("idempotent request retried", idempotentDelay >= 0 && idempotentDelay <= 100);
+        assertEquals("non idempotent request not retried", RetryPolicy.NO_RETRY, nonIdempotentDelay);
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_growsExponentially_upToTheMaxDelay() {
+        for (int i = 0; i < 50; i++) {
+            assertTrue("second retry bound", policy.getRetryDelayMs(new RetryPolicy.Attempt(2, true, 503, -1, 0, null)) <= 200);
+            assertTrue("third retry bound", policy.getRetryDelayMs(new RetryPolicy.Attempt(3, true, 503, -1, 0, null)) <= 400);
+        }
+        assertEquals("max retries", RetryPolicy.NO_RETRY, policy.getRetryDelayMs(new RetryPolicy.Attempt(4, true, 503, -1, 0, null)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_honoursRetryAfter_whenThrottled() {
+        assertEquals("Retry-After honoured", 2000, policy.getRetryDelayMs(new RetryPolicy.Attempt(1, false, 429, 2000, 0, null)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_doesNotRetry_clientErrors() {
+        assertEquals("404 not retried", RetryPolicy.NO_RETRY, policy.getRetryDelayMs(new RetryPolicy.Attempt(1, true, 404, -1, 0, null)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_doesNotRetry_whenTheBodyCannotBeSentAgain() {
+        assertEquals("one-shot body not retried", RetryPolicy.NO_RETRY, policy.getRetryDelayMs(new RetryPolicy.Attempt(1, false, false, 503, -1, 0, null)));
+    }
+
+    @SmallTest
+    public void test_getRetryDelayMs_doesNotRetry_whenTheTotalTimeWouldBeExceeded() {
+        assertEquals("time budget exceeded", RetryPolicy.NO_RETRY, policy.getRetryDelayMs(new RetryPolicy.Attempt(1, true, 429, 2000, 9000, null)));
+    }
+}
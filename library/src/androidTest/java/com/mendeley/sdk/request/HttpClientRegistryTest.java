@@ -0,0 +1,67 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.HttpClientRegistry;
+
+import java.util.Arrays;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+public class HttpClientRegistryTest extends AndroidTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        HttpClientRegistry.getInstance().configure(new HttpClientRegistry.Configuration.Builder().build());
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_getClient_returnsTheSameClient_untilReconfigured() {
+        // GIVEN the registry
+        final HttpClientRegistry registry = HttpClientRegistry.getInstance();
+
+        // WHEN getting the client twice
+        final OkHttpClient first = registry.getClient();
+        final OkHttpClient second = registry.getClient();
+
+        // THEN the client is shared
+        assertSame("Client shared", first, second);
+
+        // WHEN reconfiguring it
+        registry.configure(new HttpClientRegistry.Configuration.Builder().build());
+
+        // THEN there is a new client
+        assertNotSame("Client replaced", first, registry.getClient());
+    }
+
+    @SmallTest
+    public void test_configure_appliesTheConfiguration() {
+        // GIVEN a custom configuration
+        final HttpClientRegistry.Configuration configuration = new HttpClientRegistry.Configuration.Builder()
+                .setMaxIdleConnections(3)
+                .setConnectTimeoutMs(2000)
+                .setReadTimeoutMs(4000)
+                .setWriteTimeoutMs(5000)
+                .setProtocols(Arrays.asList(Protocol.HTTP_1_1))
+                .build();
+
+        // WHEN configuring the registry
+        final HttpClientRegistry registry = HttpClientRegistry.getInstance();
+        registry.configure(configuration);
+
+        // THEN the client uses it
+        final OkHttpClient client = registry.getClient();
+        assertEquals("connect timeout", 2000, client.connectTimeoutMillis());
+        assertEquals("read timeout", 4000, client.readTimeoutMillis());
+        assertEquals("write timeout", 5000, client.writeTimeoutMillis());
+        assertEquals("protocols", Arrays.asList(Protocol.HTTP_1_1), client.protocols());
+
+        // AND the pool stats reflect it
+        final HttpClientRegistry.PoolStats poolStats = registry.getPoolStats();
+        assertEquals("max idle connections", 3, poolStats.maxIdleConnections);
+        assertEquals("connections", 0, poolStats.connectionCount);
+    }
+}
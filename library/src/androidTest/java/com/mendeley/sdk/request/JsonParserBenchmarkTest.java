@@ -0,0 +1,156 @@
+package com.mendeley.sdk.request;
+
+import android.test.InstrumentationTestCase;
+import android.test.suitebuilder.annotation.LargeTest;
+import android.util.JsonReader;
+import android.util.Log;
+
+import com.mendeley.sdk.model.Document;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Measures the cost of parsing a page of documents, logging it with the tag of this class.
+ */
+public class JsonParserBenchmarkTest extends InstrumentationTestCase {
+
+    private static final String TAG = JsonParserBenchmarkTest.class.getSimpleName();
+
+    private static final int PAGE_SIZE = 500;
+    private static final int WARM_UP_RUNS = 5;
+    private static final int RUNS = 20;
+
+    // document fields, in the order JsonParser used to compare the keys with
+    private static final String[] DOCUMENT_FIELD_NAMES = {
+            "title", "type", "last_modified", "group_id", "profile_id", "read", "starred", "authored",
+            "confirmed", "hidden", "id", "month", "year", "day", "source", "revision", "created",
+            "abstract", "pages", "notes", "volume", "issue", "publisher", "city", "edition",
+            "institution", "series", "chapter", "client_data", "unique_id", "authors", "editors",
+            "identifiers", "tags", "file_attached", "keywords", "websites"
+    };
+
+    private String page;
+    private List<String> pageKeys;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final JSONObject document = new JSONObject(getAssetsFileAsString("test_document_not_null_collections.json"));
+
+        final JSONArray documents = new JSONArray();
+        pageKeys = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            final JSONObject copy = new JSONObject(document.toString());
+            copy.put("id", "document-" + i);
+            documents.put(copy);
+
+            final Iterator<String> keys = copy.keys();
+            while (keys.hasNext()) {
+                // new instances, as read by the JsonReader
+                pageKeys.add(new String(keys.next().toCharArray()));
+            }
+        }
+        page = documents.toString();
+    }
+
+    @LargeTest
+    public void test_documentsFromJson_perDocumentCost() throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            parsePage();
+        }
+
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            assertEquals("documents", PAGE_SIZE, parsePage().size());
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        Log.i(TAG, "documentsFromJson: " + elapsedNanos / RUNS / PAGE_SIZE / 1000f + " us per document");
+    }
+
+    @LargeTest
+    public void test_documentFieldLookup_perDocumentCost() throws Exception {
+        final JsonFieldTable.Builder builder = new JsonFieldTable.Builder();
+        for (int i = 0; i < DOCUMENT_FIELD_NAMES.length; i++) {
+            builder.add(DOCUMENT_FIELD_NAMES[i], i);
+        }
+        final JsonFieldTable table = builder.build();
+
+        // both lookups find the same fields
+        for (String key : pageKeys) {
+            assertEquals("field of " + key, getFieldByComparison(key), table.get(key));
+        }
+
+        int sum = 0;
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            for (String key : pageKeys) {
+                sum += getFieldByComparison(key) + table.get(key);
+            }
+        }
+
+        final long comparisonStartNanos = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            for (String key : pageKeys) {
+                sum += getFieldByComparison(key);
+            }
+        }
+        final long comparisonNanos = System.nanoTime() - comparisonStartNanos;
+
+        final long tableStartNanos = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            for (String key : pageKeys) {
+                sum += table.get(key);
+            }
+        }
+        final long tableNanos = System.nanoTime() - tableStartNanos;
+
+        Log.i(TAG, "field lookup by comparison: " + comparisonNanos / RUNS / PAGE_SIZE + " ns per document, "
+                + "by perfect hash: " + tableNanos / RUNS / PAGE_SIZE + " ns per document (" + sum + ")");
+    }
+
+    private List<Document> parsePage() throws Exception {
+        final JsonReader reader = new JsonReader(new StringReader(page));
+        try {
+            return JsonParser.documentsFromJson(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * The lookup JsonParser used to do, comparing the key with the field names one by one.
+     */
+    private static int getFieldByComparison(String key) {
+        for (int i = 0; i < DOCUMENT_FIELD_NAMES.length; i++) {
+            if (key.equals(DOCUMENT_FIELD_NAMES[i])) {
+                return i;
+            }
+        }
+        return JsonFieldTable.UNKNOWN;
+    }
+
+    private String getAssetsFileAsString(String fileName) throws IOException {
+        final InputStream is = getInstrumentation().getContext().getAssets().open(fileName);
+        final BufferedReader in = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        try {
+            final StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                sb.append(line);
+            }
+            return sb.toString();
+        } finally {
+            in.close();
+        }
+    }
+}
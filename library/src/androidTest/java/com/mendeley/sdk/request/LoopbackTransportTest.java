@@ -0,0 +1,72 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+
+public class LoopbackTransportTest extends AndroidTestCase {
+
+    private static final String URL = "https://api.mendeley.com/documents/1";
+
+    private LoopbackTransport transport;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        transport = new LoopbackTransport();
+    }
+
+    @SmallTest
+    public void test_newCall_servesTheCannedResponse() throws Exception {
+        // GIVEN a canned response
+        transport.addResponse("GET", URL, new LoopbackTransport.CannedResponse.Builder()
+                .setContentType("application/vnd.mendeley-document.1+json")
+                .addHeader("ETag", "\"1\"")
+                .setBody("{\"id\":\"1\"}")
+                .build());
+
+        // WHEN executing a request against its URL
+        final okhttp3.Request request = new okhttp3.Request.Builder().url(URL).build();
+        final okhttp3.Response response = transport.newCall(request).execute();
+
+        // THEN the canned response is served
+        assertEquals("code", 200, response.code());
+        assertEquals("etag", "\"1\"", response.header("ETag"));
+        assertNotNull("date", response.header("Date"));
+        assertEquals("body", "{\"id\":\"1\"}", response.body().string());
+
+        // AND the request is recorded
+        assertEquals("request count", 1, transport.getRequestCount());
+        assertSame("last request", request, transport.getLastRequest());
+    }
+
+    @SmallTest
+    public void test_newCall_servesTheDefaultResponse_whenNoneMatches() throws Exception {
+        // GIVEN no canned response
+
+        // WHEN executing a request
+        final okhttp3.Response response = transport.newCall(new okhttp3.Request.Builder().url(URL).build()).execute();
+
+        // THEN the default response is served
+        assertEquals("code", 404, response.code());
+    }
+
+    @SmallTest
+    public void test_execute_throws_whenTheCallIsCancelled() throws Exception {
+        // GIVEN a cancelled call
+        final Call call = transport.newCall(new okhttp3.Request.Builder().url(URL).build());
+        call.cancel();
+
+        // WHEN executing it
+        try {
+            call.execute();
+            fail("cancelled call executed");
+        } catch (IOException e) {
+            // THEN it fails without serving anything
+            assertEquals("request count", 0, transport.getRequestCount());
+        }
+    }
+}
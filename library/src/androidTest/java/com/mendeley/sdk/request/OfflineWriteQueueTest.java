@@ -0,0 +1,141 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.OfflineWriteQueue;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Document;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OfflineWriteQueueTest extends AndroidTestCase {
+
+    private File journalFile;
+    private OfflineWriteQueue queue;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        journalFile = new File(getContext().getCacheDir(), "offline-write-queue-test.journal");
+        journalFile.delete();
+        queue = OfflineWriteQueue.getInstance();
+        queue.install(journalFile, null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        queue.setListener(null);
+        journalFile.delete();
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_enqueue_persistsTheOperations_inTheJournal() throws Exception {
+        // GIVEN some enqueued operations
+        queue.enqueueTrashDocument("doc-1");
+        queue.enqueuePostDocumentToFolder("folder-1", "doc-2");
+        assertEquals("depth", 2, queue.getDepth());
+
+        // WHEN installing the queue again, as if the app had restarted
+        queue.install(journalFile, null);
+
+        // THEN the operations are still pending
+        assertEquals("depth after reload", 2, queue.getDepth());
+    }
+
+    @SmallTest
+    public void test_enqueuePatchDocument_coalescesSuccessivePatches_ofTheSameDocument() throws Exception {
+        // GIVEN a pending patch of a document
+        final long coalescedBefore = queue.getCoalescedOperations();
+        queue.enqueuePatchDocument("doc-1", new Document.Builder().setTitle("first title").build());
+
+        // WHEN patching the same document again
+        queue.enqueuePatchDocument("doc-1", new Document.Builder().setTitle("second title").setRead(true).build());
+
+        // THEN both patches are collapsed into one, also after reloading the journal
+        assertEquals("depth", 1, queue.getDepth());
+        assertEquals("coalesced", coalescedBefore + 1, queue.getCoalescedOperations());
+
+        queue.install(journalFile, null);
+        assertEquals("depth after reload", 1, queue.getDepth());
+    }
+
+    @SmallTest
+    public void test_enqueuePatchDocument_doesNotCoalescePatches_separatedByAnotherOperation() throws Exception {
+        // GIVEN a patch followed by another operation on the same document
+        queue.enqueuePatchDocument("doc-1", new Document.Builder().setTitle("first title").build());
+        queue.enqueueTrashDocument("doc-1");
+
+        // WHEN patching the document again
+        queue.enqueuePatchDocument("doc-1", new Document.Builder().setTitle("second title").build());
+
+        // THEN the patches are kept apart, to preserve the order of the operations
+        assertEquals("depth", 3, queue.getDepth());
+    }
+
+    @SmallTest
+    public void test_install_dropsATornRecord_soTheNextOperationsSurvive() throws Exception {
+        // GIVEN a journal whose last record was cut by a crash
+        queue.enqueueTrashDocument("doc-1");
+        final FileOutputStream os = new FileOutputStream(journalFile, true);
+        try {
+            os.write("{\"seq\":2,\"type\":\"TRA".getBytes("UTF-8"));
+        } finally {
+            os.close();
+        }
+        queue.install(journalFile, null);
+        assertEquals("depth after the crash", 1, queue.getDepth());
+
+        // WHEN enqueuing another operation and installing the queue again
+        queue.enqueueTrashDocument("doc-2");
+        queue.install(journalFile, null);
+
+        // THEN both operations are still pending
+        assertEquals("depth after reload", 2, queue.getDepth());
+    }
+
+    @SmallTest
+    public void test_clear_discardsThePendingOperations() throws Exception {
+        // GIVEN some enqueued operations
+        queue.enqueueTrashDocument("doc-1");
+        queue.enqueuePatchDocument("doc-2", new Document.Builder().setTitle("title").build());
+
+        // WHEN clearing the queue, as done when signing out
+        queue.clear();
+
+        // THEN no operation is pending, also after reloading the journal
+        assertEquals("depth", 0, queue.getDepth());
+        queue.install(journalFile, null);
+        assertEquals("depth after reload", 0, queue.getDepth());
+    }
+
+    @SmallTest
+    public void test_replay_dropsTheOperations_whoseRequestCannotBeBuilt() throws Exception {
+        // GIVEN an operation whose request cannot be built, as there is no requests factory
+        final long droppedBefore = queue.getDroppedOperations();
+        final CountDownLatch droppedLatch = new CountDownLatch(1);
+        queue.setListener(new OfflineWriteQueue.Listener() {
+            @Override
+            public void onReplayed(OfflineWriteQueue.Operation operation) {
+            }
+
+            @Override
+            public void onDropped(OfflineWriteQueue.Operation operation, MendeleyException e) {
+                droppedLatch.countDown();
+            }
+        });
+        queue.enqueueTrashDocument("doc-1");
+
+        // WHEN replaying the queue
+        queue.replay();
+
+        // THEN the operation is dropped instead of blocking the queue forever
+        assertTrue("dropped", droppedLatch.await(5, TimeUnit.SECONDS));
+        assertEquals("dropped operations", droppedBefore + 1, queue.getDroppedOperations());
+        assertEquals("depth", 0, queue.getDepth());
+    }
+}
@@ -0,0 +1,124 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.PagedPublisher;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PagedPublisherTest extends AndroidTestCase {
+
+    private static final int PAGES = 3;
+
+    private AtomicInteger requestedPages;
+    private PagedPublisher<Integer> publisher;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        requestedPages = new AtomicInteger();
+        publisher = new PagedPublisher<>(new PagedPublisher.PageRequests<Integer>() {
+            @Override
+            public Request<List<Integer>> newFirstPageRequest() {
+                return newPageRequest(0);
+            }
+
+            @Override
+            public Request<List<Integer>> newPageRequest(Uri next) {
+                return newPageRequest(Integer.parseInt(next.getLastPathSegment()));
+            }
+
+            private Request<List<Integer>> newPageRequest(final int page) {
+                return new Request<List<Integer>>(null) {
+                    @Override
+                    protected Response doRun() throws MendeleyException {
+                        requestedPages.incrementAndGet();
+                        final Uri next = page < PAGES - 1 ? Uri.parse("https://api.mendeley.com/pages/" + (page + 1)) : null;
+                        return new Response(Arrays.asList(page * 2, page * 2 + 1), (Date) null, next);
+                    }
+                };
+            }
+        });
+    }
+
+    @SmallTest
+    public void test_subscribe_doesNotRequestPages_withoutDemand() throws Exception {
+        // GIVEN a subscriber not requesting items
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        // WHEN subscribed
+        publisher.subscribe(subscriber);
+        Thread.sleep(200);
+
+        // THEN no page is requested
+        assertEquals("requested pages", 0, requestedPages.get());
+    }
+
+    @SmallTest
+    public void test_request_fetchesTheNextPage_onlyWhenNeeded() throws Exception {
+        // GIVEN a subscriber
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        // WHEN it requests the items of the first page and one more
+        subscriber.subscription.request(3);
+        Thread.sleep(300);
+
+        // THEN only the pages needed are requested
+        assertEquals("items", Arrays.asList(0, 1, 2), subscriber.items);
+        assertEquals("requested pages", 2, requestedPages.get());
+    }
+
+    @SmallTest
+    public void test_request_emitsEveryItem_andCompletes() throws Exception {
+        // GIVEN a subscriber
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        // WHEN it requests every item
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        // THEN it gets the items of every page and the stream completes
+        assertTrue("completed", subscriber.completed.await(3, TimeUnit.SECONDS));
+        assertEquals("items", Arrays.asList(0, 1, 2, 3, 4, 5), subscriber.items);
+        assertEquals("requested pages", PAGES, requestedPages.get());
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+        private final List<Integer> items = new ArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Subscription subscription;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+import static com.mendeley.sdk.util.IOUtils.readInputStream;
+
+public class RequestBodyCompressorTest extends AndroidTestCase {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private RequestBodyCompressor compressor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        compressor = RequestBodyCompressor.getInstance();
+        compressor.setEnabled(true);
+        compressor.setThresholdBytes(100);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        compressor.setEnabled(false);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_compress_gzipsBodiesOverTheThreshold() throws Exception {
+        // GIVEN a big body
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("{\"abstract\":\"a long abstract\"}");
+        }
+        final String json = sb.toString();
+        final long bytesSavedBefore = compressor.getBytesSaved();
+
+        // WHEN compressing it
+        final okhttp3.Request.Builder requestBld = new okhttp3.Request.Builder().url("https://api.mendeley.com/documents");
+        final RequestBody body = compressor.compress(RequestBody.create(JSON, json), requestBld);
+
+        // THEN it is sent gzipped
+        assertEquals("Content-Encoding", "gzip", requestBld.post(body).build().header("Content-Encoding"));
+        assertTrue("smaller body", body.contentLength() < json.length());
+
+        final Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        assertEquals("decompressed body", json, readInputStream(new GZIPInputStream(buffer.inputStream())));
+
+        // AND the saved bytes are accounted
+        assertEquals("bytes saved", json.length() - body.contentLength(), compressor.getBytesSaved() - bytesSavedBefore);
+    }
+
+    @SmallTest
+    public void test_compress_leavesSmallBodiesUntouched() throws Exception {
+        // GIVEN a small body
+        final RequestBody original = RequestBody.create(JSON, "{\"title\":\"short\"}");
+
+        // WHEN compressing it
+        final okhttp3.Request.Builder requestBld = new okhttp3.Request.Builder().url("https://api.mendeley.com/documents");
+        final RequestBody body = compressor.compress(original, requestBld);
+
+        // THEN it is sent as it was
+        assertSame("same body", original, body);
+        assertNull("Content-Encoding", requestBld.post(body).build().header("Content-Encoding"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.testUtils.MutableReference;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestDeduplicatorTest extends AndroidTestCase {
+
+    private RequestDeduplicator deduplicator;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        deduplicator = RequestDeduplicator.getInstance();
+    }
+
+    @SmallTest
+    public void test_execute_sharesTheCall_betweenIdenticalRequests() throws Exception {
+        // GIVEN a slow call
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch releaseCall = new CountDownLatch(1);
+        final RequestDeduplicator.Call call = new RequestDeduplicator.Call() {
+            @Override
+            public RequestDeduplicator.Result execute() throws MendeleyException {
+                executions.incrementAndGet();
+                callStarted.countDown();
+                try {
+                    releaseCall.await(3, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                return new RequestDeduplicator.Result("the resource", new Date(), null);
+            }
+        };
+
+        // WHEN two identical requests run at the same time
+        final MutableReference<Object> leaderResource = new MutableReference<Object>();
+        final CountDownLatch leaderDone = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    leaderResource.value = deduplicator.execute("key", newRequest(), call).resource;
+                } catch (MendeleyException ignored) {
+                }
+                leaderDone.countDown();
+            }
+        }).start();
+        callStarted.await(3, TimeUnit.SECONDS);
+
+        final CountDownLatch followerDone = new CountDownLatch(1);
+        final MutableReference<Object> followerResource = new MutableReference<Object>();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    followerResource.value = deduplicator.execute("key", newRequest(), call).resource;
+                } catch (MendeleyException ignored) {
+                }
+                followerDone.countDown();
+            }
+        }).start();
+        Thread.sleep(200);
+        releaseCall.countDown();
+
+        leaderDone.await(3, TimeUnit.SECONDS);
+        followerDone.await(3, TimeUnit.SECONDS);
+
+        // THEN the call was performed once and both got the same result
+        assertEquals("executions", 1, executions.get());
+        assertSame("shared result", leaderResource.value, followerResource.value);
+    }
+
+    @SmallTest
+    public void test_execute_onlyCancelsTheCancelledCaller() throws Exception {
+        // GIVEN a call that never finishes until released
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch releaseCall = new CountDownLatch(1);
+        final RequestDeduplicator.Call call = new RequestDeduplicator.Call() {
+            @Override
+            public RequestDeduplicator.Result execute() throws MendeleyException {
+                callStarted.countDown();
+                try {
+                    releaseCall.await(3, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+                return new RequestDeduplicator.Result("the resource", new Date(), null);
+            }
+        };
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    deduplicator.execute("other key", newRequest(), call);
+                } catch (MendeleyException ignored) {
+                }
+            }
+        }).start();
+        callStarted.await(3, TimeUnit.SECONDS);
+
+        // WHEN a follower is cancelled while waiting
+        final Request<Void> follower = newRequest();
+        follower.cancel();
+
+        // THEN it stops waiting
+        UserCancelledException exception = null;
+        try {
+            deduplicator.execute("other key", follower, call);
+        } catch (UserCancelledException e) {
+            exception = e;
+        } finally {
+            releaseCall.countDown();
+        }
+        assertNotNull("follower cancelled", exception);
+    }
+
+    @SmallTest
+    public void test_execute_runsTheCallAgain_whenOnlyTheDeadlineOfTheLeaderPassed() throws Exception {
+        // GIVEN a leader whose deadline passes while a follower waits
+        final AtomicInteger executions = new AtomicInteger();
+        final CountDownLatch callStarted = new CountDownLatch(1);
+        final CountDownLatch followerWaiting = new CountDownLatch(1);
+        final RequestDeduplicator.Call call = new RequestDeduplicator.Call() {
+            @Override
+            public RequestDeduplicator.Result execute() throws MendeleyException {
+                if (executions.incrementAndGet() == 1) {
+                    callStarted.countDown();
+                    try {
+                        followerWaiting.await(3, TimeUnit.SECONDS);
+                        Thread.sleep(200);
+                    } catch (InterruptedException ignored) {
+                    }
+                    throw new DeadlineExceededException();
+                }
+                return new RequestDeduplicator.Result("the resource", new Date(), null);
+            }
+        };
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    deduplicator.execute("deadline key", newRequest(), call);
+                } catch (MendeleyException ignored) {
+                }
+            }
+        }).start();
+        callStarted.await(3, TimeUnit.SECONDS);
+
+        // WHEN a follower without deadline waits for it
+        followerWaiting.countDown();
+        final RequestDeduplicator.Result result = deduplicator.execute("deadline key", newRequest(), call);
+
+        // THEN the follower runs the call itself
+        assertEquals("resource", "the resource", result.resource);
+        assertEquals("executions", 2, executions.get());
+    }
+
+    private Request<Void> newRequest() {
+        return new Request<Void>(null) {
+            @Override
+            protected Response doRun() throws MendeleyException {
+                return null;
+            }
+        };
+    }
+}
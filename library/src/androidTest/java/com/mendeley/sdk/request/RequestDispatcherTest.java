@@ -0,0 +1,95 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.RequestDispatcher;
+import com.mendeley.sdk.RequestDispatcher.Priority;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class RequestDispatcherTest extends AndroidTestCase {
+
+    private RequestDispatcher dispatcher;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dispatcher = RequestDispatcher.getInstance();
+        dispatcher.configure(new RequestDispatcher.Configuration.Builder()
+                .setMaxConcurrency(2)
+                .setConcurrencyLimit(Priority.INTERACTIVE, 1)
+                .setConcurrencyLimit(Priority.BACKGROUND, 1)
+                .setAgingMs(60000)
+                .build());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        dispatcher.configure(new RequestDispatcher.Configuration.Builder().build());
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_execute_doesNotBlockInteractiveTasks_behindSlowBackgroundTasks() throws Exception {
+        // GIVEN a background task that does not finish
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch backgroundStarted = new CountDownLatch(1);
+        dispatcher.getExecutor(Priority.BACKGROUND).execute(new BlockingTask(backgroundStarted, release));
+        assertTrue("background started", backgroundStarted.await(1, TimeUnit.SECONDS));
+
+        // WHEN an interactive task is executed
+        final CountDownLatch interactiveRun = new CountDownLatch(1);
+        dispatcher.getExecutor(Priority.INTERACTIVE).execute(new Runnable() {
+            @Override
+            public void run() {
+                interactiveRun.countDown();
+            }
+        });
+
+        // THEN it runs without waiting for the background one
+        assertTrue("interactive run", interactiveRun.await(1, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @SmallTest
+    public void test_execute_queuesTasks_overTheLimitOfTheirPriority() throws Exception {
+        // GIVEN the limit of background tasks is in use
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+        dispatcher.getExecutor(Priority.BACKGROUND).execute(new BlockingTask(firstStarted, release));
+        assertTrue("first started", firstStarted.await(1, TimeUnit.SECONDS));
+
+        // WHEN another background task is executed
+        final CountDownLatch secondStarted = new CountDownLatch(1);
+        dispatcher.getExecutor(Priority.BACKGROUND).execute(new BlockingTask(secondStarted, new CountDownLatch(0)));
+
+        // THEN it waits in the queue until the first one finishes
+        assertFalse("second started", secondStarted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals("queued", 1, dispatcher.getQueuedTasks(Priority.BACKGROUND));
+
+        release.countDown();
+        assertTrue("second started", secondStarted.await(1, TimeUnit.SECONDS));
+        assertTrue("queue wait measured", dispatcher.getMaxQueueWaitMs(Priority.BACKGROUND) >= 200);
+    }
+
+    private static class BlockingTask implements Runnable {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        BlockingTask(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestFuture;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestFutureTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_submit_completesWithTheResponse() throws Exception {
+        // GIVEN a request
+        final Request<Integer> request = new SleepingRequest(1, 0, null);
+
+        // WHEN submitted
+        final Request<Integer>.Response response = request.submit().get(3, TimeUnit.SECONDS);
+
+        // THEN the future completes with its response
+        assertEquals("resource", Integer.valueOf(1), response.resource);
+    }
+
+    @SmallTest
+    public void test_submit_fails_ifTheRequestThrowsARuntimeException() throws Exception {
+        // GIVEN a request with a bug
+        final IllegalStateException bug = new IllegalStateException("bug");
+        final Request<Integer> request = new Request<Integer>(null) {
+            @Override
+            protected Response doRun() throws MendeleyException {
+                throw bug;
+            }
+        };
+
+        // WHEN submitted
+        try {
+            request.submit().get(3, TimeUnit.SECONDS);
+            fail("execution exception not thrown");
+        } catch (ExecutionException e) {
+            // THEN the future fails, wrapping the error
+            assertTrue("mendeley exception", e.getCause() instanceof MendeleyException);
+            assertSame("cause", bug, e.getCause().getCause());
+        }
+    }
+
+    @SmallTest
+    public void test_thenCompose_chainsDependentRequests() throws Exception {
+        // GIVEN a request whose result is needed by a second one
+        final Request<Integer> first = new SleepingRequest(1, 0, null);
+
+        // WHEN chained
+        final Integer result = first.submit().thenCompose(new RequestFuture.AsyncFunction<Request<Integer>.Response, Integer>() {
+            @Override
+            public RequestFuture<Integer> apply(Request<Integer>.Response response) {
+                return new SleepingRequest(response.resource + 1, 0, null).submit().thenApply(new RequestFuture.Function<Request<Integer>.Response, Integer>() {
+                    @Override
+                    public Integer apply(Request<Integer>.Response input) {
+                        return input.resource;
+                    }
+                });
+            }
+        }).get(3, TimeUnit.SECONDS);
+
+        // THEN the result is the one of the second request
+        assertEquals("result", Integer.valueOf(2), result);
+    }
+
+    @SmallTest
+    public void test_thenApply_fails_ifTheFunctionThrowsARuntimeException_andAListenerThrowsToo() throws Exception {
+        // GIVEN a pending future, whose first listener has a bug
+        final RequestFuture<Request<Integer>.Response> future = new SleepingRequest(1, 100, null).submit();
+        future.addListener(new RequestFuture.Listener<Request<Integer>.Response>() {
+            @Override
+            public void onSuccess(Request<Integer>.Response result) {
+                throw new IllegalStateException("listener bug");
+            }
+
+            @Override
+            public void onFailure(MendeleyException mendeleyException) {
+            }
+
+            @Override
+            public void onCancelled() {
+            }
+        });
+
+        // WHEN chaining a function with a bug too
+        final IllegalStateException bug = new IllegalStateException("function bug");
+        final RequestFuture<Integer> chained = future.thenApply(new RequestFuture.Function<Request<Integer>.Response, Integer>() {
+            @Override
+            public Integer apply(Request<Integer>.Response input) {
+                throw bug;
+            }
+        });
+
+        // THEN the chained future still fails, wrapping the error of the function
+        try {
+            chained.get(3, TimeUnit.SECONDS);
+            fail("execution exception not thrown");
+        } catch (ExecutionException e) {
+            assertTrue("mendeley exception", e.getCause() instanceof MendeleyException);
+            assertSame("cause", bug, e.getCause().getCause());
+        }
+    }
+
+    @SmallTest
+    public void test_allOf_keepsTheOrderOfTheFutures() throws Exception {
+        // GIVEN some futures
+        final List<RequestFuture<String>> futures = Arrays.asList(RequestFuture.completed("a"), RequestFuture.completed("b"));
+
+        // WHEN combined
+        final List<String> results = RequestFuture.allOf(futures).get();
+
+        // THEN the results keep their order
+        assertEquals("results", Arrays.asList("a", "b"), results);
+    }
+
+    @SmallTest
+    public void test_allOf_fails_ifAnyFutureFails() throws Exception {
+        // GIVEN some futures, one of them failed
+        final MendeleyException error = new MendeleyException("error");
+        final List<RequestFuture<String>> futures = Arrays.asList(RequestFuture.completed("a"), RequestFuture.<String>failed(error));
+
+        // WHEN combined
+        try {
+            RequestFuture.allOf(futures).get();
+            fail("execution exception not thrown");
+        } catch (ExecutionException e) {
+            // THEN the combination fails with the error
+            assertSame("error", error, e.getCause());
+        }
+    }
+
+    @SmallTest
+    public void test_withTimeout_fails_andCancelsTheRequest_ifNotCompletedInTime() throws Exception {
+        // GIVEN a slow request
+        final Request<Integer> request = new SleepingRequest(1, 2000, null);
+
+        // WHEN it does not complete in time
+        try {
+            request.submit().withTimeout(50, TimeUnit.MILLISECONDS).get(3, TimeUnit.SECONDS);
+            fail("execution exception not thrown");
+        } catch (ExecutionException e) {
+            // THEN the future fails and the request is cancelled
+            assertTrue("deadline exceeded", e.getCause() instanceof DeadlineExceededException);
+            Thread.sleep(50);
+            assertTrue("request cancelled", request.isCancelled());
+        }
+    }
+
+    @SmallTest
+    public void test_runAll_boundsTheParallelism() throws Exception {
+        // GIVEN some requests
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<Request<Integer>> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(new SleepingRequest(i, 50, new AtomicInteger[] {running, maxRunning}));
+        }
+
+        // WHEN run with a parallelism of two
+        final List<Request<Integer>.Response> responses = RequestFuture.runAll(requests, 2).get(5, TimeUnit.SECONDS);
+
+        // THEN all the responses are returned in order, with no more than two requests at the same time
+        assertEquals("responses", 6, responses.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals("response " + i, Integer.valueOf(i), responses.get(i).resource);
+        }
+        assertEquals("max running", 2, maxRunning.get());
+    }
+
+    private static class SleepingRequest extends Request<Integer> {
+        private final int result;
+        private final long sleepMs;
+        private final AtomicInteger[] counters;
+
+        SleepingRequest(int result, long sleepMs, AtomicInteger[] counters) {
+            super(null);
+            this.result = result;
+            this.sleepMs = sleepMs;
+            this.counters = counters;
+        }
+
+        @Override
+        protected Response doRun() throws MendeleyException {
+            if (counters != null) {
+                final int running = counters[0].incrementAndGet();
+                int max;
+                while (running > (max = counters[1].get()) && !counters[1].compareAndSet(max, running)) {
+                    // retry
+                }
+            }
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException ignored) {
+            } finally {
+                if (counters != null) {
+                    counters[0].decrementAndGet();
+                }
+            }
+            return new Response(result, (Date) null, null);
+        }
+    }
+}
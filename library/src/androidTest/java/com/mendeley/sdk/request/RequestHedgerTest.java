@@ -0,0 +1,234 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.Deadline;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+
+public class RequestHedgerTest extends AndroidTestCase {
+
+    private static final String URL = "https://api.mendeley.com/documents/1";
+
+    private RequestHedger hedger;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        hedger = RequestHedger.getInstance();
+        hedger.configure(0.95, 0.5);
+        hedger.setEnabled(true);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        hedger.setEnabled(false);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_execute_hedgesStalledCalls_andReturnsTheFirstResponse() throws Exception {
+        // GIVEN the latencies of the endpoint have been learnt
+        final StallingTransport transport = new StallingTransport();
+        final okhttp3.Request httpRequest = new okhttp3.Request.Builder().url(URL).build();
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+        }
+        final long hedgesBefore = hedger.getHedgedCalls();
+        final long winsBefore = hedger.getHedgeWins();
+
+        // WHEN the next call stalls
+        transport.stallNextCall();
+        final long startMs = System.currentTimeMillis();
+        final okhttp3.Response response = hedger.execute(transport, httpRequest, Uri.parse(URL), null);
+
+        // THEN the response of the hedge is returned without waiting for the stalled call
+        assertEquals("code", 200, response.code());
+        assertTrue("did not wait for the stalled call", System.currentTimeMillis() - startMs < StallingTransport.STALL_MS);
+        assertEquals("hedges", hedgesBefore + 1, hedger.getHedgedCalls());
+        assertEquals("hedge wins", winsBefore + 1, hedger.getHedgeWins());
+        response.body().close();
+    }
+
+    @SmallTest
+    public void test_execute_doesNotHedge_withoutBudget() throws Exception {
+        // GIVEN no budget for hedges
+        hedger.configure(0.95, 0);
+        final StallingTransport transport = new StallingTransport();
+        final okhttp3.Request httpRequest = new okhttp3.Request.Builder().url(URL).build();
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+        }
+        final long hedgesBefore = hedger.getHedgedCalls();
+
+        // WHEN the next call stalls
+        transport.stallNextCall();
+        hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+
+        // THEN it is not hedged
+        assertEquals("hedges", hedgesBefore, hedger.getHedgedCalls());
+    }
+
+    @SmallTest
+    public void test_execute_doesNotHedge_whenTheEndpointFamilyIsAtItsLimit() throws Exception {
+        // GIVEN the latencies of the endpoint have been learnt
+        final StallingTransport transport = new StallingTransport();
+        final okhttp3.Request httpRequest = new okhttp3.Request.Builder().url(URL).build();
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+        }
+        final long hedgesBefore = hedger.getHedgedCalls();
+
+        // AND the limit of the family is taken by the call being sent
+        final AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.getInstance();
+        limiter.setEnabled(true);
+        limiter.configure(1, 1, 1, 2.0, 0.5);
+        final AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(Uri.parse(URL), null);
+        try {
+            // WHEN the call stalls
+            transport.stallNextCall();
+            hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+        } finally {
+            permit.release();
+            limiter.configure(8, 1, 64, 2.0, 0.5);
+            limiter.setEnabled(false);
+        }
+
+        // THEN it is not hedged
+        assertEquals("hedges", hedgesBefore, hedger.getHedgedCalls());
+    }
+
+    @SmallTest
+    public void test_execute_recordsAFailureInTheCircuitBreaker_whenTheHedgeGetsAServerError() throws Exception {
+        // GIVEN the latencies of the endpoint have been learnt
+        final StallingTransport transport = new StallingTransport();
+        final okhttp3.Request httpRequest = new okhttp3.Request.Builder().url(URL).build();
+        for (int i = 0; i < 20; i++) {
+            hedger.execute(transport, httpRequest, Uri.parse(URL), null).body().close();
+        }
+
+        // AND a circuit breaker opening on the first failure
+        final CircuitBreaker circuitBreaker = CircuitBreaker.getInstance();
+        circuitBreaker.setEnabled(true);
+        circuitBreaker.configure(new CircuitBreaker.Configuration.Builder().setWindowSize(1).setMinimumCalls(1).build());
+        try {
+            // WHEN the next call stalls, and its hedge gets a server error
+            transport.loopback.setDefaultResponse(new LoopbackTransport.CannedResponse.Builder().setCode(503).setBody("{}").build());
+            transport.stallNextCall();
+            final okhttp3.Response response = hedger.execute(transport, httpRequest, Uri.parse(URL), null);
+            response.body().close();
+
+            // THEN the error counts as a failure of the endpoint family
+            assertEquals("code", 503, response.code());
+            assertEquals("state", CircuitBreaker.State.OPEN, circuitBreaker.getState(EndpointFamily.of(Uri.parse(URL))));
+        } finally {
+            circuitBreaker.configure(new CircuitBreaker.Configuration.Builder().build());
+            circuitBreaker.setEnabled(false);
+        }
+    }
+
+    @SmallTest
+    public void test_execute_abortsTheCall_whenTheDeadlineOfTheRequestPasses_whileLearning() throws Exception {
+        // GIVEN an endpoint whose latencies have not been learnt yet, and a stalled call
+        final String url = "https://api.mendeley.com/annotations/1";
+        final StallingTransport transport = new StallingTransport();
+        transport.stallNextCall();
+        final MyGetRequest request = new MyGetRequest(url);
+        request.setDeadline(Deadline.after(100, TimeUnit.MILLISECONDS));
+
+        // WHEN executed
+        final long startNanos = System.nanoTime();
+        try {
+            hedger.execute(transport, new okhttp3.Request.Builder().url(url).build(), Uri.parse(url), request).body().close();
+            fail("stalled call not aborted");
+        } catch (IOException expected) {
+        }
+
+        // THEN the call is aborted at the deadline, not when the stall ends
+        assertTrue("aborted at the deadline", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) < StallingTransport.STALL_MS / 2);
+    }
+
+    private static class MyGetRequest extends GetAuthorizedRequest<Void> {
+        MyGetRequest(String url) {
+            super(Uri.parse(url), new InMemoryAuthTokenManager(), new ClientCredentials("client id", "client secret"));
+        }
+
+        @Override
+        protected Void manageResponse(InputStream is) throws Exception {
+            return null;
+        }
+    }
+
+    /**
+     * Transport serving 200 responses straight away, but the calls flagged to stall.
+     */
+    private static class StallingTransport implements Transport {
+        static final long STALL_MS = 2000;
+
+        private final LoopbackTransport loopback = new LoopbackTransport()
+                .setDefaultResponse(new LoopbackTransport.CannedResponse.Builder().setBody("{}").build());
+        private final AtomicInteger callsToStall = new AtomicInteger();
+
+        void stallNextCall() {
+            callsToStall.set(1);
+        }
+
+        @Override
+        public Call newCall(okhttp3.Request request) {
+            final Call delegate = loopback.newCall(request);
+            final boolean stall = callsToStall.getAndDecrement() > 0;
+            // like a socket, a stalled call is aborted straight away when cancelled
+            final CountDownLatch cancelled = new CountDownLatch(1);
+            return new Call() {
+                @Override
+                public okhttp3.Request request() {
+                    return delegate.request();
+                }
+
+                @Override
+                public okhttp3.Response execute() throws IOException {
+                    if (stall) {
+                        try {
+                            cancelled.await(STALL_MS, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                    }
+                    return delegate.execute();
+                }
+
+                @Override
+                public void enqueue(Callback responseCallback) {
+                    delegate.enqueue(responseCallback);
+                }
+
+                @Override
+                public void cancel() {
+                    delegate.cancel();
+                    cancelled.countDown();
+                }
+
+                @Override
+                public boolean isExecuted() {
+                    return delegate.isExecuted();
+                }
+
+                @Override
+                public boolean isCanceled() {
+                    return delegate.isCanceled();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestPipeline;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class RequestPipelineTest extends AndroidTestCase {
+
+    @SmallTest
+    public void test_start_passesTheResultsOfTheParents_toTheirDependents() throws Exception {
+        // GIVEN a node depending on another one
+        final RequestPipeline pipeline = new RequestPipeline();
+        final RequestPipeline.Node<String> document = pipeline.add("document", new FixedStep("doc-1", 0, false));
+        final RequestPipeline.Node<String> file = pipeline.add("file", new RequestPipeline.Step<String>() {
+            @Override
+            public Request<String> newRequest(RequestPipeline.Inputs inputs) {
+                return newFixedRequest("file of " + inputs.get(document), 0, false);
+            }
+        }, document);
+
+        // WHEN the pipeline runs
+        final RequestPipeline.Result result = pipeline.start().get(3, TimeUnit.SECONDS);
+
+        // THEN the dependent gets the result of its parent
+        assertTrue("complete", result.isComplete());
+        assertEquals("file", "file of doc-1", result.get(file));
+        assertEquals("critical path", Arrays.asList("document", "file"), result.criticalPath);
+    }
+
+    @SmallTest
+    public void test_start_skipsTheDependentsOfFailedNodes_only() throws Exception {
+        // GIVEN a node that fails, with a dependent, and an independent node
+        final RequestPipeline pipeline = new RequestPipeline();
+        final RequestPipeline.Node<String> document = pipeline.add("document", new FixedStep("doc-1", 0, true));
+        pipeline.add("file", new FixedStep("file", 0, false), document);
+        final RequestPipeline.Node<String> other = pipeline.add("other", new FixedStep("other", 0, false));
+
+        // WHEN the pipeline runs
+        final RequestPipeline.Result result = pipeline.start().get(3, TimeUnit.SECONDS);
+
+        // THEN the dependent is skipped, and the independent node succeeds
+        assertTrue("failed", result.failures.containsKey("document"));
+        assertEquals("skipped", Collections.singletonList("file"), result.skipped);
+        assertEquals("independent", "other", result.get(other));
+    }
+
+    @SmallTest
+    public void test_start_failsTheNode_whenItsStepThrowsARuntimeException() throws Exception {
+        // GIVEN a node whose step has a bug, with a dependent
+        final RequestPipeline pipeline = new RequestPipeline();
+        final RequestPipeline.Node<String> document = pipeline.add("document", new RequestPipeline.Step<String>() {
+            @Override
+            public Request<String> newRequest(RequestPipeline.Inputs inputs) {
+                throw new IllegalStateException("bug");
+            }
+        });
+        pipeline.add("file", new FixedStep("file", 0, false), document);
+
+        // WHEN the pipeline runs
+        final RequestPipeline.Result result = pipeline.start().get(3, TimeUnit.SECONDS);
+
+        // THEN the node fails and its dependent is skipped
+        assertTrue("failed", result.failures.containsKey("document"));
+        assertEquals("skipped", Collections.singletonList("file"), result.skipped);
+    }
+
+    @SmallTest
+    public void test_start_skipsTheDependentsOfCancelledNodes() throws Exception {
+        // GIVEN a node whose request gets cancelled, with a dependent
+        final RequestPipeline pipeline = new RequestPipeline();
+        final RequestPipeline.Node<String> document = pipeline.add("document", new RequestPipeline.Step<String>() {
+            @Override
+            public Request<String> newRequest(RequestPipeline.Inputs inputs) {
+                return new Request<String>(null) {
+                    @Override
+                    protected Response doRun() throws MendeleyException {
+                        cancel();
+                        throw new UserCancelledException();
+                    }
+                };
+            }
+        });
+        pipeline.add("file", new FixedStep("file", 0, false), document);
+
+        // WHEN the pipeline runs
+        final RequestPipeline.Result result = pipeline.start().get(3, TimeUnit.SECONDS);
+
+        // THEN the cancelled node counts as failed and its dependent is skipped
+        assertTrue("cancelled", result.failures.get("document") instanceof UserCancelledException);
+        assertEquals("skipped", Collections.singletonList("file"), result.skipped);
+    }
+
+    @SmallTest
+    public void test_start_overlapsIndependentNodes() throws Exception {
+        // GIVEN two independent slow nodes
+        final RequestPipeline pipeline = new RequestPipeline();
+        pipeline.add("first", new FixedStep("first", 300, false));
+        pipeline.add("second", new FixedStep("second", 300, false));
+
+        // WHEN the pipeline runs
+        final RequestPipeline.Result result = pipeline.start().get(3, TimeUnit.SECONDS);
+
+        // THEN they run at the same time
+        assertTrue("critical path shorter than the total", result.criticalPathMs < result.totalNodeMs);
+    }
+
+    private static Request<String> newFixedRequest(final String resource, final long sleepMs, final boolean fail) {
+        return new Request<String>(null) {
+            @Override
+            protected Response doRun() throws MendeleyException {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException ignored) {
+                }
+                if (fail) {
+                    throw new MendeleyException("failed");
+                }
+                return new Response(resource, (Date) null, null);
+            }
+        };
+    }
+
+    private static class FixedStep implements RequestPipeline.Step<String> {
+        private final String resource;
+        private final long sleepMs;
+        private final boolean fail;
+
+        FixedStep(String resource, long sleepMs, boolean fail) {
+            this.resource = resource;
+            this.sleepMs = sleepMs;
+            this.fail = fail;
+        }
+
+        @Override
+        public Request<String> newRequest(RequestPipeline.Inputs inputs) {
+            return newFixedRequest(resource, sleepMs, fail);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import okhttp3.HttpUrl;
+
+public class RequestTemplateTest extends AndroidTestCase {
+
+    private static final String CONTENT_TYPE = "application/vnd.mendeley-document.1+json";
+
+    private RequestTemplate template;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        template = new RequestTemplate("https://api.mendeley.com/documents", CONTENT_TYPE);
+    }
+
+    @SmallTest
+    public void test_toHttpUrl_reusesTheParsedBaseUrl() {
+        // GIVEN the URL of the endpoint
+        final Uri url = template.getUrl();
+
+        // WHEN converting it twice
+        final HttpUrl first = template.toHttpUrl(url);
+        final HttpUrl second = template.toHttpUrl(url);
+
+        // THEN it is parsed only once
+        assertSame("same instance", first, second);
+        assertEquals("url", "https://api.mendeley.com/documents", first.toString());
+    }
+
+    @SmallTest
+    public void test_toHttpUrl_buildsTheUrlsOfResources_fromTheParsedBaseUrl() {
+        // GIVEN the URLs of resources of the endpoint, with and without query
+        final Uri resourceUrl = template.getUrl("12 34");
+        final Uri queryUrl = template.getUrl().buildUpon().appendQueryParameter("limit", "20").build();
+
+        // WHEN converting them
+        final HttpUrl resourceHttpUrl = template.toHttpUrl(resourceUrl);
+        final HttpUrl queryHttpUrl = template.toHttpUrl(queryUrl);
+
+        // THEN they match the parsed URLs
+        assertEquals("resource url", HttpUrl.parse(resourceUrl.toString()), resourceHttpUrl);
+        assertEquals("query url", HttpUrl.parse(queryUrl.toString()), queryHttpUrl);
+    }
+
+    @SmallTest
+    public void test_toHttpUrl_parsesUrlsOfOtherEndpoints() {
+        assertEquals("url", "https://api.mendeley.com/annotations/1", template.toHttpUrl(Uri.parse("https://api.mendeley.com/annotations/1")).toString());
+    }
+
+    @SmallTest
+    public void test_getUrl_appendsThePathSegments() {
+        // WHEN getting the URL of a resource
+        final Uri url = template.getUrl("1234", "trash");
+
+        // THEN the segments are appended to the base URL
+        assertEquals("url", "https://api.mendeley.com/documents/1234/trash", url.toString());
+        assertEquals("http url", "https://api.mendeley.com/documents/1234/trash", template.toHttpUrl(url).toString());
+    }
+
+    @SmallTest
+    public void test_getHeaders_negotiatesTheContentType() {
+        // THEN the headers and media type match the content type
+        assertEquals("Accept", CONTENT_TYPE, template.getHeaders().get("Accept"));
+        assertEquals("Content-type", CONTENT_TYPE, template.getHeaders().get("Content-type"));
+        assertEquals("media type", CONTENT_TYPE, template.getMediaType().toString());
+    }
+}
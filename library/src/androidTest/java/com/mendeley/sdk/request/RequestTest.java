@@ -15,6 +15,8 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
+
 public class RequestTest extends AndroidTestCase {
 
     @SmallTest
@@ -246,4 +248,49 @@ public class RequestTest extends AndroidTestCase {
         assertTrue("Cancelled callback invoked", callbackCalled.value);
     }
 
+    @SmallTest
+    public void test_cancel_abortsTheAttachedCalls() {
+        // GIVEN a request with a call in progress
+        final CallingRequest request = new CallingRequest();
+        final Call call = new LoopbackTransport().newCall(new okhttp3.Request.Builder().url("https://api.mendeley.com/documents").build());
+        request.attach(call);
+
+        // WHEN the request is cancelled
+        request.cancel();
+
+        // THEN the call is aborted
+        assertTrue("call cancelled", call.isCanceled());
+    }
+
+    @SmallTest
+    public void test_attachCall_abortsTheCall_ifTheRequestIsAlreadyCancelled() {
+        // GIVEN a cancelled request
+        final CallingRequest request = new CallingRequest();
+        request.cancel();
+
+        // WHEN a call is attached
+        final Call call = new LoopbackTransport().newCall(new okhttp3.Request.Builder().url("https://api.mendeley.com/documents").build());
+        request.attach(call);
+
+        // THEN the call is aborted straight away
+        assertTrue("call cancelled", call.isCanceled());
+    }
+
+    /**
+     * Request performing a network call, attached as the SDK requests do.
+     */
+    private static class CallingRequest extends Request<Void> {
+        CallingRequest() {
+            super(null);
+        }
+
+        void attach(Call call) {
+            attachCall(call);
+        }
+
+        @Override
+        public Response doRun() throws MendeleyException {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ServerClock;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+public class ServerClockTest extends AndroidTestCase {
+
+    private static final long ONE_HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    private ServerClock clock;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        clock = ServerClock.getInstance();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        setServerOffset(0);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_onServerDate_estimatesTheOffset() {
+        // GIVEN a server one hour ahead of the device
+
+        // WHEN its dates are received
+        setServerOffset(ONE_HOUR_MS);
+
+        // THEN the offset is estimated
+        assertTrue("offset", Math.abs(clock.getOffsetMs() - ONE_HOUR_MS) < 1000);
+        assertTrue("now", Math.abs(clock.now().getTime() - System.currentTimeMillis() - ONE_HOUR_MS) < 1000);
+    }
+
+    @SmallTest
+    public void test_onServerDate_ignoresOutliers() {
+        // GIVEN a server one hour ahead of the device
+        setServerOffset(ONE_HOUR_MS);
+
+        // WHEN one date is way off
+        clock.onServerDate(new Date(System.currentTimeMillis()));
+
+        // THEN the offset does not move
+        assertTrue("offset", Math.abs(clock.getOffsetMs() - ONE_HOUR_MS) < 1000);
+    }
+
+    @SmallTest
+    public void test_willExpireWithin_usesTheServerClock() {
+        // GIVEN a token valid for 6 minutes
+        setServerOffset(0);
+        clock.onTokenIssued("access token", new Date(System.currentTimeMillis()), 360);
+
+        // WHEN the device clock is then set 8 minutes back, so it thinks the token is valid for 14 minutes
+        setServerOffset(TimeUnit.MINUTES.toMillis(8));
+        final Date expiresAtInDeviceClock = new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(14));
+        final long preventedBefore = clock.getPreventedExpiredTokens();
+
+        // THEN the token has expired in the server clock anyway
+        assertTrue("expires", clock.willExpireWithin("access token", expiresAtInDeviceClock, TimeUnit.MINUTES.toMillis(5)));
+        assertEquals("prevented expired tokens", preventedBefore + 1, clock.getPreventedExpiredTokens());
+    }
+
+    private void setServerOffset(long offsetMs) {
+        for (int i = 0; i < 9; i++) {
+            clock.onServerDate(new Date(System.currentTimeMillis() + offsetMs));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenRefreshCoordinatorTest extends AndroidTestCase {
+
+    private TokenRefreshCoordinator coordinator;
+    private InMemoryAuthTokenManager authTokenManager;
+    private Request<Void> request;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        coordinator = TokenRefreshCoordinator.getInstance();
+        authTokenManager = new InMemoryAuthTokenManager();
+        authTokenManager.saveTokens("old access token", "refresh token", "bearer", 3600);
+        request = new Request<Void>(null) {
+            @Override
+            protected Response doRun() throws MendeleyException {
+                return null;
+            }
+        };
+    }
+
+    @SmallTest
+    public void test_refresh_runsOneRefresh_forConcurrentCallers() throws Exception {
+        // GIVEN a slow refresh
+        final AtomicInteger refreshes = new AtomicInteger();
+        final TokenRefreshCoordinator.Refresh refresh = new TokenRefreshCoordinator.Refresh() {
+            @Override
+            public void refresh() {
+                refreshes.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                authTokenManager.saveTokens("new access token", "new refresh token", "bearer", 3600);
+            }
+        };
+
+        // WHEN several callers need to refresh the token at the same time
+        final CountDownLatch finished = new CountDownLatch(5);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        coordinator.refresh(authTokenManager, "old access token", request, refresh);
+                    } catch (MendeleyException ignored) {
+                    }
+                    finished.countDown();
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        // THEN the token is refreshed once
+        assertTrue("finished", finished.await(3, TimeUnit.SECONDS));
+        assertEquals("refreshes", 1, refreshes.get());
+        assertEquals("access token", "new access token", authTokenManager.getAccessToken());
+    }
+
+    @SmallTest
+    public void test_refresh_carriesOn_whenTheRequestStartingItIsCancelled() throws Exception {
+        // GIVEN a slow refresh, started by a request which has been cancelled
+        final AtomicInteger refreshes = new AtomicInteger();
+        final TokenRefreshCoordinator.Refresh refresh = new TokenRefreshCoordinator.Refresh() {
+            @Override
+            public void refresh() {
+                refreshes.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                authTokenManager.saveTokens("new access token", "new refresh token", "bearer", 3600);
+            }
+        };
+        final Request<Void> cancelledRequest = new Request<Void>(null) {
+            @Override
+            protected Response doRun() throws MendeleyException {
+                return null;
+            }
+        };
+        cancelledRequest.cancel();
+
+        // WHEN the cancelled request gives up, while another one waits for the refresh
+        try {
+            coordinator.refresh(authTokenManager, "old access token", cancelledRequest, refresh);
+            fail("cancelled request not stopped");
+        } catch (UserCancelledException expected) {
+        }
+        coordinator.refresh(authTokenManager, "old access token", request, refresh);
+
+        // THEN the refresh completes once, for the request still waiting
+        assertEquals("refreshes", 1, refreshes.get());
+        assertEquals("access token", "new access token", authTokenManager.getAccessToken());
+    }
+
+    @SmallTest
+    public void test_refresh_doesNothing_ifTheTokenHasAlreadyBeenRefreshed() throws Exception {
+        // GIVEN a token refreshed after the caller read it
+        authTokenManager.saveTokens("new access token", "new refresh token", "bearer", 3600);
+        final long skippedBefore = coordinator.getSkippedRefreshes();
+
+        // WHEN the caller refreshes it
+        coordinator.refresh(authTokenManager, "old access token", request, new TokenRefreshCoordinator.Refresh() {
+            @Override
+            public void refresh() {
+                fail("token refreshed again");
+            }
+        });
+
+        // THEN the refresh is avoided
+        assertEquals("skipped refreshes", skippedBefore + 1, coordinator.getSkippedRefreshes());
+    }
+}
@@ -0,0 +1,103 @@
+package com.mendeley.sdk.request;
+
+import android.test.AndroidTestCase;
+import android.test.suitebuilder.annotation.SmallTest;
+
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.HttpClientRegistry;
+import com.mendeley.sdk.testUtils.InMemoryAuthTokenManager;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenRefreshSchedulerTest extends AndroidTestCase {
+
+    private TokenRefreshScheduler scheduler;
+    private InMemoryAuthTokenManager authTokenManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        scheduler = TokenRefreshScheduler.getInstance();
+        scheduler.setMargin(10, TimeUnit.MINUTES);
+        authTokenManager = new InMemoryAuthTokenManager();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        scheduler.stop();
+        HttpClientRegistry.getInstance().setTransport(null);
+        super.tearDown();
+    }
+
+    @SmallTest
+    public void test_start_doesNotRefresh_beforeTheMargin() throws Exception {
+        // GIVEN a token far from expiring
+        authTokenManager.saveTokens("access token", "refresh token", "bearer", 3600);
+        final long refreshesBefore = scheduler.getRefreshes() + scheduler.getFailedRefreshes();
+
+        // WHEN the scheduler starts
+        scheduler.start(authTokenManager, new ClientCredentials("id", "secret"));
+        Thread.sleep(200);
+
+        // THEN the token is not refreshed yet
+        assertEquals("refreshes", refreshesBefore, scheduler.getRefreshes() + scheduler.getFailedRefreshes());
+        assertEquals("access token", "access token", authTokenManager.getAccessToken());
+    }
+
+    @SmallTest
+    public void test_start_doesNotRefresh_withoutRefreshToken() throws Exception {
+        // GIVEN a signed out user, whose token has expired
+        authTokenManager.saveTokens("access token", null, "bearer", -60);
+        final long refreshesBefore = scheduler.getRefreshes() + scheduler.getFailedRefreshes();
+
+        // WHEN the scheduler starts
+        scheduler.start(authTokenManager, new ClientCredentials("id", "secret"));
+        Thread.sleep(200);
+
+        // THEN the token is not refreshed
+        assertEquals("refreshes", refreshesBefore, scheduler.getRefreshes() + scheduler.getFailedRefreshes());
+    }
+
+    @SmallTest
+    public void test_refresh_stops_whenTheTokenEndpointRejectsTheRefreshToken() throws Exception {
+        // GIVEN an expired token whose refresh token is no longer valid
+        authTokenManager.saveTokens("access token", "revoked refresh token", "bearer", -60);
+        final LoopbackTransport transport = new LoopbackTransport().setDefaultResponse(new LoopbackTransport.CannedResponse.Builder()
+                .setCode(400)
+                .setContentType("application/json")
+                .setBody("{\"error\":\"invalid_grant\"}")
+                .build());
+        HttpClientRegistry.getInstance().setTransport(transport);
+        final long failedBefore = scheduler.getFailedRefreshes();
+
+        // WHEN the scheduler starts
+        scheduler.start(authTokenManager, new ClientCredentials("id", "secret"));
+        Thread.sleep(500);
+
+        // THEN the refresh fails once and is not retried
+        assertEquals("failed refreshes", failedBefore + 1, scheduler.getFailedRefreshes());
+        assertEquals("refresh requests", 1, transport.getRequestCount());
+        assertFalse("refresh scheduled", scheduler.isScheduled());
+    }
+
+    @SmallTest
+    public void test_refresh_doesNotRefreshAgainStraightAway_whenTheMarginExceedsTheTokenLifetime() throws Exception {
+        // GIVEN an expired token, and a token endpoint issuing tokens which expire within the margin
+        authTokenManager.saveTokens("access token", "refresh token", "bearer", -60);
+        final LoopbackTransport transport = new LoopbackTransport().setDefaultResponse(new LoopbackTransport.CannedResponse.Builder()
+                .setCode(200)
+                .setContentType("application/json")
+                .setBody("{\"access_token\":\"new access token\",\"refresh_token\":\"new refresh token\",\"token_type\":\"bearer\",\"expires_in\":60}")
+                .build());
+        HttpClientRegistry.getInstance().setTransport(transport);
+
+        // WHEN the scheduler starts
+        scheduler.start(authTokenManager, new ClientCredentials("id", "secret"));
+        Thread.sleep(500);
+
+        // THEN the token is refreshed once, and the next refresh is scheduled later on
+        assertEquals("refresh requests", 1, transport.getRequestCount());
+        assertEquals("access token", "new access token", authTokenManager.getAccessToken());
+        assertTrue("refresh scheduled", scheduler.isScheduled());
+    }
+}
@@ -0,0 +1,109 @@
+package com.mendeley.sdk;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthTokenManager} keeping the tokens of another one in memory.
+ *
+ * <p/>
+ *
+ * The tokens are held in one immutable snapshot, so reading them is a single field read, instead
+ * of a lookup in the {@link android.content.SharedPreferences} of a
+ * {@link Mendeley.SharedPreferencesAuthTokenManager} for every call. New tokens are visible
+ * straight away, and written to the wrapped manager in background, in the order they were saved.
+ */
+public class CachingAuthTokenManager implements AuthTokenManager {
+
+    private static final Snapshot NO_TOKENS = new Snapshot(null, null, null, null);
+
+    private final AuthTokenManager delegate;
+    private final Executor persister = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "Mendeley token persister");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param delegate manager persisting the tokens, from which the current ones are read once
+     */
+    public CachingAuthTokenManager(AuthTokenManager delegate) {
+        this.delegate = delegate;
+        final Date expiresAt = delegate.getAuthTokenExpirationDate();
+        this.snapshot = new Snapshot(delegate.getAccessToken(), delegate.getRefreshToken(), delegate.getTokenType(), expiresAt != null ? expiresAt.getTime() : null);
+    }
+
+    @Override
+    public String getAccessToken() {
+        return snapshot.accessToken;
+    }
+
+    @Override
+    public String getRefreshToken() {
+        return snapshot.refreshToken;
+    }
+
+    @Override
+    public Date getAuthTokenExpirationDate() {
+        final Long expiresAtMs = snapshot.expiresAtMs;
+        return expiresAtMs != null ? new Date(expiresAtMs) : null;
+    }
+
+    @Override
+    public String getTokenType() {
+        return snapshot.tokenType;
+    }
+
+    @Override
+    public void saveTokens(final String accessToken, final String refreshToken, final String tokenType, final int expiresIn) {
+        final Calendar c = Calendar.getInstance();
+        c.add(Calendar.SECOND, expiresIn);
+        snapshot = new Snapshot(accessToken, refreshToken, tokenType, c.getTimeInMillis());
+
+        persister.execute(new Runnable() {
+            @Override
+            public void run() {
+                delegate.saveTokens(accessToken, refreshToken, tokenType, expiresIn);
+            }
+        });
+    }
+
+    @Override
+    public void clearTokens() {
+        snapshot = NO_TOKENS;
+
+        persister.execute(new Runnable() {
+            @Override
+            public void run() {
+                delegate.clearTokens();
+            }
+        });
+    }
+
+    /**
+     * Tokens at some point in time.
+     */
+    private static class Snapshot {
+        final String accessToken;
+        final String refreshToken;
+        final String tokenType;
+        final Long expiresAtMs;
+
+        Snapshot(String accessToken, String refreshToken, String tokenType, Long expiresAtMs) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.tokenType = tokenType;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
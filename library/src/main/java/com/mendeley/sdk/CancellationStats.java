@@ -0,0 +1,71 @@
+package com.mendeley.sdk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SDK-wide counters of the cancelled {@link Request}s, used to measure the time-to-cancel: how
+ * long a request keeps running after {@link Request#cancel()} has been invoked.
+ */
+public class CancellationStats {
+
+    private static CancellationStats instance;
+
+    private final AtomicLong cancelledRequests = new AtomicLong();
+    private final AtomicLong totalTimeToCancelMs = new AtomicLong();
+    private final AtomicLong maxTimeToCancelMs = new AtomicLong();
+
+    /**
+     * @return a reference to the {@link CancellationStats} singleton.
+     */
+    public static synchronized CancellationStats getInstance() {
+        if (instance == null) {
+            instance = new CancellationStats();
+        }
+        return instance;
+    }
+
+    private CancellationStats() {
+    }
+
+    void onCancelled(long timeToCancelNanos) {
+        final long timeToCancelMs = TimeUnit.NANOSECONDS.toMillis(Math.max(0, timeToCancelNanos));
+        cancelledRequests.incrementAndGet();
+        totalTimeToCancelMs.addAndGet(timeToCancelMs);
+        long max;
+        while (timeToCancelMs > (max = maxTimeToCancelMs.get()) && !maxTimeToCancelMs.compareAndSet(max, timeToCancelMs)) {
+            // retry
+        }
+    }
+
+    /**
+     * @return number of requests that were running when cancelled
+     */
+    public long getCancelledRequests() {
+        return cancelledRequests.get();
+    }
+
+    /**
+     * @return average time the cancelled requests kept running after being cancelled, or -1 if none
+     */
+    public long getAverageTimeToCancelMs() {
+        final long cancelled = cancelledRequests.get();
+        return cancelled > 0 ? totalTimeToCancelMs.get() / cancelled : -1;
+    }
+
+    /**
+     * @return maximum time a cancelled request kept running after being cancelled
+     */
+    public long getMaxTimeToCancelMs() {
+        return maxTimeToCancelMs.get();
+    }
+
+    /**
+     * Sets all the counters to zero.
+     */
+    public void reset() {
+        cancelledRequests.set(0);
+        totalTimeToCancelMs.set(0);
+        maxTimeToCancelMs.set(0);
+    }
+}
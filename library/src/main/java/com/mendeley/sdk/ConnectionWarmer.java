@@ -0,0 +1,156 @@
+package com.mendeley.sdk;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opens a connection against the Mendeley API in background, so the first {@link Request} sent
+ * afterwards does not pay the DNS resolution, TCP and TLS handshakes on top of its own latency.
+ *
+ * <p/>
+ *
+ * The connection is opened by sending a HEAD request to {@link Request#MENDELEY_API_BASE_URL}
+ * through the transport of the {@link HttpClientRegistry}, which keeps it in the pool of the shared
+ * client once finished.
+ *
+ * <p/>
+ *
+ * Disabled by default, see {@link #setEnabled(boolean)}. Once enabled, {@link Mendeley} warms up
+ * the connection when initialised and when the user signs in.
+ */
+public class ConnectionWarmer {
+
+    private static ConnectionWarmer instance;
+
+    private final Executor executor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    private final AtomicBoolean warmingUp = new AtomicBoolean();
+    private final AtomicLong warmUps = new AtomicLong();
+    private final AtomicLong failedWarmUps = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile long lastWarmUpMs = -1;
+    private volatile WarmUpListener warmUpListener;
+
+    /**
+     * @return a reference to the {@link ConnectionWarmer} singleton.
+     */
+    public static synchronized ConnectionWarmer getInstance() {
+        if (instance == null) {
+            instance = new ConnectionWarmer();
+        }
+        return instance;
+    }
+
+    private ConnectionWarmer() {
+    }
+
+    /**
+     * Enables or disables warming up the connection when the SDK is initialised and the user signs in.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets a listener to be notified every time a warm up finishes.
+     */
+    public void setWarmUpListener(WarmUpListener warmUpListener) {
+        this.warmUpListener = warmUpListener;
+    }
+
+    /**
+     * @return number of successful warm ups
+     */
+    public long getWarmUps() {
+        return warmUps.get();
+    }
+
+    /**
+     * @return number of failed warm ups
+     */
+    public long getFailedWarmUps() {
+        return failedWarmUps.get();
+    }
+
+    /**
+     * @return milliseconds taken by the last successful warm up, or -1 if there was none
+     */
+    public long getLastWarmUpMs() {
+        return lastWarmUpMs;
+    }
+
+    /**
+     * Opens the connection in background, unless there is already a warm up in progress.
+     * Invoked by the SDK if enabled, but may be also invoked by client code at any time,
+     * for instance when the app comes back to foreground.
+     */
+    public void warmUp() {
+        if (!warmingUp.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    doWarmUp();
+                } finally {
+                    warmingUp.set(false);
+                }
+            }
+        });
+    }
+
+    private void doWarmUp() {
+        final long startNanos = System.nanoTime();
+        final okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(Request.MENDELEY_API_BASE_URL)
+                .head()
+                .build();
+
+        okhttp3.Response response = null;
+        try {
+            // any response means the connection is open
+            response = HttpClientRegistry.getInstance().getTransport().newCall(request).execute();
+            final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            lastWarmUpMs = elapsedMs;
+            warmUps.incrementAndGet();
+
+            final WarmUpListener listener = warmUpListener;
+            if (listener != null) {
+                listener.onWarmedUp(elapsedMs);
+            }
+        } catch (IOException e) {
+            failedWarmUps.incrementAndGet();
+
+            final WarmUpListener listener = warmUpListener;
+            if (listener != null) {
+                listener.onWarmUpFailed(e);
+            }
+        } finally {
+            if (response != null) {
+                response.body().close();
+            }
+        }
+    }
+
+    /**
+     * Listener to be notified when a warm up finishes. Invoked in a background thread.
+     */
+    public interface WarmUpListener {
+        /**
+         * @param elapsedMs milliseconds taken to resolve, connect and get the response
+         */
+        void onWarmedUp(long elapsedMs);
+
+        void onWarmUpFailed(IOException e);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mendeley.sdk;
+
+import android.os.Build;
+
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+
+/**
+ * Point in time by which a {@link Request} must be completed.
+ *
+ * <p/>
+ *
+ * The deadline is shared by every stage of the request: refreshing the access token, waiting
+ * to be sent, connecting, retrying, reading the response and parsing it. Once it has passed,
+ * the request fails with a {@link DeadlineExceededException}.
+ */
+public final class Deadline {
+
+    private static final long PURGE_INTERVAL_SEC = 60;
+
+    private static ScheduledExecutorService watchdog;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return a deadline the passed time from now
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * @return milliseconds left until the deadline, 0 if it has already passed
+     */
+    public long getRemainingMs() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check() throws DeadlineExceededException {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * Cancels the call when the deadline passes, aborting its connection.
+     *
+     * @return a future to be cancelled once the call has been consumed
+     */
+    public Future<?> cancelOnExpiry(final Call call) {
+        return getWatchdog().schedule(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        }, deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    static synchronized ScheduledExecutorService getWatchdog() {
+        if (watchdog == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "Mendeley deadline watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // watches are cancelled as soon as their call is consumed: do not keep them queued
+            // until their deadline
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                executor.setRemoveOnCancelPolicy(true);
+            } else {
+                executor.scheduleWithFixedDelay(new Runnable() {
+                    @Override
+                    public void run() {
+                        executor.purge();
+                    }
+                }, PURGE_INTERVAL_SEC, PURGE_INTERVAL_SEC, TimeUnit.SECONDS);
+            }
+            watchdog = executor;
+        }
+        return watchdog;
+    }
+}
@@ -0,0 +1,234 @@
+package com.mendeley.sdk;
+
+import com.mendeley.sdk.request.OkHttpTransport;
+import com.mendeley.sdk.request.Transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Registry holding the single {@link OkHttpClient} shared by every {@link Request} of the SDK,
+ * including the ones used to obtain and refresh the OAuth tokens.
+ *
+ * <p/>
+ *
+ * Sharing one client means sharing its connection pool, so consecutive requests against the
+ * Mendeley API (and token refreshes in particular) reuse warm connections instead of paying
+ * DNS, TCP and TLS setup every time.
+ *
+ * <p/>
+ *
+ * Client code may tune the client by calling {@link #configure(Configuration)}, typically right
+ * after {@link Mendeley#init(android.content.Context, String, String)}.
+ *
+ * <p/>
+ *
+ * Requests are sent through the {@link Transport} of the registry, which is an {@link OkHttpTransport}
+ * using the shared client unless replaced with {@link #setTransport(Transport)}.
+ */
+public class HttpClientRegistry {
+
+    private static HttpClientRegistry instance;
+
+    private Configuration configuration;
+    private ConnectionPool connectionPool;
+    private volatile OkHttpClient client;
+    private volatile Transport transport = new OkHttpTransport();
+
+    /**
+     * @return a reference to the {@link HttpClientRegistry} singleton.
+     */
+    public static synchronized HttpClientRegistry getInstance() {
+        if (instance == null) {
+            instance = new HttpClientRegistry();
+        }
+        return instance;
+    }
+
+    private HttpClientRegistry() {
+        configure(new Configuration.Builder().build());
+    }
+
+    /**
+     * Replaces the shared client with a new one built with the passed configuration.
+     * Requests already running will finish using the previous client. Idle connections of the
+     * previous pool are released.
+     *
+     * @param configuration the configuration of the new client
+     */
+    public synchronized void configure(Configuration configuration) {
+        final ConnectionPool previousPool = this.connectionPool;
+
+        this.configuration = configuration;
+        this.connectionPool = new ConnectionPool(configuration.maxIdleConnections, configuration.keepAliveDurationMs, TimeUnit.MILLISECONDS);
+
+        final OkHttpClient.Builder bld = new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .connectTimeout(configuration.connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(configuration.writeTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(configuration.readTimeoutMs, TimeUnit.MILLISECONDS)
+                .followRedirects(true);
+        if (configuration.protocols != null) {
+            bld.protocols(configuration.protocols);
+        }
+        this.client = bld.build();
+
+        if (previousPool != null) {
+            previousPool.evictAll();
+        }
+    }
+
+    /**
+     * @return the client every {@link Request} of the SDK should use
+     */
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Replaces the transport used to send the requests of the SDK.
+     *
+     * @param transport the transport, or null to restore the default {@link OkHttpTransport}
+     */
+    public void setTransport(Transport transport) {
+        this.transport = transport != null ? transport : new OkHttpTransport();
+    }
+
+    /**
+     * @return the transport every {@link Request} of the SDK should be sent through
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * @return the configuration of the current client
+     */
+    public synchronized Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return a snapshot of the state of the connection pool of the current client
+     */
+    public synchronized PoolStats getPoolStats() {
+        return new PoolStats(connectionPool.connectionCount(), connectionPool.idleConnectionCount(), configuration.maxIdleConnections);
+    }
+
+    /**
+     * Settings used to build the shared {@link OkHttpClient}.
+     */
+    public static class Configuration {
+
+        public final int maxIdleConnections;
+        public final long keepAliveDurationMs;
+        public final long connectTimeoutMs;
+        public final long readTimeoutMs;
+        public final long writeTimeoutMs;
+        /**
+         * Protocols the client will negotiate, null to use the OkHttp defaults.
+         */
+        public final List<Protocol> protocols;
+
+        private Configuration(int maxIdleConnections, long keepAliveDurationMs, long connectTimeoutMs, long readTimeoutMs, long writeTimeoutMs, List<Protocol> protocols) {
+            this.maxIdleConnections = maxIdleConnections;
+            this.keepAliveDurationMs = keepAliveDurationMs;
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+            this.writeTimeoutMs = writeTimeoutMs;
+            this.protocols = protocols;
+        }
+
+        public static class Builder {
+            private int maxIdleConnections = 5;
+            private long keepAliveDurationMs = TimeUnit.MINUTES.toMillis(5);
+            private long connectTimeoutMs = Request.CONNECTION_TIMEOUT;
+            private long readTimeoutMs = Request.READ_TIMEOUT;
+            private long writeTimeoutMs = Request.READ_TIMEOUT;
+            private List<Protocol> protocols;
+
+            public Builder() {}
+
+            public Builder setMaxIdleConnections(int maxIdleConnections) {
+                this.maxIdleConnections = maxIdleConnections;
+                return this;
+            }
+
+            public Builder setKeepAliveDurationMs(long keepAliveDurationMs) {
+                this.keepAliveDurationMs = keepAliveDurationMs;
+                return this;
+            }
+
+            public Builder setConnectTimeoutMs(long connectTimeoutMs) {
+                this.connectTimeoutMs = connectTimeoutMs;
+                return this;
+            }
+
+            public Builder setReadTimeoutMs(long readTimeoutMs) {
+                this.readTimeoutMs = readTimeoutMs;
+                return this;
+            }
+
+            public Builder setWriteTimeoutMs(long writeTimeoutMs) {
+                this.writeTimeoutMs = writeTimeoutMs;
+                return this;
+            }
+
+            public Builder setProtocols(List<Protocol> protocols) {
+                this.protocols = protocols != null ? Collections.unmodifiableList(new ArrayList<Protocol>(protocols)) : null;
+                return this;
+            }
+
+            public Configuration build() {
+                return new Configuration(
+                        maxIdleConnections,
+                        keepAliveDurationMs,
+                        connectTimeoutMs,
+                        readTimeoutMs,
+                        writeTimeoutMs,
+                        protocols
+                );
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the state of the connection pool of the shared client.
+     */
+    public static class PoolStats {
+
+        /**
+         * Total number of connections in the pool, idle or in use.
+         */
+        public final int connectionCount;
+
+        /**
+         * Number of idle connections in the pool, ready to be reused.
+         */
+        public final int idleConnectionCount;
+
+        /**
+         * Maximum number of idle connections the pool will keep.
+         */
+        public final int maxIdleConnections;
+
+        public PoolStats(int connectionCount, int idleConnectionCount, int maxIdleConnections) {
+            this.connectionCount = connectionCount;
+            this.idleConnectionCount = idleConnectionCount;
+            this.maxIdleConnections = maxIdleConnections;
+        }
+
+        @Override
+        public String toString() {
+            return "connectionCount: " + connectionCount +
+                    ", idleConnectionCount: " + idleConnectionCount +
+                    ", maxIdleConnections: " + maxIdleConnections;
+        }
+    }
+}
@@ -16,6 +16,9 @@ import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.model.UserRole;
+import com.mendeley.sdk.request.BulkGetRequest;
+import com.mendeley.sdk.request.ConditionalResponseCache;
+import com.mendeley.sdk.request.TokenRefreshScheduler;
 import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
 import com.mendeley.sdk.request.endpoint.CatalogEndpoint;
 import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
@@ -33,6 +36,7 @@ import com.mendeley.sdk.ui.sign_in.SignInActivity;
 
 import java.io.InputStream;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +60,13 @@ import java.util.Map;
  *
  * <p/>
  *
+ * If the {@link ConnectionWarmer} has been enabled, the connection against the Mendeley API
+ * is opened in background when initialising and after signing in. Likewise, if the
+ * {@link TokenRefreshScheduler} has been enabled, the access token is refreshed in background
+ * before it expires.
+ *
+ * <p/>
+ *
  * The Mendeley API is documented in the Developer portal of Mendeley @{see http://dev.mendeley.com/}
  *
  * <p/>
@@ -95,8 +106,15 @@ public class Mendeley {
      */
     public final void init(Context context, String appId, String appSecret) {
         this.clientCredentials = new ClientCredentials(appId, appSecret);
-        this.authTokenManager = SharedPreferencesAuthTokenManager.obtain(context);
+        this.authTokenManager = new CachingAuthTokenManager(SharedPreferencesAuthTokenManager.obtain(context));
         this.requestsFactory = new RequestFactoryImpl(authTokenManager, clientCredentials);
+
+        if (ConnectionWarmer.getInstance().isEnabled()) {
+            ConnectionWarmer.getInstance().warmUp();
+        }
+        if (TokenRefreshScheduler.getInstance().isEnabled() && isSignedIn()) {
+            TokenRefreshScheduler.getInstance().start(authTokenManager, clientCredentials);
+        }
     }
 
     /**
@@ -129,11 +147,15 @@ public class Mendeley {
      *
      * <p/>
      *
-     * In practice, this simply means clearing the authorization tokens from the Mendeley SDK, if any.*
+     * In practice, this simply means clearing the authorization tokens from the Mendeley SDK, if any,
+     * and the cached responses and offline operations of the user.
      */
     public void signOut() {
         assertInitialised();
+        TokenRefreshScheduler.getInstance().stop();
         authTokenManager.clearTokens();
+        ConditionalResponseCache.getInstance().clear();
+        OfflineWriteQueue.getInstance().clear();
     }
 
     /**
@@ -167,6 +189,12 @@ public class Mendeley {
 
     private void onLoginActivityResult(int resultCode, SignInCallback signInCallback) {
         if (resultCode == Activity.RESULT_OK) {
+            if (ConnectionWarmer.getInstance().isEnabled()) {
+                ConnectionWarmer.getInstance().warmUp();
+            }
+            if (TokenRefreshScheduler.getInstance().isEnabled()) {
+                TokenRefreshScheduler.getInstance().start(authTokenManager, clientCredentials);
+            }
             signInCallback.onSignedIn();
         } else {
             signInCallback.onSignInFailure();
@@ -261,6 +289,16 @@ public class Mendeley {
             return new ProfilesEndpoint.GetProfileRequest(profileId, authTokenManager, clientCredentials);
         }
 
+        @Override
+        public BulkGetRequest<Profile> newBulkGetProfilesRequest(Collection<String> profileIds) {
+            return new BulkGetRequest<Profile>(profileIds, new BulkGetRequest.ItemRequestFactory<Profile>() {
+                @Override
+                public Request<Profile> newRequest(String id) {
+                    return newGetProfileRequest(id);
+                }
+            });
+        }
+
         @Override
         public Request<Profile> newPostProfileRequest(Profile profile, String password) {
             return new ProfilesEndpoint.PostProfileRequest(authTokenManager, clientCredentials, profile, password);
@@ -296,6 +334,16 @@ public class Mendeley {
             return new DocumentEndpoint.GetDocumentRequest(documentId, view, authTokenManager, clientCredentials);
         }
 
+        @Override
+        public BulkGetRequest<Document> newBulkGetDocumentsRequest(Collection<String> documentIds, final DocumentEndpoint.DocumentRequestParameters.View view) {
+            return new BulkGetRequest<Document>(documentIds, new BulkGetRequest.ItemRequestFactory<Document>() {
+                @Override
+                public Request<Document> newRequest(String id) {
+                    return newGetDocumentRequest(id, view);
+                }
+            });
+        }
+
         @Override
         public Request<Document> newPostDocumentRequest(Document document) {
             return new DocumentEndpoint.PostDocumentRequest(document, authTokenManager, clientCredentials);
@@ -351,6 +399,16 @@ public class Mendeley {
             return new AnnotationsEndpoint.GetAnnotationRequest(annotationId, authTokenManager, clientCredentials);
         }
 
+        @Override
+        public BulkGetRequest<Annotation> newBulkGetAnnotationsRequest(Collection<String> annotationIds) {
+            return new BulkGetRequest<Annotation>(annotationIds, new BulkGetRequest.ItemRequestFactory<Annotation>() {
+                @Override
+                public Request<Annotation> newRequest(String id) {
+                    return newGetAnnotationRequest(id);
+                }
+            });
+        }
+
         @Override
         public Request<Annotation> newPostAnnotationRequest(Annotation annotation) {
             return new AnnotationsEndpoint.PostAnnotationRequest(annotation, authTokenManager, clientCredentials);
@@ -0,0 +1,805 @@
+package com.mendeley.sdk;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.util.JsonReader;
+
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.model.ReadPosition;
+import com.mendeley.sdk.request.JsonParser;
+import com.mendeley.sdk.request.endpoint.OAuthTokenEndpoint;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable write-behind queue of write operations against the Mendeley API, so they are not lost
+ * while the device is offline.
+ *
+ * <p/>
+ *
+ * Operations are stored in an append-only journal file as soon as they are enqueued, and replayed
+ * once connectivity returns (see {@link #start(Context)}) or when {@link #replay()} is invoked.
+ * Operations against the same resource are replayed in the order they were enqueued; operations
+ * against different resources are replayed in parallel, up to {@link #setMaxParallelism(int)}.
+ *
+ * <p/>
+ *
+ * Successive patches to the same document still waiting in the queue are collapsed into one
+ * request. Operations rejected by the server as invalid or conflicting (400, 404, 409, 410, 412
+ * and 422), or whose request cannot even be built, are dropped and reported through the
+ * {@link Listener}. Any other error, including an expired session or a failure to refresh the
+ * access token, stops the replay, keeping the operations for the next one. Operations failing
+ * with any other server error (like 403 or 5xx) are dropped too once they have failed
+ * {@link #setMaxAttempts(int)} times, so they do not block the queue forever.
+ *
+ * <p/>
+ *
+ * The queue belongs to the signed in user, and is cleared when signing out, see {@link #clear()}.
+ *
+ * <p/>
+ *
+ * The queue is disabled until {@link #install(File, RequestsFactory)} is called.
+ */
+public class OfflineWriteQueue {
+
+    public enum OperationType {
+        POST_DOCUMENT,
+        PATCH_DOCUMENT,
+        POST_DOCUMENT_TO_FOLDER,
+        POST_RECENTLY_READ,
+        TRASH_DOCUMENT,
+        RESTORE_TRASHED_DOCUMENT
+    }
+
+    private static final int COMPACTION_MIN_RECORDS = 256;
+
+    private static OfflineWriteQueue instance;
+
+    private final Map<Long, Operation> pendingOperations = new LinkedHashMap<Long, Operation>();
+    private final Set<Long> inFlightOperations = new HashSet<Long>();
+    private final ExecutorService replayExecutor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+    private final ExecutorService workerExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    private final AtomicLong enqueuedOperations = new AtomicLong();
+    private final AtomicLong coalescedOperations = new AtomicLong();
+    private final AtomicLong replayedOperations = new AtomicLong();
+    private final AtomicLong droppedOperations = new AtomicLong();
+    private final AtomicLong totalQueueLatencyMs = new AtomicLong();
+    private final AtomicLong maxQueueLatencyMs = new AtomicLong();
+
+    private File journalFile;
+    private RequestsFactory requestsFactory;
+    private long nextSeq = 1;
+    private int journalRecords;
+
+    private volatile int maxParallelism = 4;
+    private volatile int maxAttempts = 5;
+    private volatile Listener listener;
+    private volatile Context context;
+
+    private final BroadcastReceiver connectivityReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            if (isConnected()) {
+                replay();
+            }
+        }
+    };
+
+    /**
+     * @return a reference to the {@link OfflineWriteQueue} singleton.
+     */
+    public static synchronized OfflineWriteQueue getInstance() {
+        if (instance == null) {
+            instance = new OfflineWriteQueue();
+        }
+        return instance;
+    }
+
+    private OfflineWriteQueue() {
+    }
+
+    /**
+     * Enables the queue, loading the operations still pending from the journal.
+     *
+     * @param journalFile file to store the operations at, typically inside Context#getFilesDir()
+     * @param requestsFactory factory of the requests the operations are replayed with
+     */
+    public synchronized void install(File journalFile, RequestsFactory requestsFactory) throws MendeleyException {
+        this.journalFile = journalFile;
+        this.requestsFactory = requestsFactory;
+        pendingOperations.clear();
+        inFlightOperations.clear();
+        nextSeq = 1;
+        journalRecords = 0;
+        loadJournal();
+    }
+
+    /**
+     * Replays the queue every time the device gets connected, and whenever an operation is
+     * enqueued while connected.
+     *
+     * @param context a Context, whose application context will be kept
+     */
+    public void start(Context context) {
+        this.context = context.getApplicationContext();
+        this.context.registerReceiver(connectivityReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+    }
+
+    /**
+     * Stops replaying the queue automatically.
+     */
+    public void stop() {
+        final Context context = this.context;
+        if (context != null) {
+            context.unregisterReceiver(connectivityReceiver);
+            this.context = null;
+        }
+    }
+
+    /**
+     * @param maxParallelism maximum number of operations replayed at the same time
+     */
+    public void setMaxParallelism(int maxParallelism) {
+        this.maxParallelism = Math.max(1, maxParallelism);
+    }
+
+    /**
+     * @param maxAttempts number of times an operation may fail with a server error other than a
+     *                    rejection before being dropped
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Sets a listener to be notified of the outcome of the replayed operations.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void enqueuePostDocument(Document document) throws MendeleyException {
+        try {
+            final JSONObject args = new JSONObject().put("document", JsonParser.documentToJson(document));
+            enqueue(OperationType.POST_DOCUMENT, null, args);
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the document", e);
+        }
+    }
+
+    /**
+     * Enqueues a patch of the document, collapsing it with the previous patch of the same
+     * document if it has not been replayed yet.
+     */
+    public void enqueuePatchDocument(String documentId, Document document) throws MendeleyException {
+        enqueuePatchDocument(documentId, null, document);
+    }
+
+    /**
+     * Enqueues a patch of the document, collapsing it with the previous patch of the same
+     * document if it has not been replayed yet.
+     *
+     * @param unmodifiedSince the patch is only applied if the document has not been modified
+     *                        since this date, see {@link RequestsFactory#newPatchDocumentRequest(String, Date, Document)}.
+     *                        Collapsed patches keep the date of the oldest one.
+     */
+    public void enqueuePatchDocument(String documentId, Date unmodifiedSince, Document document) throws MendeleyException {
+        try {
+            final JSONObject args = new JSONObject()
+                    .put("document_id", documentId)
+                    .put("document", JsonParser.documentToJson(document));
+            if (unmodifiedSince != null) {
+                args.put("unmodified_since", unmodifiedSince.getTime());
+            }
+            enqueue(OperationType.PATCH_DOCUMENT, "documents/" + documentId, args);
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the document", e);
+        }
+    }
+
+    public void enqueuePostDocumentToFolder(String folderId, String documentId) throws MendeleyException {
+        try {
+            final JSONObject args = new JSONObject()
+                    .put("folder_id", folderId)
+                    .put("document_id", documentId);
+            enqueue(OperationType.POST_DOCUMENT_TO_FOLDER, "documents/" + documentId, args);
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the document", e);
+        }
+    }
+
+    public void enqueuePostRecentlyRead(ReadPosition readPosition) throws MendeleyException {
+        try {
+            final JSONObject args = new JSONObject().put("read_position", JsonParser.readPositionToJson(readPosition));
+            enqueue(OperationType.POST_RECENTLY_READ, "recently_read/" + readPosition.fileId, args);
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the read position", e);
+        }
+    }
+
+    public void enqueueTrashDocument(String documentId) throws MendeleyException {
+        try {
+            enqueue(OperationType.TRASH_DOCUMENT, "documents/" + documentId, new JSONObject().put("document_id", documentId));
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the document", e);
+        }
+    }
+
+    public void enqueueRestoreTrashedDocument(String documentId) throws MendeleyException {
+        try {
+            enqueue(OperationType.RESTORE_TRASHED_DOCUMENT, "documents/" + documentId, new JSONObject().put("document_id", documentId));
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not enqueue the document", e);
+        }
+    }
+
+    /**
+     * Discards all the pending operations, deleting the journal. To be called when the user
+     * signs out, so their operations are not replayed on behalf of the next user.
+     */
+    public synchronized void clear() {
+        pendingOperations.clear();
+        inFlightOperations.clear();
+        journalRecords = 0;
+        if (journalFile != null) {
+            journalFile.delete();
+        }
+    }
+
+    /**
+     * @return number of operations waiting to be replayed
+     */
+    public synchronized int getDepth() {
+        return pendingOperations.size();
+    }
+
+    /**
+     * @return number of operations enqueued
+     */
+    public long getEnqueuedOperations() {
+        return enqueuedOperations.get();
+    }
+
+    /**
+     * @return number of operations collapsed into a previous one
+     */
+    public long getCoalescedOperations() {
+        return coalescedOperations.get();
+    }
+
+    /**
+     * @return number of operations replayed successfully
+     */
+    public long getReplayedOperations() {
+        return replayedOperations.get();
+    }
+
+    /**
+     * @return number of operations rejected by the server, or failing too many times, and dropped
+     */
+    public long getDroppedOperations() {
+        return droppedOperations.get();
+    }
+
+    /**
+     * @return average time between enqueuing and successfully replaying an operation, or -1 if none
+     */
+    public long getAverageQueueLatencyMs() {
+        final long replayed = replayedOperations.get();
+        return replayed > 0 ? totalQueueLatencyMs.get() / replayed : -1;
+    }
+
+    /**
+     * @return maximum time between enqueuing and successfully replaying an operation
+     */
+    public long getMaxQueueLatencyMs() {
+        return maxQueueLatencyMs.get();
+    }
+
+    /**
+     * Replays the pending operations in background, unless a replay is already in progress.
+     */
+    public void replay() {
+        if (!replaying.compareAndSet(false, true)) {
+            return;
+        }
+        replayExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean drained = false;
+                try {
+                    drained = doReplay();
+                } finally {
+                    replaying.set(false);
+                }
+                if (drained && getDepth() > 0) {
+                    // enqueued after the last round, when the call to replay() was ignored
+                    replay();
+                }
+            }
+        });
+    }
+
+    private void enqueue(OperationType type, String resource, JSONObject args) throws MendeleyException {
+        synchronized (this) {
+            if (journalFile == null) {
+                throw new IllegalStateException("Offline write queue not installed");
+            }
+
+            final long seq = nextSeq++;
+            final Operation previous = type == OperationType.PATCH_DOCUMENT ? getLastPendingOperation(resource) : null;
+            final Operation operation;
+            try {
+                if (previous != null && previous.type == OperationType.PATCH_DOCUMENT && !inFlightOperations.contains(previous.seq)) {
+                    // collapse both patches, the latest values winning
+                    final JSONObject mergedDocument = new JSONObject(previous.args.getJSONObject("document").toString());
+                    final JSONObject document = args.getJSONObject("document");
+                    final Iterator<String> keys = document.keys();
+                    while (keys.hasNext()) {
+                        final String key = keys.next();
+                        mergedDocument.put(key, document.get(key));
+                    }
+                    args.put("document", mergedDocument);
+                    if (previous.args.has("unmodified_since")) {
+                        // the precondition of the oldest patch, so no newer change of the server is overwritten
+                        args.put("unmodified_since", previous.args.getLong("unmodified_since"));
+                    }
+                    operation = new Operation(seq, type, resource, args, previous.enqueuedAtMs);
+
+                    // the new operation is written before discarding the old one, so no change is lost on a crash
+                    appendToJournal(operation.toJson());
+                    appendToJournal(doneRecord(previous.seq));
+                    pendingOperations.remove(previous.seq);
+                    coalescedOperations.incrementAndGet();
+                } else {
+                    operation = new Operation(seq, type, resource != null ? resource : "operations/" + seq, args, System.currentTimeMillis());
+                    appendToJournal(operation.toJson());
+                }
+            } catch (JSONException e) {
+                throw new MendeleyException("Could not enqueue the operation", e);
+            } catch (IOException e) {
+                throw new MendeleyException("Could not write the offline write queue journal", e);
+            }
+
+            pendingOperations.put(seq, operation);
+            enqueuedOperations.incrementAndGet();
+        }
+
+        if (context != null && isConnected()) {
+            replay();
+        }
+    }
+
+    private Operation getLastPendingOperation(String resource) {
+        Operation last = null;
+        for (Operation operation : pendingOperations.values()) {
+            if (operation.resource.equals(resource)) {
+                last = operation;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @return true if the queue was drained, false if the replay stopped on an error
+     */
+    private boolean doReplay() {
+        while (true) {
+            final List<Operation> round = nextRound();
+            if (round.isEmpty()) {
+                return true;
+            }
+
+            final CountDownLatch latch = new CountDownLatch(round.size());
+            final AtomicBoolean failed = new AtomicBoolean();
+            for (final Operation operation : round) {
+                workerExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (!replayOperation(operation)) {
+                                failed.set(true);
+                            }
+                        } finally {
+                            latch.countDown();
+                        }
+                    }
+                });
+            }
+
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (failed.get()) {
+                // probably offline again, retry on the next replay
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the next operations to replay, in order, up to the max parallelism and with no two
+     *         operations against the same resource
+     */
+    private synchronized List<Operation> nextRound() {
+        final List<Operation> round = new ArrayList<Operation>();
+        final Set<String> resources = new HashSet<String>();
+        for (Operation operation : pendingOperations.values()) {
+            if (round.size() >= maxParallelism || !resources.add(operation.resource)) {
+                break;
+            }
+            round.add(operation);
+            inFlightOperations.add(operation.seq);
+        }
+        return round;
+    }
+
+    /**
+     * @return false if the operation failed and should be retried later
+     */
+    private boolean replayOperation(Operation operation) {
+        final Request<?> request;
+        try {
+            request = newRequest(operation);
+        } catch (MendeleyException e) {
+            // replaying it again would fail again
+            onOperationDropped(operation, e);
+            return true;
+        }
+
+        try {
+            request.run();
+            onOperationFinished(operation, true);
+
+            final long queueLatencyMs = System.currentTimeMillis() - operation.enqueuedAtMs;
+            replayedOperations.incrementAndGet();
+            totalQueueLatencyMs.addAndGet(queueLatencyMs);
+            long max;
+            while (queueLatencyMs > (max = maxQueueLatencyMs.get()) && !maxQueueLatencyMs.compareAndSet(max, queueLatencyMs)) {
+                // retry
+            }
+
+            final Listener l = listener;
+            if (l != null) {
+                l.onReplayed(operation);
+            }
+            return true;
+        } catch (MendeleyException e) {
+            if (isRejection(e) || (isServerError(e) && onFailedAttempt(operation) >= maxAttempts)) {
+                onOperationDropped(operation, e);
+                return true;
+            }
+            onOperationFinished(operation, false);
+            return false;
+        }
+    }
+
+    private void onOperationDropped(Operation operation, MendeleyException e) {
+        onOperationFinished(operation, true);
+        droppedOperations.incrementAndGet();
+        final Listener l = listener;
+        if (l != null) {
+            l.onDropped(operation, e);
+        }
+    }
+
+    /**
+     * @return number of times the operation has failed so far
+     */
+    private synchronized int onFailedAttempt(Operation operation) {
+        return ++operation.failedAttempts;
+    }
+
+    /**
+     * @return whether or not the server rejected the operation itself, so replaying it again would
+     *         fail again. Authorization errors are not rejections: the operation may succeed once
+     *         the user has signed in again.
+     */
+    private static boolean isRejection(MendeleyException e) {
+        if (!(e instanceof HttpResponseException)) {
+            return false;
+        }
+        final HttpResponseException httpException = (HttpResponseException) e;
+        if (OAuthTokenEndpoint.TOKENS_URL.equals(httpException.url)) {
+            // the access token could not be refreshed, the operation was not even sent
+            return false;
+        }
+        switch (httpException.httpReturnCode) {
+            case 400:
+            case 404:
+            case 409:
+            case 410:
+            case 412:
+            case 422:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether or not the server answered the operation with an error which is neither a
+     *         rejection nor an authorization error, so it may keep failing however many times it
+     *         is replayed
+     */
+    private static boolean isServerError(MendeleyException e) {
+        if (!(e instanceof HttpResponseException)) {
+            return false;
+        }
+        final HttpResponseException httpException = (HttpResponseException) e;
+        return !OAuthTokenEndpoint.TOKENS_URL.equals(httpException.url) && httpException.httpReturnCode != 401;
+    }
+
+    private synchronized void onOperationFinished(Operation operation, boolean done) {
+        inFlightOperations.remove(operation.seq);
+        if (!done || pendingOperations.remove(operation.seq) == null) {
+            // kept for the next replay, or discarded in the meantime
+            return;
+        }
+        try {
+            appendToJournal(doneRecord(operation.seq));
+            compactJournalIfNeeded();
+        } catch (IOException ignored) {
+            // the operation will be replayed again next time
+        } catch (JSONException ignored) {
+        }
+    }
+
+    private Request<?> newRequest(Operation operation) throws MendeleyException {
+        try {
+            final JSONObject args = operation.args;
+            switch (operation.type) {
+                case POST_DOCUMENT:
+                    return requestsFactory.newPostDocumentRequest(JsonParser.documentFromJson(new JsonReader(new StringReader(args.getJSONObject("document").toString()))));
+                case PATCH_DOCUMENT:
+                    final Date unmodifiedSince = args.has("unmodified_since") ? new Date(args.getLong("unmodified_since")) : null;
+                    return requestsFactory.newPatchDocumentRequest(args.getString("document_id"), unmodifiedSince, JsonParser.documentFromJson(new JsonReader(new StringReader(args.getJSONObject("document").toString()))));
+                case POST_DOCUMENT_TO_FOLDER:
+                    return requestsFactory.newPostDocumentToFolderRequest(args.getString("folder_id"), args.getString("document_id"));
+                case POST_RECENTLY_READ:
+                    return requestsFactory.newPostRecentlyReadRequest(JsonParser.readPositionFromJson(new JsonReader(new StringReader(args.getJSONObject("read_position").toString()))));
+                case TRASH_DOCUMENT:
+                    return requestsFactory.newTrashDocumentRequest(args.getString("document_id"));
+                case RESTORE_TRASHED_DOCUMENT:
+                    return requestsFactory.newRestoreTrashedDocumentRequest(args.getString("document_id"));
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation.type);
+            }
+        } catch (Exception e) {
+            throw new MendeleyException("Could not build the request of the operation " + operation.type, e);
+        }
+    }
+
+    private boolean isConnected() {
+        final Context context = this.context;
+        if (context == null) {
+            return true;
+        }
+        final ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        return networkInfo != null && networkInfo.isConnected();
+    }
+
+    // must be called holding the lock
+    private void loadJournal() throws MendeleyException {
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        try {
+            final byte[] journal = readFully(journalFile);
+            int validLength = 0;
+            int lineStart = 0;
+            int lineEnd;
+            while ((lineEnd = indexOf(journal, (byte) '\n', lineStart)) >= 0) {
+                final JSONObject record;
+                try {
+                    record = new JSONObject(new String(journal, lineStart, lineEnd - lineStart, "UTF-8"));
+                } catch (JSONException e) {
+                    // a record cut by a crash, nothing after it was written
+                    break;
+                }
+                journalRecords++;
+                final long seq = record.getLong("seq");
+                nextSeq = Math.max(nextSeq, seq + 1);
+                if (record.optBoolean("done")) {
+                    pendingOperations.remove(seq);
+                } else {
+                    pendingOperations.put(seq, Operation.fromJson(record));
+                }
+                lineStart = lineEnd + 1;
+                validLength = lineStart;
+            }
+
+            if (validLength < journal.length) {
+                // drop the torn record, so the next one is not appended to it
+                truncate(journalFile, validLength);
+            }
+        } catch (IOException e) {
+            throw new MendeleyException("Could not read the offline write queue journal", e);
+        } catch (JSONException e) {
+            throw new MendeleyException("Could not read the offline write queue journal", e);
+        }
+    }
+
+    // must be called holding the lock
+    private void appendToJournal(JSONObject record) throws IOException {
+        final FileOutputStream os = new FileOutputStream(journalFile, true);
+        try {
+            final Writer writer = new OutputStreamWriter(os, "UTF-8");
+            writer.write(record.toString());
+            writer.write('\n');
+            writer.flush();
+            os.getFD().sync();
+        } finally {
+            closeQuietly(os);
+        }
+        journalRecords++;
+    }
+
+    // must be called holding the lock
+    private void compactJournalIfNeeded() throws IOException, JSONException {
+        if (journalRecords < COMPACTION_MIN_RECORDS || journalRecords < pendingOperations.size() * 4) {
+            return;
+        }
+
+        // rewrite the pending operations only, replacing the journal atomically
+        final File tempFile = new File(journalFile.getPath() + ".tmp");
+        final FileOutputStream os = new FileOutputStream(tempFile);
+        try {
+            final Writer writer = new OutputStreamWriter(os, "UTF-8");
+            for (Operation operation : pendingOperations.values()) {
+                writer.write(operation.toJson().toString());
+                writer.write('\n');
+            }
+            writer.flush();
+            os.getFD().sync();
+        } finally {
+            closeQuietly(os);
+        }
+        if (!tempFile.renameTo(journalFile)) {
+            tempFile.delete();
+            return;
+        }
+        journalRecords = pendingOperations.size();
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        final DataInputStream is = new DataInputStream(new FileInputStream(file));
+        try {
+            final byte[] bytes = new byte[(int) file.length()];
+            is.readFully(bytes);
+            return bytes;
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+            raf.getFD().sync();
+        } finally {
+            closeQuietly(raf);
+        }
+    }
+
+    private static JSONObject doneRecord(long seq) throws JSONException {
+        return new JSONObject().put("seq", seq).put("done", true);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Write operation waiting in the queue.
+     */
+    public static class Operation {
+        public final long seq;
+        public final OperationType type;
+        /**
+         * Resource the operation acts on. Operations against the same resource are replayed in order.
+         */
+        public final String resource;
+        public final long enqueuedAtMs;
+
+        private final JSONObject args;
+        // guarded by the queue, not persisted
+        private int failedAttempts;
+
+        private Operation(long seq, OperationType type, String resource, JSONObject args, long enqueuedAtMs) {
+            this.seq = seq;
+            this.type = type;
+            this.resource = resource;
+            this.args = args;
+            this.enqueuedAtMs = enqueuedAtMs;
+        }
+
+        private JSONObject toJson() throws JSONException {
+            return new JSONObject()
+                    .put("seq", seq)
+                    .put("type", type.name())
+                    .put("resource", resource)
+                    .put("args", args)
+                    .put("enqueued_at", enqueuedAtMs);
+        }
+
+        private static Operation fromJson(JSONObject record) throws JSONException {
+            return new Operation(
+                    record.getLong("seq"),
+                    OperationType.valueOf(record.getString("type")),
+                    record.getString("resource"),
+                    record.getJSONObject("args"),
+                    record.getLong("enqueued_at"));
+        }
+    }
+
+    /**
+     * Listener to be notified of the outcome of the replayed operations. Invoked in a background thread.
+     */
+    public interface Listener {
+        void onReplayed(Operation operation);
+
+        /**
+         * @param operation operation rejected by the server, failing too many times or whose request
+         *                  could not be built, which will not be replayed again
+         * @param e the error returned by the server, or the one building the request
+         */
+        void onDropped(Operation operation, MendeleyException e);
+    }
+}
@@ -0,0 +1,308 @@
+package com.mendeley.sdk;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.model.Annotation;
+import com.mendeley.sdk.model.Document;
+import com.mendeley.sdk.model.File;
+import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
+import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
+import com.mendeley.sdk.request.endpoint.FilesEndpoint;
+import com.mendeley.sdk.request.endpoint.FoldersEndpoint;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactive Streams {@link Publisher} of the items of a paginated request, so client code does not
+ * need to follow the {@link Request.Response#next} links itself.
+ *
+ * <p/>
+ *
+ * Items are emitted one by one, as the subscriber requests them. A page is only requested when
+ * every item of the previous one has been emitted and the subscriber wants more, so pages nobody
+ * consumes are never downloaded. Each subscriber gets its own stream, starting with the first page.
+ *
+ * @param <T> type of the items
+ */
+public class PagedPublisher<T> implements Publisher<T> {
+
+    /**
+     * Creates the requests of the pages.
+     */
+    public interface PageRequests<T> {
+
+        /**
+         * @return the request of the first page
+         */
+        Request<List<T>> newFirstPageRequest();
+
+        /**
+         * @param next the {@link Request.Response#next} link of the previous page
+         * @return the request of the page
+         */
+        Request<List<T>> newPageRequest(Uri next);
+    }
+
+    private final PageRequests<T> pageRequests;
+
+    public PagedPublisher(PageRequests<T> pageRequests) {
+        this.pageRequests = pageRequests;
+    }
+
+    /**
+     * @param parameters used to configure the query. Can be null.
+     * @return a publisher of the {@link Document}s in the user's library
+     */
+    public static PagedPublisher<Document> documents(final RequestsFactory requestsFactory, final DocumentEndpoint.DocumentRequestParameters parameters) {
+        return new PagedPublisher<Document>(new PageRequests<Document>() {
+            @Override
+            public Request<List<Document>> newFirstPageRequest() {
+                return requestsFactory.newGetDocumentsRequest(parameters);
+            }
+
+            @Override
+            public Request<List<Document>> newPageRequest(Uri next) {
+                return requestsFactory.newGetDocumentsRequest(next);
+            }
+        });
+    }
+
+    /**
+     * @param parameters used to configure the query. Can be null.
+     * @return a publisher of the {@link Annotation}s in the user's library
+     */
+    public static PagedPublisher<Annotation> annotations(final RequestsFactory requestsFactory, final AnnotationsEndpoint.AnnotationRequestParameters parameters) {
+        return new PagedPublisher<Annotation>(new PageRequests<Annotation>() {
+            @Override
+            public Request<List<Annotation>> newFirstPageRequest() {
+                return requestsFactory.newGetAnnotationsRequest(parameters);
+            }
+
+            @Override
+            public Request<List<Annotation>> newPageRequest(Uri next) {
+                return requestsFactory.newGetAnnotationsRequest(next);
+            }
+        });
+    }
+
+    /**
+     * @param parameters used to configure the query. Can be null.
+     * @return a publisher of the {@link File}s in the user's library
+     */
+    public static PagedPublisher<File> files(final RequestsFactory requestsFactory, final FilesEndpoint.FileRequestParameters parameters) {
+        return new PagedPublisher<File>(new PageRequests<File>() {
+            @Override
+            public Request<List<File>> newFirstPageRequest() {
+                return requestsFactory.newGetFilesRequest(parameters);
+            }
+
+            @Override
+            public Request<List<File>> newPageRequest(Uri next) {
+                return requestsFactory.newGetFilesRequest(next);
+            }
+        });
+    }
+
+    /**
+     * @param parameters used to configure the query. Can be null.
+     * @param folderId the id of the folder
+     * @return a publisher of the ids of the {@link Document}s in the folder
+     */
+    public static PagedPublisher<String> folderDocuments(final RequestsFactory requestsFactory, final FoldersEndpoint.FolderRequestParameters parameters, final String folderId) {
+        return new PagedPublisher<String>(new PageRequests<String>() {
+            @Override
+            public Request<List<String>> newFirstPageRequest() {
+                return requestsFactory.newGetFolderDocumentsRequest(parameters, folderId);
+            }
+
+            @Override
+            public Request<List<String>> newPageRequest(Uri next) {
+                return requestsFactory.newGetFolderDocumentsRequest(next);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        final PageSubscription subscription = new PageSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * Subscription of one subscriber, holding the items of the current page not emitted yet.
+     *
+     * <p/>
+     *
+     * Signals to the subscriber are only sent from {@link #drain()}, which never runs in two
+     * threads at the same time.
+     */
+    private class PageSubscription implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final AtomicInteger drainers = new AtomicInteger();
+
+        // guarded by this
+        private final ArrayDeque<T> items = new ArrayDeque<T>();
+        private long requested;
+        private boolean firstPageRequested;
+        private Uri next;
+        private boolean fetching;
+        private RequestFuture<?> pageFuture;
+        private Throwable error;
+        private boolean cancelled;
+
+        PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Requested " + n + " items, must be positive");
+                } else {
+                    requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            final RequestFuture<?> pageFuture;
+            synchronized (this) {
+                cancelled = true;
+                items.clear();
+                pageFuture = this.pageFuture;
+                this.pageFuture = null;
+            }
+            if (pageFuture != null) {
+                pageFuture.cancel(false);
+            }
+        }
+
+        private void drain() {
+            if (drainers.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (emitNext()) {
+                    // keep emitting
+                }
+            } while (drainers.decrementAndGet() != 0);
+        }
+
+        /**
+         * @return true if an item has been emitted and there may be more to emit
+         */
+        private boolean emitNext() {
+            final T item;
+            final Throwable error;
+            boolean complete = false;
+            boolean fetch = false;
+            synchronized (this) {
+                if (cancelled) {
+                    return false;
+                }
+                error = this.error;
+                if (error != null) {
+                    cancelled = true;
+                    item = null;
+                } else if (requested > 0 && !items.isEmpty()) {
+                    requested--;
+                    item = items.poll();
+                } else {
+                    item = null;
+                    if (items.isEmpty() && !fetching) {
+                        if (firstPageRequested && next == null) {
+                            cancelled = true;
+                            complete = true;
+                        } else if (requested > 0) {
+                            fetching = true;
+                            fetch = true;
+                        }
+                    }
+                }
+            }
+
+            if (error != null) {
+                subscriber.onError(error);
+                return false;
+            }
+            if (complete) {
+                subscriber.onComplete();
+                return false;
+            }
+            if (fetch) {
+                fetchPage();
+                return false;
+            }
+            if (item != null) {
+                subscriber.onNext(item);
+                return true;
+            }
+            return false;
+        }
+
+        private void fetchPage() {
+            final Request<List<T>> request;
+            synchronized (this) {
+                request = firstPageRequested ? pageRequests.newPageRequest(next) : pageRequests.newFirstPageRequest();
+                firstPageRequested = true;
+            }
+            final RequestFuture<Request<List<T>>.Response> future = request.submit();
+            synchronized (this) {
+                if (cancelled) {
+                    future.cancel(false);
+                    return;
+                }
+                if (fetching) {
+                    pageFuture = future;
+                }
+            }
+
+            future.addListener(new RequestFuture.Listener<Request<List<T>>.Response>() {
+                @Override
+                public void onSuccess(Request<List<T>>.Response page) {
+                    synchronized (PageSubscription.this) {
+                        fetching = false;
+                        pageFuture = null;
+                        if (page.resource != null) {
+                            items.addAll(page.resource);
+                        }
+                        next = page.next;
+                    }
+                    drain();
+                }
+
+                @Override
+                public void onFailure(MendeleyException mendeleyException) {
+                    synchronized (PageSubscription.this) {
+                        fetching = false;
+                        pageFuture = null;
+                        error = mendeleyException;
+                    }
+                    drain();
+                }
+
+                @Override
+                public void onCancelled() {
+                }
+            });
+        }
+    }
+}
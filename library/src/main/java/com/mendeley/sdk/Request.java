@@ -7,11 +7,15 @@ import com.mendeley.sdk.exceptions.MendeleyException;
 import com.mendeley.sdk.exceptions.UserCancelledException;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 import java.util.concurrent.Executor;
 
+import okhttp3.Call;
+
 /**
  * Class modeling an HTTP request against the Mendeley API.
  *
@@ -26,15 +30,12 @@ public abstract class Request<ResultType> {
     protected static final int CONNECTION_TIMEOUT = 1500;
     protected static final int READ_TIMEOUT = 15000 ;
 
-    // Number of times to retry failed HTTP requests due to IOExceptions.
-    protected static final int MAX_HTTP_RETRIES = 0;
-
     static {
         httpHeaderDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy kk:mm:ss 'GMT'", Locale.US);
         httpHeaderDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
     }
 
-    private static Date parseHeaderDate(String serverDateStr) {
+    protected static Date parseHeaderDate(String serverDateStr) {
         try {
             synchronized (httpHeaderDateFormat) {
                 return httpHeaderDateFormat.parse(serverDateStr);
@@ -45,8 +46,14 @@ public abstract class Request<ResultType> {
     }
 
     private final Uri uri;
-    private boolean cancelled;
+    private volatile boolean cancelled;
+    private volatile long cancelledAtNanos;
     private boolean finishedRun;
+    // guarded by this
+    private final List<Call> attachedCalls = new ArrayList<Call>();
+    private final List<Request<?>> attachedRequests = new ArrayList<Request<?>>();
+    private volatile Deadline deadline;
+    private volatile RequestDispatcher.Priority priority = RequestDispatcher.Priority.INTERACTIVE;
 
     /**
      * Constructor
@@ -81,10 +88,14 @@ public abstract class Request<ResultType> {
      * @throws MendeleyException if the request could not be completed for any unexpected reason
      */
     public final Response run() throws MendeleyException {
+        final long startNanos = System.nanoTime();
         try {
             return doRun();
         } finally {
             finishedRun = true;
+            if (cancelled) {
+                CancellationStats.getInstance().onCancelled(System.nanoTime() - Math.max(startNanos, cancelledAtNanos));
+            }
         }
     }
 
@@ -102,15 +113,14 @@ public abstract class Request<ResultType> {
     /**
      * Runs the request asynchronously.
      * This method will not block the caller thread, and the network operation will be performed
-     * in the same thread Asynctasks use.
-     *
-     * {@link AsyncTask#SERIAL_EXECUTOR}
+     * in the {@link RequestDispatcher}, with the priority of this request.
      *
      * @param callback used the get the result asynchronously. The SDK will call methods over this
      *                 callback upon its completion.
+     * @see #setPriority(RequestDispatcher.Priority)
      */
     public final void runAsync(final RequestCallback<ResultType> callback) {
-        runAsync(callback, AsyncTask.SERIAL_EXECUTOR);
+        runAsync(callback, RequestDispatcher.getInstance().getExecutor(priority));
     }
 
     /**
@@ -127,11 +137,170 @@ public abstract class Request<ResultType> {
         task.executeOnExecutor(executor);
     }
 
+    /**
+     * Runs the request asynchronously in the {@link RequestDispatcher}, with the priority of this
+     * request.
+     *
+     * @return future completing with the response. Cancelling it cancels this request.
+     * @see RequestFuture
+     */
+    public final RequestFuture<Response> submit() {
+        return submit(RequestDispatcher.getInstance().getExecutor(priority));
+    }
+
+    /**
+     * Runs the request asynchronously in the passed executor.
+     *
+     * @param executor where the network operation will run at
+     * @return future completing with the response. Cancelling it cancels this request.
+     */
+    public final RequestFuture<Response> submit(Executor executor) {
+        final RequestFuture<Response> future = new RequestFuture<Response>() {
+            @Override
+            protected void onCancel() {
+                Request.this.cancel();
+            }
+        };
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.set(Request.this.run());
+                } catch (MendeleyException e) {
+                    if (isCancelled()) {
+                        future.cancel(false);
+                    } else {
+                        future.setException(e);
+                    }
+                } catch (RuntimeException e) {
+                    // a bug of the request, which must not leave the future pending forever
+                    future.setException(new MendeleyException("Error running the request", e));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sets the priority this request is dispatched with when run with
+     * {@link #runAsync(RequestCallback)} or {@link #submit()}. Requests are {@link RequestDispatcher.Priority#INTERACTIVE}
+     * by default.
+     */
+    public final void setPriority(RequestDispatcher.Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * @return the priority this request is dispatched with
+     */
+    public final RequestDispatcher.Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the deadline of this request. If it passes before the request has been completed,
+     * including refreshing the access token, retries and parsing the response, the request fails
+     * with a {@link com.mendeley.sdk.exceptions.DeadlineExceededException}.
+     *
+     * @param deadline the deadline, or null for none
+     */
+    public final void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return the deadline of this request, or null if it has none
+     */
+    public final Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return whether or not the deadline of this request has passed
+     */
+    protected final boolean isDeadlineExpired() {
+        final Deadline deadline = this.deadline;
+        return deadline != null && deadline.isExpired();
+    }
+
+    /**
+     * @throws com.mendeley.sdk.exceptions.DeadlineExceededException if the deadline of this request has passed
+     */
+    protected final void checkDeadline() throws MendeleyException {
+        final Deadline deadline = this.deadline;
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
     /**
      * Tells this request to cancel its work and to return as soon as possible.
+     * The network calls in progress are aborted, releasing their connections.
      */
     public final void cancel() {
-        cancelled = true;
+        final List<Call> calls;
+        final List<Request<?>> requests;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelledAtNanos = System.nanoTime();
+            cancelled = true;
+            calls = new ArrayList<Call>(attachedCalls);
+            requests = new ArrayList<Request<?>>(attachedRequests);
+        }
+        for (Call call : calls) {
+            call.cancel();
+        }
+        for (Request<?> request : requests) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Attaches a network call performed by this request, so it is aborted if the request is
+     * cancelled while the call is in progress. If the request has already been cancelled, the
+     * call is aborted straight away.
+     */
+    protected final void attachCall(Call call) {
+        synchronized (this) {
+            if (!cancelled) {
+                attachedCalls.add(call);
+                return;
+            }
+        }
+        call.cancel();
+    }
+
+    /**
+     * Detaches a call attached with {@link #attachCall(Call)} once it has been consumed.
+     */
+    protected final synchronized void detachCall(Call call) {
+        attachedCalls.remove(call);
+    }
+
+    /**
+     * Attaches another request performed as part of this one, like refreshing the access token,
+     * so it is cancelled if this one is.
+     */
+    protected final void attachRequest(Request<?> request) {
+        synchronized (this) {
+            if (!cancelled) {
+                attachedRequests.add(request);
+                return;
+            }
+        }
+        request.cancel();
+    }
+
+    /**
+     * Detaches a request attached with {@link #attachRequest(Request)} once it has finished.
+     */
+    protected final synchronized void detachRequest(Request<?> request) {
+        attachedRequests.remove(request);
     }
 
     /**
@@ -0,0 +1,302 @@
+package com.mendeley.sdk;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor where {@link Request#runAsync(Request.RequestCallback)} runs the requests by default.
+ *
+ * <p/>
+ *
+ * Requests are dispatched according to their {@link Priority}: each priority has its own
+ * concurrency limit, on top of a global one, and queued requests of higher priority are started
+ * first. So a slow download running in background does not hold back the requests the user is
+ * waiting for, as it would with a single serial executor.
+ *
+ * <p/>
+ *
+ * To keep lower priorities from starving, a request that has been queued for longer than the
+ * aging period is started before any request of higher priority.
+ *
+ * <p/>
+ *
+ * The time requests wait in the queue is measured for every priority.
+ */
+public class RequestDispatcher {
+
+    public enum Priority {
+        /**
+         * Requests the user is waiting for
+         */
+        INTERACTIVE,
+        /**
+         * Requests of data the user will likely need soon
+         */
+        PREFETCH,
+        /**
+         * Synchronisation and other requests the user is not waiting for
+         */
+        BACKGROUND
+    }
+
+    private static final int PRIORITIES = Priority.values().length;
+
+    private static RequestDispatcher instance;
+
+    private final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+    private final Executor[] executors = new Executor[PRIORITIES];
+
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Task>[] queues = new ArrayDeque[PRIORITIES];
+    private final int[] running = new int[PRIORITIES];
+    private int totalRunning;
+
+    private final AtomicLong[] startedTasks = new AtomicLong[PRIORITIES];
+    private final AtomicLong[] totalQueueWaitMs = new AtomicLong[PRIORITIES];
+    private final AtomicLong[] maxQueueWaitMs = new AtomicLong[PRIORITIES];
+
+    private Configuration configuration = new Configuration.Builder().build();
+
+    /**
+     * @return a reference to the {@link RequestDispatcher} singleton.
+     */
+    public static synchronized RequestDispatcher getInstance() {
+        if (instance == null) {
+            instance = new RequestDispatcher();
+        }
+        return instance;
+    }
+
+    private RequestDispatcher() {
+        for (final Priority priority : Priority.values()) {
+            final int index = priority.ordinal();
+            queues[index] = new ArrayDeque<Task>();
+            startedTasks[index] = new AtomicLong();
+            totalQueueWaitMs[index] = new AtomicLong();
+            maxQueueWaitMs[index] = new AtomicLong();
+            executors[index] = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    enqueue(new Task(priority, command));
+                }
+            };
+        }
+    }
+
+    /**
+     * Configures the concurrency limits. Requests already running are not affected.
+     */
+    public void configure(Configuration configuration) {
+        synchronized (this) {
+            this.configuration = configuration;
+        }
+        dispatch();
+    }
+
+    public synchronized Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return an {@link Executor} running its tasks with the given priority
+     */
+    public Executor getExecutor(Priority priority) {
+        return executors[priority.ordinal()];
+    }
+
+    /**
+     * @return number of tasks of the priority waiting to be started
+     */
+    public synchronized int getQueuedTasks(Priority priority) {
+        return queues[priority.ordinal()].size();
+    }
+
+    /**
+     * @return number of tasks of the priority currently running
+     */
+    public synchronized int getRunningTasks(Priority priority) {
+        return running[priority.ordinal()];
+    }
+
+    /**
+     * @return number of tasks of the priority started so far
+     */
+    public long getStartedTasks(Priority priority) {
+        return startedTasks[priority.ordinal()].get();
+    }
+
+    /**
+     * @return average time the tasks of the priority waited before being started, or -1 if none
+     */
+    public long getAverageQueueWaitMs(Priority priority) {
+        final long started = startedTasks[priority.ordinal()].get();
+        return started > 0 ? totalQueueWaitMs[priority.ordinal()].get() / started : -1;
+    }
+
+    /**
+     * @return maximum time a task of the priority waited before being started
+     */
+    public long getMaxQueueWaitMs(Priority priority) {
+        return maxQueueWaitMs[priority.ordinal()].get();
+    }
+
+    private void enqueue(Task task) {
+        synchronized (this) {
+            queues[task.priority.ordinal()].add(task);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Task task;
+            synchronized (this) {
+                task = pollNextTask();
+                if (task == null) {
+                    return;
+                }
+                running[task.priority.ordinal()]++;
+                totalRunning++;
+            }
+            threadPool.execute(task);
+        }
+    }
+
+    /**
+     * @return the next task to start, or null if none may be started now
+     */
+    // must be called holding the lock
+    private Task pollNextTask() {
+        if (totalRunning >= configuration.maxConcurrency) {
+            return null;
+        }
+
+        final long nowNanos = System.nanoTime();
+        final long agingNanos = TimeUnit.MILLISECONDS.toNanos(configuration.agingMs);
+        ArrayDeque<Task> highest = null;
+        ArrayDeque<Task> oldestAged = null;
+        for (int i = 0; i < PRIORITIES; i++) {
+            final ArrayDeque<Task> queue = queues[i];
+            if (queue.isEmpty() || running[i] >= configuration.concurrencyLimits[i]) {
+                continue;
+            }
+            if (highest == null) {
+                highest = queue;
+            }
+            final long queuedAtNanos = queue.peek().queuedAtNanos;
+            if (nowNanos - queuedAtNanos >= agingNanos && (oldestAged == null || queuedAtNanos < oldestAged.peek().queuedAtNanos)) {
+                oldestAged = queue;
+            }
+        }
+
+        if (oldestAged != null) {
+            return oldestAged.poll();
+        }
+        return highest != null ? highest.poll() : null;
+    }
+
+    private void onTaskFinished(Task task) {
+        synchronized (this) {
+            running[task.priority.ordinal()]--;
+            totalRunning--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Task queued with some priority.
+     */
+    private class Task implements Runnable {
+        private final Priority priority;
+        private final Runnable command;
+        private final long queuedAtNanos = System.nanoTime();
+
+        Task(Priority priority, Runnable command) {
+            this.priority = priority;
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            final int index = priority.ordinal();
+            final long queueWaitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAtNanos);
+            startedTasks[index].incrementAndGet();
+            totalQueueWaitMs[index].addAndGet(queueWaitMs);
+            long max;
+            while (queueWaitMs > (max = maxQueueWaitMs[index].get()) && !maxQueueWaitMs[index].compareAndSet(max, queueWaitMs)) {
+                // retry
+            }
+
+            try {
+                command.run();
+            } finally {
+                onTaskFinished(this);
+            }
+        }
+    }
+
+    /**
+     * Concurrency limits of the dispatcher.
+     */
+    public static class Configuration {
+
+        /**
+         * Maximum number of tasks running at the same time, whatever their priority
+         */
+        public final int maxConcurrency;
+        /**
+         * Time after which a queued task is started before the ones of higher priority
+         */
+        public final long agingMs;
+
+        private final int[] concurrencyLimits;
+
+        private Configuration(int maxConcurrency, long agingMs, int[] concurrencyLimits) {
+            this.maxConcurrency = maxConcurrency;
+            this.agingMs = agingMs;
+            this.concurrencyLimits = concurrencyLimits;
+        }
+
+        /**
+         * @return maximum number of tasks of the priority running at the same time
+         */
+        public int getConcurrencyLimit(Priority priority) {
+            return concurrencyLimits[priority.ordinal()];
+        }
+
+        public static class Builder {
+            private int maxConcurrency = 6;
+            private long agingMs = 2000;
+            private final int[] concurrencyLimits = new int[] {4, 2, 1};
+
+            public Builder() {}
+
+            public Builder setMaxConcurrency(int maxConcurrency) {
+                this.maxConcurrency = maxConcurrency;
+                return this;
+            }
+
+            public Builder setAgingMs(long agingMs) {
+                this.agingMs = agingMs;
+                return this;
+            }
+
+            public Builder setConcurrencyLimit(Priority priority, int concurrencyLimit) {
+                this.concurrencyLimits[priority.ordinal()] = concurrencyLimit;
+                return this;
+            }
+
+            public Configuration build() {
+                final int[] limits = new int[PRIORITIES];
+                for (int i = 0; i < PRIORITIES; i++) {
+                    limits[i] = Math.max(1, concurrencyLimits[i]);
+                }
+                return new Configuration(Math.max(1, maxConcurrency), agingMs, limits);
+            }
+        }
+    }
+}
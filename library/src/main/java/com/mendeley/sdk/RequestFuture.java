@@ -0,0 +1,522 @@
+package com.mendeley.sdk;
+
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of a {@link Request} run asynchronously with {@link Request#submit()}, or of the
+ * composition of several of them.
+ *
+ * <p/>
+ *
+ * Unlike {@link Request.RequestCallback}s, futures can be chained with
+ * {@link #thenApply(Function)} and {@link #thenCompose(AsyncFunction)}, and combined with
+ * {@link #allOf(List)}, so independent requests can overlap instead of running one after the
+ * other. {@link #runAll(List, int)} runs a list of requests with bounded parallelism.
+ *
+ * <p/>
+ *
+ * The steps of a chain run in the thread completing the previous step. Cancelling a future
+ * cancels the request or requests it is waiting for.
+ *
+ * @param <T> type of the result
+ */
+public class RequestFuture<T> implements Future<T> {
+
+    /**
+     * Transformation of the result of a future.
+     */
+    public interface Function<I, O> {
+        O apply(I input) throws MendeleyException;
+    }
+
+    /**
+     * Transformation of the result of a future into another future, typically of a new request.
+     */
+    public interface AsyncFunction<I, O> {
+        RequestFuture<O> apply(I input) throws MendeleyException;
+    }
+
+    /**
+     * Listener invoked once the future completes.
+     */
+    public interface Listener<T> {
+
+        void onSuccess(T result);
+
+        /**
+         * @param mendeleyException semantic exception representing the error
+         */
+        void onFailure(MendeleyException mendeleyException);
+
+        void onCancelled();
+    }
+
+    private enum State {
+        PENDING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private State state = State.PENDING;
+    private T result;
+    private MendeleyException error;
+    private List<Runnable> listeners = new ArrayList<Runnable>();
+
+    RequestFuture() {
+    }
+
+    /**
+     * @return a future already completed with the result
+     */
+    public static <T> RequestFuture<T> completed(T result) {
+        final RequestFuture<T> future = new RequestFuture<T>();
+        future.set(result);
+        return future;
+    }
+
+    /**
+     * @return a future already failed with the error
+     */
+    public static <T> RequestFuture<T> failed(MendeleyException error) {
+        final RequestFuture<T> future = new RequestFuture<T>();
+        future.setException(error);
+        return future;
+    }
+
+    /**
+     * Combines the futures into one completing with all their results, in the same order, once
+     * all of them succeed. If any of them fails or is cancelled, the combined future does the
+     * same and the rest are cancelled.
+     */
+    public static <T> RequestFuture<List<T>> allOf(final List<? extends RequestFuture<? extends T>> futures) {
+        final RequestFuture<List<T>> combined = new RequestFuture<List<T>>() {
+            @Override
+            protected void onCancel() {
+                for (RequestFuture<? extends T> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        };
+
+        if (futures.isEmpty()) {
+            combined.set(Collections.<T>emptyList());
+            return combined;
+        }
+
+        final Object[] results = new Object[futures.size()];
+        final int[] pending = new int[] {futures.size()};
+        for (int i = 0; i < futures.size(); i++) {
+            final int index = i;
+            futures.get(i).addListener(new Listener<T>() {
+                @Override
+                public void onSuccess(T result) {
+                    final boolean last;
+                    synchronized (results) {
+                        results[index] = result;
+                        last = --pending[0] == 0;
+                    }
+                    if (last) {
+                        combined.set(toList(results));
+                    }
+                }
+
+                @Override
+                public void onFailure(MendeleyException mendeleyException) {
+                    if (combined.setException(mendeleyException)) {
+                        combined.onCancel();
+                    }
+                }
+
+                @Override
+                public void onCancelled() {
+                    combined.cancel(false);
+                }
+            });
+        }
+        return combined;
+    }
+
+    /**
+     * Runs the requests with at most the passed number of them at the same time, in the
+     * {@link RequestDispatcher} with the priority of each of them.
+     *
+     * @return future completing with all the responses, in the same order as the requests. If
+     *          any request fails, it fails with its error and the rest are cancelled.
+     */
+    public static <T> RequestFuture<List<Request<T>.Response>> runAll(final List<? extends Request<T>> requests, int parallelism) {
+        final Object[] responses = new Object[requests.size()];
+        final RequestFuture<?>[] running = new RequestFuture<?>[requests.size()];
+        final int[] next = new int[] {0};
+        final int[] pending = new int[] {requests.size()};
+
+        final RequestFuture<List<Request<T>.Response>> combined = new RequestFuture<List<Request<T>.Response>>() {
+            @Override
+            protected void onCancel() {
+                final List<RequestFuture<?>> toCancel;
+                synchronized (responses) {
+                    next[0] = requests.size();
+                    toCancel = new ArrayList<RequestFuture<?>>(Arrays.asList(running));
+                }
+                for (RequestFuture<?> future : toCancel) {
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                }
+            }
+        };
+
+        if (requests.isEmpty()) {
+            combined.set(Collections.<Request<T>.Response>emptyList());
+            return combined;
+        }
+
+        final Runnable submitNext = new Runnable() {
+            @Override
+            public void run() {
+                final int index;
+                synchronized (responses) {
+                    if (next[0] >= requests.size()) {
+                        return;
+                    }
+                    index = next[0]++;
+                }
+
+                final Runnable self = this;
+                final RequestFuture<Request<T>.Response> future = requests.get(index).submit();
+                synchronized (responses) {
+                    running[index] = future;
+                }
+                future.addListener(new Listener<Request<T>.Response>() {
+                    @Override
+                    public void onSuccess(Request<T>.Response response) {
+                        final boolean last;
+                        synchronized (responses) {
+                            responses[index] = response;
+                            running[index] = null;
+                            last = --pending[0] == 0;
+                        }
+                        if (last) {
+                            combined.set(RequestFuture.<Request<T>.Response>toList(responses));
+                        } else {
+                            self.run();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(MendeleyException mendeleyException) {
+                        if (combined.setException(mendeleyException)) {
+                            combined.onCancel();
+                        }
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        combined.cancel(false);
+                    }
+                });
+            }
+        };
+
+        for (int i = 0; i < Math.max(1, parallelism); i++) {
+            submitNext.run();
+        }
+        return combined;
+    }
+
+    /**
+     * @return a future completing with the result of this one transformed by the function
+     */
+    public <O> RequestFuture<O> thenApply(final Function<? super T, ? extends O> function) {
+        final RequestFuture<O> chained = new RequestFuture<O>() {
+            @Override
+            protected void onCancel() {
+                RequestFuture.this.cancel(false);
+            }
+        };
+        addListener(new ChainListener<T, O>(chained) {
+            @Override
+            public void onSuccess(T result) {
+                try {
+                    chained.set(function.apply(result));
+                } catch (MendeleyException e) {
+                    chained.setException(e);
+                } catch (RuntimeException e) {
+                    // a bug of the function, which must not leave the chained future pending forever
+                    chained.setException(new MendeleyException("Error applying the function", e));
+                }
+            }
+        });
+        return chained;
+    }
+
+    /**
+     * @return a future completing with the result of the future returned by the function, which
+     *          is invoked with the result of this one. Used to chain dependent requests.
+     */
+    public <O> RequestFuture<O> thenCompose(final AsyncFunction<? super T, O> function) {
+        final RequestFuture<?>[] current = new RequestFuture<?>[] {this};
+        final RequestFuture<O> chained = new RequestFuture<O>() {
+            @Override
+            protected void onCancel() {
+                final RequestFuture<?> future;
+                synchronized (current) {
+                    future = current[0];
+                }
+                future.cancel(false);
+            }
+        };
+        addListener(new ChainListener<T, O>(chained) {
+            @Override
+            public void onSuccess(T result) {
+                final RequestFuture<O> next;
+                try {
+                    next = function.apply(result);
+                } catch (MendeleyException e) {
+                    chained.setException(e);
+                    return;
+                } catch (RuntimeException e) {
+                    // a bug of the function, which must not leave the chained future pending forever
+                    chained.setException(new MendeleyException("Error applying the function", e));
+                    return;
+                }
+                if (next == null) {
+                    chained.setException(new MendeleyException("The function returned no future"));
+                    return;
+                }
+                synchronized (current) {
+                    current[0] = next;
+                }
+                if (chained.isCancelled()) {
+                    next.cancel(false);
+                    return;
+                }
+                next.addListener(new ChainListener<O, O>(chained) {
+                    @Override
+                    public void onSuccess(O result) {
+                        chained.set(result);
+                    }
+                });
+            }
+        });
+        return chained;
+    }
+
+    /**
+     * @return a future completing as this one, or failing with a {@link DeadlineExceededException}
+     *          if this one has not completed within the passed time. In that case, this one is
+     *          cancelled.
+     */
+    public RequestFuture<T> withTimeout(long timeout, TimeUnit unit) {
+        final RequestFuture<T> timed = new RequestFuture<T>() {
+            @Override
+            protected void onCancel() {
+                RequestFuture.this.cancel(false);
+            }
+        };
+        final Future<?> timer = Deadline.getWatchdog().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (timed.setException(new DeadlineExceededException())) {
+                    timed.onCancel();
+                }
+            }
+        }, timeout, unit);
+        addListener(new ChainListener<T, T>(timed) {
+            @Override
+            public void onSuccess(T result) {
+                timer.cancel(false);
+                timed.set(result);
+            }
+
+            @Override
+            public void onFailure(MendeleyException mendeleyException) {
+                timer.cancel(false);
+                super.onFailure(mendeleyException);
+            }
+        });
+        return timed;
+    }
+
+    /**
+     * Adds a listener, invoked in the thread completing this future, or in the caller thread if it
+     * has already completed.
+     */
+    public void addListener(Listener<? super T> listener) {
+        addListener(listener, null);
+    }
+
+    /**
+     * Adds a listener, invoked in the passed executor once this future completes.
+     *
+     * @param executor where to invoke the listener, or null to invoke it in the thread completing
+     *                 this future
+     */
+    public void addListener(final Listener<? super T> listener, final Executor executor) {
+        final Runnable notification = new Runnable() {
+            @Override
+            public void run() {
+                final State state;
+                final T result;
+                final MendeleyException error;
+                synchronized (RequestFuture.this) {
+                    state = RequestFuture.this.state;
+                    result = RequestFuture.this.result;
+                    error = RequestFuture.this.error;
+                }
+                switch (state) {
+                    case SUCCEEDED:
+                        listener.onSuccess(result);
+                        break;
+                    case FAILED:
+                        listener.onFailure(error);
+                        break;
+                    default:
+                        listener.onCancelled();
+                }
+            }
+        };
+        final Runnable task = executor == null ? notification : new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(notification);
+            }
+        };
+
+        synchronized (this) {
+            if (state == State.PENDING) {
+                listeners.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!complete(State.CANCELLED, null, null)) {
+            return false;
+        }
+        onCancel();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state != State.PENDING;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (state == State.PENDING) {
+            wait();
+        }
+        return getResult();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        final long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        while (state == State.PENDING) {
+            final long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remainingMs <= 0) {
+                throw new TimeoutException();
+            }
+            wait(remainingMs);
+        }
+        return getResult();
+    }
+
+    /**
+     * Invoked once when this future is cancelled, to cancel the work it is waiting for.
+     */
+    protected void onCancel() {
+    }
+
+    boolean set(T result) {
+        return complete(State.SUCCEEDED, result, null);
+    }
+
+    boolean setException(MendeleyException error) {
+        return complete(State.FAILED, null, error);
+    }
+
+    // must be called holding the lock
+    private T getResult() throws ExecutionException {
+        switch (state) {
+            case SUCCEEDED:
+                return result;
+            case FAILED:
+                throw new ExecutionException(error);
+            default:
+                throw new CancellationException();
+        }
+    }
+
+    private boolean complete(State state, T result, MendeleyException error) {
+        final List<Runnable> toNotify;
+        synchronized (this) {
+            if (this.state != State.PENDING) {
+                return false;
+            }
+            this.state = state;
+            this.result = result;
+            this.error = error;
+            toNotify = listeners;
+            listeners = null;
+            notifyAll();
+        }
+        for (Runnable listener : toNotify) {
+            try {
+                listener.run();
+            } catch (RuntimeException ignored) {
+                // a bug of the listener, which must not keep the other ones from being notified
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Object[] results) {
+        final List<T> list = new ArrayList<T>(results.length);
+        for (Object result : results) {
+            list.add((T) result);
+        }
+        return list;
+    }
+
+    /**
+     * Listener propagating failures and cancellations of a future to the one chained to it.
+     */
+    private static abstract class ChainListener<I, O> implements Listener<I> {
+        private final RequestFuture<O> chained;
+
+        ChainListener(RequestFuture<O> chained) {
+            this.chained = chained;
+        }
+
+        @Override
+        public void onFailure(MendeleyException mendeleyException) {
+            chained.setException(mendeleyException);
+        }
+
+        @Override
+        public void onCancelled() {
+            chained.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.mendeley.sdk;
+
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a set of {@link Request}s that depend on each other, like creating a document and then
+ * uploading its file, which needs the id of the new document.
+ *
+ * <p/>
+ *
+ * Each {@link Node} is created from the results of the nodes it depends on. Nodes run as soon as
+ * all their parents have succeeded, each in the {@link RequestDispatcher} with the priority of its
+ * request, so independent nodes overlap. If a node fails, or its request is cancelled, the nodes
+ * depending on it, directly or not, are skipped, while the rest carry on.
+ *
+ * <p/>
+ *
+ * The {@link Result} reports the nodes that failed or were skipped, and the critical path: the
+ * chain of nodes that determined how long the whole pipeline took.
+ *
+ * <pre>
+ * final RequestPipeline pipeline = new RequestPipeline();
+ * final RequestPipeline.Node&lt;Document&gt; document = pipeline.add("document", new RequestPipeline.Step&lt;Document&gt;() {
+ *     public Request&lt;Document&gt; newRequest(RequestPipeline.Inputs inputs) {
+ *         return requestsFactory.newPostDocumentRequest(newDocument);
+ *     }
+ * });
+ * pipeline.add("file", new RequestPipeline.Step&lt;File&gt;() {
+ *     public Request&lt;File&gt; newRequest(RequestPipeline.Inputs inputs) {
+ *         return requestsFactory.newPostFileWithBinaryRequest(contentType, inputs.get(document).id, fileName, inputStream);
+ *     }
+ * }, document);
+ * pipeline.start();
+ * </pre>
+ *
+ * Pipelines run only once.
+ */
+public class RequestPipeline {
+
+    /**
+     * Creates the request of a node.
+     */
+    public interface Step<T> {
+        /**
+         * @param inputs results of the nodes this one depends on
+         * @return the request of the node
+         * @throws MendeleyException if the request cannot be created, failing the node
+         */
+        Request<T> newRequest(Inputs inputs) throws MendeleyException;
+    }
+
+    /**
+     * Results of the nodes of the pipeline that have succeeded.
+     */
+    public interface Inputs {
+        /**
+         * @return the resource returned by the request of the node
+         * @throws IllegalStateException if the node has not succeeded
+         */
+        <T> T get(Node<T> node);
+    }
+
+    private enum State {
+        WAITING, RUNNING, SUCCEEDED, FAILED, SKIPPED
+    }
+
+    private final List<Node<?>> nodes = new ArrayList<Node<?>>();
+    private final Inputs inputs = new Inputs() {
+        @Override
+        public <T> T get(Node<T> node) {
+            synchronized (RequestPipeline.this) {
+                if (node.state != State.SUCCEEDED) {
+                    throw new IllegalStateException("Node " + node.name + " has not succeeded");
+                }
+                return node.result;
+            }
+        }
+    };
+
+    private RequestFuture<Result> future;
+    private long startNanos;
+    private int pendingNodes;
+
+    /**
+     * Adds a node to the pipeline.
+     *
+     * @param name name of the node, used in the {@link Result}
+     * @param step creates the request of the node
+     * @param parents nodes that must succeed before this one runs. They must have already been
+     *                added to this pipeline, so there cannot be cycles.
+     * @return the node
+     */
+    public synchronized <T> Node<T> add(String name, Step<T> step, Node<?>... parents) {
+        if (future != null) {
+            throw new IllegalStateException("Pipeline already started");
+        }
+        final Node<T> node = new Node<T>(name, step);
+        for (Node<?> parent : parents) {
+            if (!nodes.contains(parent)) {
+                throw new IllegalArgumentException("Parent " + parent.name + " is not in the pipeline");
+            }
+            node.parents.add(parent);
+            parent.children.add(node);
+        }
+        node.pendingParents = parents.length;
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * Starts running the pipeline.
+     *
+     * @return future completing once every node has finished or been skipped. It fails only if the
+     *          pipeline is cancelled; failures of the nodes are reported in the {@link Result}.
+     *          Cancelling it cancels the requests running.
+     */
+    public RequestFuture<Result> start() {
+        final List<Node<?>> ready = new ArrayList<Node<?>>();
+        synchronized (this) {
+            if (future != null) {
+                throw new IllegalStateException("Pipeline already started");
+            }
+            future = new RequestFuture<Result>() {
+                @Override
+                protected void onCancel() {
+                    cancelRunning();
+                }
+            };
+            startNanos = System.nanoTime();
+            pendingNodes = nodes.size();
+            for (Node<?> node : nodes) {
+                if (node.pendingParents == 0) {
+                    node.state = State.RUNNING;
+                    ready.add(node);
+                }
+            }
+            if (pendingNodes == 0) {
+                future.set(buildResult());
+            }
+        }
+
+        final RequestFuture<Result> started = future;
+        for (Node<?> node : ready) {
+            run(node);
+        }
+        return started;
+    }
+
+    private <T> void run(final Node<T> node) {
+        node.startNanos = System.nanoTime();
+        final Request<T> request;
+        try {
+            request = node.step.newRequest(inputs);
+        } catch (MendeleyException e) {
+            onFailed(node, e);
+            return;
+        } catch (RuntimeException e) {
+            // like reading an input that has not succeeded, which must not leave the node running
+            onFailed(node, new MendeleyException("Could not create the request of node " + node.name, e));
+            return;
+        }
+
+        final RequestFuture<Request<T>.Response> requestFuture;
+        synchronized (this) {
+            if (future.isCancelled()) {
+                return;
+            }
+            requestFuture = request.submit();
+            node.future = requestFuture;
+        }
+        requestFuture.addListener(new RequestFuture.Listener<Request<T>.Response>() {
+            @Override
+            public void onSuccess(Request<T>.Response response) {
+                onSucceeded(node, response.resource);
+            }
+
+            @Override
+            public void onFailure(MendeleyException mendeleyException) {
+                onFailed(node, mendeleyException);
+            }
+
+            @Override
+            public void onCancelled() {
+                onFailed(node, new UserCancelledException());
+            }
+        });
+    }
+
+    private <T> void onSucceeded(Node<T> node, T result) {
+        final List<Node<?>> ready = new ArrayList<Node<?>>();
+        synchronized (this) {
+            node.endNanos = System.nanoTime();
+            node.result = result;
+            node.state = State.SUCCEEDED;
+            node.future = null;
+            for (Node<?> child : node.children) {
+                if (--child.pendingParents == 0 && child.state == State.WAITING) {
+                    child.state = State.RUNNING;
+                    ready.add(child);
+                }
+            }
+            onNodeFinished();
+        }
+        for (Node<?> child : ready) {
+            run(child);
+        }
+    }
+
+    private synchronized void onFailed(Node<?> node, MendeleyException error) {
+        node.endNanos = System.nanoTime();
+        node.error = error;
+        node.state = State.FAILED;
+        node.future = null;
+        onNodeFinished();
+
+        // skip the dependents, which cannot run any more
+        final LinkedList<Node<?>> toSkip = new LinkedList<Node<?>>(node.children);
+        while (!toSkip.isEmpty()) {
+            final Node<?> dependent = toSkip.poll();
+            if (dependent.state == State.WAITING) {
+                dependent.state = State.SKIPPED;
+                toSkip.addAll(dependent.children);
+                onNodeFinished();
+            }
+        }
+    }
+
+    // must be called holding the lock
+    private void onNodeFinished() {
+        if (--pendingNodes == 0) {
+            future.set(buildResult());
+        }
+    }
+
+    private void cancelRunning() {
+        final List<RequestFuture<?>> running = new ArrayList<RequestFuture<?>>();
+        synchronized (this) {
+            for (Node<?> node : nodes) {
+                if (node.future != null) {
+                    running.add(node.future);
+                }
+            }
+        }
+        for (RequestFuture<?> nodeFuture : running) {
+            nodeFuture.cancel(false);
+        }
+    }
+
+    // must be called holding the lock
+    private Result buildResult() {
+        final Map<Node<?>, Object> results = new HashMap<Node<?>, Object>();
+        final Map<String, MendeleyException> failures = new LinkedHashMap<String, MendeleyException>();
+        final List<String> skipped = new ArrayList<String>();
+        Node<?> last = null;
+        long workNanos = 0;
+        for (Node<?> node : nodes) {
+            if (node.state == State.SUCCEEDED) {
+                results.put(node, node.result);
+            } else if (node.state == State.FAILED) {
+                failures.put(node.name, node.error);
+            } else if (node.state == State.SKIPPED) {
+                skipped.add(node.name);
+                continue;
+            }
+            workNanos += node.endNanos - node.startNanos;
+            if (last == null || node.endNanos > last.endNanos) {
+                last = node;
+            }
+        }
+
+        // walk back from the last node to finish, through the parent each node waited for
+        final LinkedList<String> criticalPath = new LinkedList<String>();
+        for (Node<?> node = last; node != null; ) {
+            criticalPath.addFirst(node.name);
+            Node<?> latestParent = null;
+            for (Node<?> parent : node.parents) {
+                if (latestParent == null || parent.endNanos > latestParent.endNanos) {
+                    latestParent = parent;
+                }
+            }
+            node = latestParent;
+        }
+
+        final long criticalPathMs = last != null ? TimeUnit.NANOSECONDS.toMillis(last.endNanos - startNanos) : 0;
+        return new Result(results, failures, skipped, criticalPath, criticalPathMs, TimeUnit.NANOSECONDS.toMillis(workNanos));
+    }
+
+    /**
+     * Node of a {@link RequestPipeline}, running one request.
+     */
+    public static final class Node<T> {
+        private final String name;
+        private final Step<T> step;
+        private final List<Node<?>> parents = new ArrayList<Node<?>>();
+        private final List<Node<?>> children = new ArrayList<Node<?>>();
+
+        // guarded by the pipeline
+        private int pendingParents;
+        private State state = State.WAITING;
+        private T result;
+        private MendeleyException error;
+        private RequestFuture<?> future;
+        private long startNanos;
+        private long endNanos;
+
+        private Node(String name, Step<T> step) {
+            this.name = name;
+            this.step = step;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Outcome of a {@link RequestPipeline}.
+     */
+    public static class Result implements Inputs {
+
+        private final Map<Node<?>, Object> results;
+
+        /**
+         * Errors of the nodes that failed, by node name
+         */
+        public final Map<String, MendeleyException> failures;
+
+        /**
+         * Names of the nodes not run because a node they depend on failed
+         */
+        public final List<String> skipped;
+
+        /**
+         * Names of the nodes in the critical path, from the first one to run to the last one to finish
+         */
+        public final List<String> criticalPath;
+
+        /**
+         * Time from the start of the pipeline until the last node finished
+         */
+        public final long criticalPathMs;
+
+        /**
+         * Sum of the time every node took, which would be the duration of the pipeline if nothing
+         * overlapped
+         */
+        public final long totalNodeMs;
+
+        private Result(Map<Node<?>, Object> results, Map<String, MendeleyException> failures, List<String> skipped, List<String> criticalPath, long criticalPathMs, long totalNodeMs) {
+            this.results = results;
+            this.failures = Collections.unmodifiableMap(failures);
+            this.skipped = Collections.unmodifiableList(skipped);
+            this.criticalPath = Collections.unmodifiableList(criticalPath);
+            this.criticalPathMs = criticalPathMs;
+            this.totalNodeMs = totalNodeMs;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Node<T> node) {
+            if (!results.containsKey(node)) {
+                throw new IllegalStateException("Node " + node.name + " has not succeeded");
+            }
+            return (T) results.get(node);
+        }
+
+        /**
+         * @return whether or not every node has succeeded
+         */
+        public boolean isComplete() {
+            return failures.isEmpty() && skipped.isEmpty();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.mendeley.sdk.model.Group;
 import com.mendeley.sdk.model.Profile;
 import com.mendeley.sdk.model.ReadPosition;
 import com.mendeley.sdk.model.UserRole;
+import com.mendeley.sdk.request.BulkGetRequest;
 import com.mendeley.sdk.request.endpoint.AnnotationsEndpoint;
 import com.mendeley.sdk.request.endpoint.DocumentEndpoint;
 import com.mendeley.sdk.request.endpoint.FilesEndpoint;
@@ -18,6 +19,7 @@ import com.mendeley.sdk.request.endpoint.FoldersEndpoint;
 import com.mendeley.sdk.request.endpoint.GroupsEndpoint;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +57,14 @@ public interface RequestsFactory {
      */
     Request<Profile> newGetProfileRequest(String profileId);
 
+    /**
+     * Obtains a {@link Request} to retrieve several {@link Profile}s given their ids.
+     *
+     * @param profileIds ids of the profiles to get. Repeated ones are requested once.
+     * @return the request
+     */
+    BulkGetRequest<Profile> newBulkGetProfilesRequest(Collection<String> profileIds);
+
     /**
      * Obtains a {@link Request} to create a new {@link Profile}.
      *
@@ -115,6 +125,15 @@ public interface RequestsFactory {
      */
     Request<Document> newGetDocumentRequest(String documentId, DocumentEndpoint.DocumentRequestParameters.View view);
 
+    /**
+     * Obtains a {@link Request} to retrieve several {@link Document}s given their ids.
+     *
+     * @param documentIds ids of the documents to get. Repeated ones are requested once.
+     * @param view used to configure which fields the server will return
+     * @return the request
+     */
+    BulkGetRequest<Document> newBulkGetDocumentsRequest(Collection<String> documentIds, DocumentEndpoint.DocumentRequestParameters.View view);
+
     /**
      * Obtains a {@link Request} to create a new {@link Document} in the user's library.
      *
@@ -390,6 +409,14 @@ public interface RequestsFactory {
      */
     Request<Annotation> newGetAnnotationRequest(String annotationId);
 
+    /**
+     * Obtains a {@link Request} to retrieve several {@link Annotation}s given their ids.
+     *
+     * @param annotationIds ids of the annotations to get. Repeated ones are requested once.
+     * @return the request
+     */
+    BulkGetRequest<Annotation> newBulkGetAnnotationsRequest(Collection<String> annotationIds);
+
     /**
      * Obtains a {@link Request} to create a new {@link Annotation} in the user's library.
      *
@@ -0,0 +1,160 @@
+package com.mendeley.sdk;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimate of the clock of the Mendeley server, from the Date header of its responses.
+ *
+ * <p/>
+ *
+ * Device clocks may be wrong by minutes or hours, or be changed while the app runs. The SDK uses
+ * the offset between both clocks to decide when the access token expires, as the server decides
+ * it with its own clock. Client code should also use {@link #now()}, or the
+ * {@link Request.Response#serverDate} of the last synchronisation, for the
+ * {@code modifiedSince} checkpoints of its requests, rather than the device clock.
+ *
+ * <p/>
+ *
+ * The offset is the median of the latest samples, so one slow response does not move it. Date
+ * headers have a resolution of one second, so the offset is only accurate to that.
+ */
+public class ServerClock {
+
+    private static final int MAX_SAMPLES = 9;
+
+    private static ServerClock instance;
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int sampleCount;
+    private int nextSample;
+
+    private volatile long offsetMs;
+    private volatile TokenExpiry tokenExpiry;
+
+    private final AtomicLong totalSamples = new AtomicLong();
+    private final AtomicLong preventedExpiredTokens = new AtomicLong();
+
+    /**
+     * @return a reference to the {@link ServerClock} singleton.
+     */
+    public static synchronized ServerClock getInstance() {
+        if (instance == null) {
+            instance = new ServerClock();
+        }
+        return instance;
+    }
+
+    private ServerClock() {
+    }
+
+    /**
+     * @return current date in the server clock, as estimated
+     */
+    public Date now() {
+        return new Date(System.currentTimeMillis() + offsetMs);
+    }
+
+    /**
+     * @return milliseconds the server clock is ahead of the device clock, negative if behind
+     */
+    public long getOffsetMs() {
+        return offsetMs;
+    }
+
+    /**
+     * @return number of Date headers used to estimate the offset
+     */
+    public long getSamples() {
+        return totalSamples.get();
+    }
+
+    /**
+     * @return number of times the access token was found about to expire in the server clock
+     *          while it was not in the device clock, so the request refreshed it instead of
+     *          getting a 401 "Token has expired"
+     */
+    public long getPreventedExpiredTokens() {
+        return preventedExpiredTokens.get();
+    }
+
+    /**
+     * Adds a sample of the server clock.
+     *
+     * @param serverDate value of the Date header of a response just received from the server
+     */
+    public void onServerDate(Date serverDate) {
+        if (serverDate == null) {
+            return;
+        }
+        final long sampleMs = serverDate.getTime() - System.currentTimeMillis();
+        totalSamples.incrementAndGet();
+        synchronized (samples) {
+            samples[nextSample] = sampleMs;
+            nextSample = (nextSample + 1) % MAX_SAMPLES;
+            sampleCount = Math.min(sampleCount + 1, MAX_SAMPLES);
+            final long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            offsetMs = sorted[sampleCount / 2];
+        }
+    }
+
+    /**
+     * Records when a new access token expires in the server clock.
+     *
+     * @param serverDate value of the Date header of the response with the token, or null if absent
+     * @param expiresIn seconds the token is valid for
+     */
+    public void onTokenIssued(String accessToken, Date serverDate, int expiresIn) {
+        onServerDate(serverDate);
+        final long issuedAtMs = serverDate != null ? serverDate.getTime() : now().getTime();
+        tokenExpiry = new TokenExpiry(accessToken, issuedAtMs + TimeUnit.SECONDS.toMillis(expiresIn));
+    }
+
+    /**
+     * @param accessToken the access token
+     * @param expiresAt expiration date of the token, as stored by the {@link AuthTokenManager}
+     *                  in the device clock
+     * @return milliseconds until the token expires, according to the server clock if its
+     *          expiration date in the server clock is known
+     */
+    public long getTimeToExpiryMs(String accessToken, Date expiresAt) {
+        final TokenExpiry expiry = tokenExpiry;
+        if (expiry == null || !expiry.accessToken.equals(accessToken)) {
+            return expiresAt.getTime() - System.currentTimeMillis();
+        }
+        return expiry.expiresAtServerMs - now().getTime();
+    }
+
+    /**
+     * @param accessToken the access token
+     * @param expiresAt expiration date of the token, as stored by the {@link AuthTokenManager}
+     *                  in the device clock
+     * @param minValidityMs time the token must be valid for still
+     * @return whether or not the token expires in less than the passed time, according to the
+     *          server clock if its expiration date in the server clock is known
+     */
+    public boolean willExpireWithin(String accessToken, Date expiresAt, long minValidityMs) {
+        final boolean expiresInDeviceClock = expiresAt.getTime() - System.currentTimeMillis() < minValidityMs;
+        final boolean expiresInServerClock = getTimeToExpiryMs(accessToken, expiresAt) < minValidityMs;
+        if (expiresInServerClock && !expiresInDeviceClock) {
+            preventedExpiredTokens.incrementAndGet();
+        }
+        return expiresInServerClock;
+    }
+
+    /**
+     * Expiration date of an access token in the server clock.
+     */
+    private static class TokenExpiry {
+        final String accessToken;
+        final long expiresAtServerMs;
+
+        TokenExpiry(String accessToken, long expiresAtServerMs) {
+            this.accessToken = accessToken;
+            this.expiresAtServerMs = expiresAtServerMs;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mendeley.sdk.exceptions;
+
+/**
+ * Thrown without sending the request when the circuit breaker of its endpoint family is open,
+ * because the backend has been failing or responding too slowly.
+ *
+ * @see com.mendeley.sdk.request.CircuitBreaker
+ */
+public class CircuitOpenException extends MendeleyException {
+
+    public final String endpointFamily;
+
+    public CircuitOpenException(String endpointFamily) {
+        super("Circuit open for " + endpointFamily);
+        this.endpointFamily = endpointFamily;
+    }
+}
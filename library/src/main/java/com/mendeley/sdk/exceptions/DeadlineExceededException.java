@@ -0,0 +1,17 @@
+package com.mendeley.sdk.exceptions;
+
+/**
+ * Thrown when a request could not be completed before its deadline.
+ *
+ * @see com.mendeley.sdk.Request#setDeadline(com.mendeley.sdk.Deadline)
+ */
+public class DeadlineExceededException extends MendeleyException {
+
+    public DeadlineExceededException() {
+        super("Deadline exceeded");
+    }
+
+    public DeadlineExceededException(Exception cause) {
+        super("Deadline exceeded", cause);
+    }
+}
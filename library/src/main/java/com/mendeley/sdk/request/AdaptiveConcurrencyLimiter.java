@@ -0,0 +1,300 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client-side limiter of the number of requests in flight against each endpoint family
+ * (see {@link EndpointFamily}).
+ *
+ * <p/>
+ *
+ * The limit of every family is learnt using AIMD: it grows additively while responses come back
+ * fast, and it shrinks multiplicatively when the server throttles (429/503), a request times
+ * out or the latency grows well above the best latency seen. Requests exceeding the limit are
+ * queued in the calling thread until a slot is free, instead of being sent and throttled.
+ * Disabled by default, see {@link #setEnabled(boolean)}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final long WAIT_SLICE_MS = 100;
+
+    private static AdaptiveConcurrencyLimiter instance;
+
+    private final Map<String, Limit> limits = new HashMap<String, Limit>();
+
+    private volatile boolean enabled;
+    private volatile int initialLimit = 8;
+    private volatile int minLimit = 1;
+    private volatile int maxLimit = 64;
+    private volatile double latencyTolerance = 2.0;
+    private volatile double backoffRatio = 0.5;
+
+    /**
+     * @return a reference to the {@link AdaptiveConcurrencyLimiter} singleton.
+     */
+    public static synchronized AdaptiveConcurrencyLimiter getInstance() {
+        if (instance == null) {
+            instance = new AdaptiveConcurrencyLimiter();
+        }
+        return instance;
+    }
+
+    private AdaptiveConcurrencyLimiter() {
+    }
+
+    /**
+     * Enables or disables the limiter. When disabled, requests are never queued.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return whether or not the limiter is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Configures the limits. The endpoint families already seen restart learning from the new
+     * initial limit, keeping track of their requests in flight.
+     *
+     * @param initialLimit limit of a family before anything has been learnt about it
+     * @param minLimit lower bound of the limit
+     * @param maxLimit upper bound of the limit
+     * @param latencyTolerance ratio over the best latency seen from which the limit shrinks
+     * @param backoffRatio ratio the limit is multiplied by when the server throttles
+     */
+    public synchronized void configure(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, double backoffRatio) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        // permits already acquired keep referencing their limit, so it is reset instead of replaced
+        for (Limit limit : limits.values()) {
+            synchronized (limit) {
+                limit.reset(initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio);
+                limit.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Blocks until a request against the URL can be sent.
+     *
+     * @param url URL of the request
+     * @param request the request, used to stop waiting if it gets cancelled
+     * @return a permit that must be released once the response has been consumed
+     * @throws UserCancelledException if the request is cancelled or the thread interrupted while waiting
+     * @throws DeadlineExceededException if the deadline of the request passes while waiting
+     */
+    public Permit acquire(Uri url, Request<?> request) throws UserCancelledException, DeadlineExceededException {
+        if (!enabled) {
+            return new Permit(null);
+        }
+
+        final Limit limit = obtainLimit(EndpointFamily.of(url));
+        synchronized (limit) {
+            limit.queued++;
+            try {
+                while (limit.inFlight >= (int) limit.limit) {
+                    if (request != null && request.isCancelled()) {
+                        throw new UserCancelledException();
+                    }
+                    if (request != null && request.getDeadline() != null) {
+                        request.getDeadline().check();
+                    }
+                    limit.wait(WAIT_SLICE_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserCancelledException(e);
+            } finally {
+                limit.queued--;
+            }
+            limit.inFlight++;
+        }
+        return new Permit(limit);
+    }
+
+    /**
+     * Takes a slot to send a request against the URL only if there is one free right now.
+     *
+     * @param url URL of the request
+     * @return a permit that must be released once the response has been consumed, or null if
+     *         the endpoint family is at its limit
+     */
+    public Permit tryAcquire(Uri url) {
+        if (!enabled) {
+            return new Permit(null);
+        }
+
+        final Limit limit = obtainLimit(EndpointFamily.of(url));
+        synchronized (limit) {
+            if (limit.inFlight >= (int) limit.limit) {
+                return null;
+            }
+            limit.inFlight++;
+        }
+        return new Permit(limit);
+    }
+
+    /**
+     * @return the current limit of concurrent requests of the family
+     */
+    public int getLimit(String endpointFamily) {
+        final Limit limit = obtainLimit(endpointFamily);
+        synchronized (limit) {
+            return (int) limit.limit;
+        }
+    }
+
+    /**
+     * @return the number of requests of the family being sent right now
+     */
+    public int getInFlight(String endpointFamily) {
+        final Limit limit = obtainLimit(endpointFamily);
+        synchronized (limit) {
+            return limit.inFlight;
+        }
+    }
+
+    /**
+     * @return the number of requests of the family waiting to be sent
+     */
+    public int getQueued(String endpointFamily) {
+        final Limit limit = obtainLimit(endpointFamily);
+        synchronized (limit) {
+            return limit.queued;
+        }
+    }
+
+    private synchronized Limit obtainLimit(String endpointFamily) {
+        Limit limit = limits.get(endpointFamily);
+        if (limit == null) {
+            limit = new Limit(initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio);
+            limits.put(endpointFamily, limit);
+        }
+        return limit;
+    }
+
+    /**
+     * Learnt state of one endpoint family.
+     */
+    private static class Limit {
+
+        private int minLimit;
+        private int maxLimit;
+        private double latencyTolerance;
+        private double backoffRatio;
+
+        private double limit;
+        private int inFlight;
+        private int queued;
+        private long baselineLatencyMs = -1;
+
+        Limit(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, double backoffRatio) {
+            reset(initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio);
+        }
+
+        // must be called holding the lock
+        void reset(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, double backoffRatio) {
+            this.limit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTolerance = latencyTolerance;
+            this.backoffRatio = backoffRatio;
+            this.baselineLatencyMs = -1;
+        }
+
+        // must be called holding the lock
+        void onSuccess(long latencyMs) {
+            if (baselineLatencyMs < 0 || latencyMs < baselineLatencyMs) {
+                baselineLatencyMs = latencyMs;
+            } else {
+                // let the baseline drift slowly, so a permanently slower backend is relearnt
+                baselineLatencyMs += (latencyMs - baselineLatencyMs) / 100;
+            }
+
+            if (latencyMs > Math.max(baselineLatencyMs, 1) * latencyTolerance) {
+                limit = Math.max(minLimit, limit * 0.9);
+            } else if (inFlight >= (int) limit - 1) {
+                // only grow if the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        // must be called holding the lock
+        void onDropped() {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        }
+    }
+
+    /**
+     * Slot to send one request. The outcome of the request, if known, should be recorded before
+     * releasing it.
+     */
+    public static class Permit {
+
+        private final Limit limit;
+        private final long acquiredAtNanos;
+
+        private boolean released;
+        private long latencyMs = -1;
+        private boolean dropped;
+
+        private Permit(Limit limit) {
+            this.limit = limit;
+            this.acquiredAtNanos = System.nanoTime();
+        }
+
+        /**
+         * Records that the server answered successfully with the given latency.
+         */
+        public void onSuccess(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        /**
+         * Records that the server throttled the request or it timed out.
+         */
+        public void onDropped() {
+            this.dropped = true;
+        }
+
+        /**
+         * @return the time elapsed since the permit was acquired
+         */
+        public long getElapsedMs() {
+            return (System.nanoTime() - acquiredAtNanos) / 1000000;
+        }
+
+        /**
+         * Frees the slot and updates the limit with the recorded outcome.
+         */
+        public void release() {
+            if (limit == null || released) {
+                return;
+            }
+            released = true;
+            synchronized (limit) {
+                if (dropped) {
+                    limit.onDropped();
+                } else if (latencyMs >= 0) {
+                    limit.onSuccess(latencyMs);
+                }
+                limit.inFlight--;
+                limit.notifyAll();
+            }
+        }
+    }
+}
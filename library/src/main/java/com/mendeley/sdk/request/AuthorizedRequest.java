@@ -6,7 +6,7 @@ import android.text.TextUtils;
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.Request;
-import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.ServerClock;
 import com.mendeley.sdk.exceptions.MendeleyException;
 import com.mendeley.sdk.request.endpoint.OAuthTokenEndpoint;
 
@@ -48,29 +48,47 @@ public abstract class AuthorizedRequest<ResultType> extends Request<ResultType>
             throw new MendeleyException("No access token found");
         }
 
-        if (willExpireSoon()) {
-            refreshExpiredToken();
+        checkDeadline();
+        if (willExpireWithin(TimeUnit.SECONDS.toMillis(MIN_TOKEN_VALIDITY_SEC))) {
+            refreshExpiredToken(authTokenManager.getAccessToken());
         }
-        try {
-            return doRunAuthorized();
-        } catch (HttpResponseException e) {
-            if (e.httpReturnCode == 401 && e.getMessage().contains("Token has expired")) {
-                // The refresh-token-in-advance logic did not work for some reason: force a refresh now
-                refreshExpiredToken();
-                return doRunAuthorized();
-            } else {
-                throw e;
-            }
+        // a token expiring in flight is refreshed by the transport, see doRunAuthorized()
+        return doRunAuthorized();
+    }
+
+    /**
+     * Refreshes the access token in advance if it will expire within the given time, so that a
+     * request taking long to send is not rejected once it has been sent.
+     *
+     * @param minValidityMs the time the access token must still be valid for
+     */
+    protected final void refreshTokenIfExpiresWithin(long minValidityMs) throws MendeleyException {
+        if (willExpireWithin(minValidityMs)) {
+            refreshExpiredToken(authTokenManager.getAccessToken());
         }
     }
 
-    private void refreshExpiredToken() throws MendeleyException {
-        new OAuthTokenEndpoint.RefreshTokenRequest(authTokenManager, clientCredentials).run();
+    /**
+     * Refreshes the access token, making sure no other request is refreshing it at the same time,
+     * see {@link TokenRefreshCoordinator}.
+     *
+     * @param staleAccessToken the token found not valid
+     */
+    protected final void refreshExpiredToken(String staleAccessToken) throws MendeleyException {
+        TokenRefreshCoordinator.getInstance().refresh(authTokenManager, staleAccessToken, this, new TokenRefreshCoordinator.Refresh() {
+            @Override
+            public void refresh() throws MendeleyException {
+                // neither attached to this request nor bounded by its deadline, see TokenRefreshCoordinator
+                new OAuthTokenEndpoint.RefreshTokenRequest(authTokenManager, clientCredentials).run();
+            }
+        });
     }
 
     /**
      * Template method to be implemented by extending classes.
-     * This method is guaranteed to be run with a valid access token.
+     * This method is guaranteed to be run with a valid access token. Implementations are
+     * responsible to recover from the token expiring while the request is in flight, refreshing
+     * it with {@link #refreshExpiredToken(String)}.
      *
      * @return Response
      * @throws MendeleyException
@@ -79,16 +97,15 @@ public abstract class AuthorizedRequest<ResultType> extends Request<ResultType>
 
     // TODO: consider dropping this to reduce complexity
     /**
-     * Checks if the current access token will expire soon (or isn't valid at all).
+     * Checks if the current access token will expire within the given time (or isn't valid at all).
      */
-    private boolean willExpireSoon() {
-        if (TextUtils.isEmpty(authTokenManager.getAccessToken()) || authTokenManager.getAuthTokenExpirationDate() == null) {
+    private boolean willExpireWithin(long minValidityMs) {
+        final String accessToken = authTokenManager.getAccessToken();
+        final Date expires = authTokenManager.getAuthTokenExpirationDate();
+        if (TextUtils.isEmpty(accessToken) || expires == null) {
             return true;
         }
-        Date now = new Date();
-        Date expires = authTokenManager.getAuthTokenExpirationDate();
-        long timeToExpiryMs = expires.getTime() - now.getTime();
-        long timeToExpirySec = TimeUnit.MILLISECONDS.toSeconds(timeToExpiryMs);
-        return timeToExpirySec < MIN_TOKEN_VALIDITY_SEC;
+        // the server decides whether the token has expired with its own clock
+        return ServerClock.getInstance().willExpireWithin(accessToken, expires, minValidityMs);
     }
 }
@@ -0,0 +1,225 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.RequestFuture;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Request} retrieving several resources by their ids. The Mendeley API has no batch read,
+ * so one request is sent for each id, with bounded concurrency over the shared connection pool.
+ *
+ * <p/>
+ *
+ * Repeated ids are only requested once. Resources are passed to the {@link ItemListener}, if any,
+ * as soon as they arrive. Failing to get some of them does not make the whole request fail: the
+ * errors are reported in the {@link Result} along with the resources retrieved.
+ *
+ * @param <T> type of the resources
+ */
+public class BulkGetRequest<T> extends Request<BulkGetRequest.Result<T>> {
+
+    private static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final int MAX_THREADS = 16;
+
+    // the requests of the ids are not run in the RequestDispatcher, as this request may be
+    // holding one of its slots while waiting for them. The pool is shared by all the bulk
+    // requests, queueing their items beyond its threads; the items never wait for each other.
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates the request of the resource with some id.
+     */
+    public interface ItemRequestFactory<T> {
+        Request<T> newRequest(String id);
+    }
+
+    /**
+     * Listener notified of each resource as soon as it arrives, in the thread that got it.
+     */
+    public interface ItemListener<T> {
+
+        void onItem(String id, T item);
+
+        /**
+         * @param mendeleyException semantic exception representing the error
+         */
+        void onItemFailed(String id, MendeleyException mendeleyException);
+    }
+
+    private final Collection<String> ids;
+    private final ItemRequestFactory<T> itemRequestFactory;
+    private volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private volatile ItemListener<T> itemListener;
+
+    /**
+     * @param ids ids of the resources to get. Repeated ones are requested once.
+     * @param itemRequestFactory creates the request of each resource
+     */
+    public BulkGetRequest(Collection<String> ids, ItemRequestFactory<T> itemRequestFactory) {
+        super(null);
+        this.ids = new ArrayList<String>(ids);
+        this.itemRequestFactory = itemRequestFactory;
+    }
+
+    /**
+     * Sets the maximum number of resources requested at the same time. 8 by default.
+     */
+    public final void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Sets a listener to be notified of each resource as soon as it arrives.
+     */
+    public final void setItemListener(ItemListener<T> itemListener) {
+        this.itemListener = itemListener;
+    }
+
+    @Override
+    protected Response doRun() throws MendeleyException {
+        final List<String> uniqueIds = new ArrayList<String>(new LinkedHashSet<String>(ids));
+        final Map<String, T> items = new HashMap<String, T>();
+        final Map<String, MendeleyException> failures = new HashMap<String, MendeleyException>();
+        final Date[] serverDate = new Date[1];
+        final int[] running = new int[1];
+
+        try {
+            for (final String id : uniqueIds) {
+                synchronized (items) {
+                    while (running[0] >= maxConcurrency) {
+                        items.wait();
+                    }
+                    running[0]++;
+                }
+                checkCancelled();
+                checkDeadline();
+
+                final Request<T> request = itemRequestFactory.newRequest(id);
+                request.setDeadline(getDeadline());
+                attachRequest(request);
+                request.submit(executor).addListener(new RequestFuture.Listener<Request<T>.Response>() {
+                    @Override
+                    public void onSuccess(Request<T>.Response response) {
+                        try {
+                            final ItemListener<T> listener = itemListener;
+                            if (listener != null) {
+                                listener.onItem(id, response.resource);
+                            }
+                        } finally {
+                            // a failing listener must not leave the bulk request waiting forever
+                            onFinished(request, true, response.resource, response.serverDate, null);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(MendeleyException mendeleyException) {
+                        try {
+                            final ItemListener<T> listener = itemListener;
+                            if (listener != null) {
+                                listener.onItemFailed(id, mendeleyException);
+                            }
+                        } finally {
+                            onFinished(request, false, null, null, mendeleyException);
+                        }
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        onFinished(request, false, null, null, null);
+                    }
+
+                    private void onFinished(Request<T> request, boolean succeeded, T item, Date date, MendeleyException error) {
+                        detachRequest(request);
+                        synchronized (items) {
+                            if (succeeded) {
+                                items.put(id, item);
+                                if (date != null && (serverDate[0] == null || date.after(serverDate[0]))) {
+                                    serverDate[0] = date;
+                                }
+                            } else if (error != null) {
+                                failures.put(id, error);
+                            }
+                            running[0]--;
+                            items.notifyAll();
+                        }
+                    }
+                });
+            }
+
+            synchronized (items) {
+                while (running[0] > 0) {
+                    items.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new UserCancelledException(e);
+        }
+        checkCancelled();
+
+        // keep the order of the ids
+        final Map<String, T> orderedItems = new LinkedHashMap<String, T>();
+        final Map<String, MendeleyException> orderedFailures = new LinkedHashMap<String, MendeleyException>();
+        for (String id : uniqueIds) {
+            if (items.containsKey(id)) {
+                orderedItems.put(id, items.get(id));
+            } else if (failures.containsKey(id)) {
+                orderedFailures.put(id, failures.get(id));
+            }
+        }
+        return new Response(new Result<T>(orderedItems, orderedFailures), serverDate[0], null);
+    }
+
+    private void checkCancelled() throws UserCancelledException {
+        if (isCancelled()) {
+            throw new UserCancelledException();
+        }
+    }
+
+    /**
+     * Resources retrieved by a {@link BulkGetRequest}.
+     */
+    public static class Result<T> {
+
+        /**
+         * Resources retrieved, by id, in the order of the ids
+         */
+        public final Map<String, T> items;
+
+        /**
+         * Errors of the resources that could not be retrieved, by id
+         */
+        public final Map<String, MendeleyException> failures;
+
+        public Result(Map<String, T> items, Map<String, MendeleyException> failures) {
+            this.items = Collections.unmodifiableMap(items);
+            this.failures = Collections.unmodifiableMap(failures);
+        }
+
+        /**
+         * @return whether or not every resource has been retrieved
+         */
+        public boolean isComplete() {
+            return failures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.exceptions.CircuitOpenException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of the requests against each endpoint family (see {@link EndpointFamily}).
+ *
+ * <p/>
+ *
+ * The outcome of the latest calls of every family is recorded. When the rate of failed calls
+ * (connection errors and 5xx responses) or slow calls exceeds its threshold, the circuit opens
+ * and requests fail straight away with a {@link CircuitOpenException} instead of tying up
+ * threads waiting for a degraded backend. After a while, the circuit lets a few probe
+ * calls through (half-open): it closes again if they succeed, or opens again otherwise.
+ *
+ * <p/>
+ *
+ * The state of the circuits is published through {@link StateListener}s so the app can degrade
+ * gracefully. Disabled by default, see {@link #setEnabled(boolean)}.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        /**
+         * Requests are sent
+         */
+        CLOSED,
+        /**
+         * Requests fail without being sent
+         */
+        OPEN,
+        /**
+         * Only a few probe requests are sent
+         */
+        HALF_OPEN
+    }
+
+    private static CircuitBreaker instance;
+
+    private final Map<String, Circuit> circuits = new HashMap<String, Circuit>();
+    private final CopyOnWriteArrayList<StateListener> stateListeners = new CopyOnWriteArrayList<StateListener>();
+
+    private volatile boolean enabled;
+    private volatile Configuration configuration = new Configuration.Builder().build();
+
+    /**
+     * @return a reference to the {@link CircuitBreaker} singleton.
+     */
+    public static synchronized CircuitBreaker getInstance() {
+        if (instance == null) {
+            instance = new CircuitBreaker();
+        }
+        return instance;
+    }
+
+    private CircuitBreaker() {
+    }
+
+    /**
+     * Enables or disables the circuit breaker. When disabled, requests are always sent.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Configures the thresholds. Every circuit is closed and its recorded calls discarded.
+     */
+    public synchronized void configure(Configuration configuration) {
+        this.configuration = configuration;
+        circuits.clear();
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public void addStateListener(StateListener stateListener) {
+        stateListeners.add(stateListener);
+    }
+
+    public void removeStateListener(StateListener stateListener) {
+        stateListeners.remove(stateListener);
+    }
+
+    /**
+     * @return the state of the circuit of the endpoint family
+     */
+    public State getState(String endpointFamily) {
+        final Circuit circuit = obtainCircuit(endpointFamily);
+        synchronized (circuit) {
+            return circuit.state;
+        }
+    }
+
+    /**
+     * Lets a request against the URL be sent, if its circuit allows it.
+     *
+     * @param url URL of the request
+     * @return a permit whose outcome must be recorded, and that must be released afterwards
+     * @throws CircuitOpenException if the circuit is open, or half-open with all its probes in flight
+     */
+    public Permit acquire(Uri url) throws CircuitOpenException {
+        if (!enabled) {
+            return new Permit(null, false);
+        }
+
+        final String endpointFamily = EndpointFamily.of(url);
+        final Circuit circuit = obtainCircuit(endpointFamily);
+        final State previousState;
+        final State newState;
+        final boolean probe;
+        final boolean allowed;
+        synchronized (circuit) {
+            previousState = circuit.state;
+            if (circuit.state == State.OPEN && System.nanoTime() - circuit.openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(circuit.configuration.openDurationMs)) {
+                circuit.halfOpen();
+            }
+            newState = circuit.state;
+            probe = newState == State.HALF_OPEN;
+            allowed = newState == State.CLOSED || (probe && circuit.probesInFlight < circuit.configuration.halfOpenProbes);
+            if (allowed && probe) {
+                circuit.probesInFlight++;
+            }
+        }
+        notifyStateChange(endpointFamily, previousState, newState);
+
+        if (!allowed) {
+            throw new CircuitOpenException(endpointFamily);
+        }
+        return new Permit(circuit, probe);
+    }
+
+    private synchronized Circuit obtainCircuit(String endpointFamily) {
+        Circuit circuit = circuits.get(endpointFamily);
+        if (circuit == null) {
+            circuit = new Circuit(endpointFamily, configuration);
+            circuits.put(endpointFamily, circuit);
+        }
+        return circuit;
+    }
+
+    private void notifyStateChange(String endpointFamily, State previousState, State newState) {
+        if (previousState != newState) {
+            for (StateListener stateListener : stateListeners) {
+                stateListener.onStateChanged(endpointFamily, previousState, newState);
+            }
+        }
+    }
+
+    /**
+     * Recorded calls and state of the circuit of one endpoint family.
+     */
+    private static class Circuit {
+
+        private static final byte SUCCESS = 0;
+        private static final byte FAILURE = 1;
+        private static final byte SLOW = 2;
+
+        private final String endpointFamily;
+        private final Configuration configuration;
+        private final byte[] outcomes;
+
+        private State state = State.CLOSED;
+        private int count;
+        private int next;
+        private long openedAtNanos;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        Circuit(String endpointFamily, Configuration configuration) {
+            this.endpointFamily = endpointFamily;
+            this.configuration = configuration;
+            this.outcomes = new byte[configuration.windowSize];
+        }
+
+        // must be called holding the lock
+        void record(byte outcome, boolean probe) {
+            if (probe) {
+                releaseProbe();
+            }
+            if (state == State.HALF_OPEN) {
+                if (!probe) {
+                    // a call sent before opening
+                    return;
+                }
+                if (outcome != SUCCESS) {
+                    open();
+                } else if (++probeSuccesses >= configuration.halfOpenProbes) {
+                    close();
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // a call sent before opening
+                return;
+            }
+
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            count = Math.min(count + 1, outcomes.length);
+            if (count < configuration.minimumCalls) {
+                return;
+            }
+
+            int failures = 0;
+            int slowCalls = 0;
+            for (int i = 0; i < count; i++) {
+                if (outcomes[i] == FAILURE) {
+                    failures++;
+                } else if (outcomes[i] == SLOW) {
+                    slowCalls++;
+                }
+            }
+            if (failures >= configuration.failureRateThreshold * count || slowCalls >= configuration.slowCallRateThreshold * count) {
+                open();
+            }
+        }
+
+        // must be called holding the lock
+        void releaseProbe() {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+
+        private void halfOpen() {
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            count = 0;
+            next = 0;
+        }
+    }
+
+    /**
+     * Authorisation to send one request. Its outcome should be recorded before releasing it.
+     */
+    public class Permit {
+
+        private final Circuit circuit;
+        private final boolean probe;
+
+        private boolean released;
+        private byte outcome = -1;
+
+        private Permit(Circuit circuit, boolean probe) {
+            this.circuit = circuit;
+            this.probe = probe;
+        }
+
+        /**
+         * Records that the server answered with the given latency.
+         */
+        public void onSuccess(long latencyMs) {
+            this.outcome = circuit != null && latencyMs >= circuit.configuration.slowCallThresholdMs ? Circuit.SLOW : Circuit.SUCCESS;
+        }
+
+        /**
+         * Records that the request failed because of the server or the connection.
+         */
+        public void onFailure() {
+            this.outcome = Circuit.FAILURE;
+        }
+
+        /**
+         * Updates the circuit with the recorded outcome, if any.
+         */
+        public void release() {
+            if (released || circuit == null) {
+                return;
+            }
+            released = true;
+
+            final State previousState;
+            final State newState;
+            synchronized (circuit) {
+                previousState = circuit.state;
+                if (outcome >= 0) {
+                    circuit.record(outcome, probe);
+                } else if (probe) {
+                    circuit.releaseProbe();
+                }
+                newState = circuit.state;
+            }
+            notifyStateChange(circuit.endpointFamily, previousState, newState);
+        }
+    }
+
+    /**
+     * Thresholds of the circuits.
+     */
+    public static class Configuration {
+
+        /**
+         * Fraction of failed calls from which the circuit opens
+         */
+        public final double failureRateThreshold;
+        /**
+         * Latency from which a call is considered slow
+         */
+        public final long slowCallThresholdMs;
+        /**
+         * Fraction of slow calls from which the circuit opens
+         */
+        public final double slowCallRateThreshold;
+        /**
+         * Number of latest calls considered
+         */
+        public final int windowSize;
+        /**
+         * Number of calls needed before the circuit may open
+         */
+        public final int minimumCalls;
+        /**
+         * Time the circuit stays open before letting probes through
+         */
+        public final long openDurationMs;
+        /**
+         * Number of successful probes needed to close the circuit
+         */
+        public final int halfOpenProbes;
+
+        private Configuration(double failureRateThreshold, long slowCallThresholdMs, double slowCallRateThreshold, int windowSize, int minimumCalls, long openDurationMs, int halfOpenProbes) {
+            this.failureRateThreshold = failureRateThreshold;
+            this.slowCallThresholdMs = slowCallThresholdMs;
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            this.openDurationMs = openDurationMs;
+            this.halfOpenProbes = halfOpenProbes;
+        }
+
+        public static class Builder {
+            private double failureRateThreshold = 0.5;
+            private long slowCallThresholdMs = 5000;
+            private double slowCallRateThreshold = 0.8;
+            private int windowSize = 20;
+            private int minimumCalls = 10;
+            private long openDurationMs = 30000;
+            private int halfOpenProbes = 2;
+
+            public Builder() {}
+
+            public Builder setFailureRateThreshold(double failureRateThreshold) {
+                this.failureRateThreshold = failureRateThreshold;
+                return this;
+            }
+
+            public Builder setSlowCallThresholdMs(long slowCallThresholdMs) {
+                this.slowCallThresholdMs = slowCallThresholdMs;
+                return this;
+            }
+
+            public Builder setSlowCallRateThreshold(double slowCallRateThreshold) {
+                this.slowCallRateThreshold = slowCallRateThreshold;
+                return this;
+            }
+
+            public Builder setWindowSize(int windowSize) {
+                this.windowSize = windowSize;
+                return this;
+            }
+
+            public Builder setMinimumCalls(int minimumCalls) {
+                this.minimumCalls = minimumCalls;
+                return this;
+            }
+
+            public Builder setOpenDurationMs(long openDurationMs) {
+                this.openDurationMs = openDurationMs;
+                return this;
+            }
+
+            public Builder setHalfOpenProbes(int halfOpenProbes) {
+                this.halfOpenProbes = halfOpenProbes;
+                return this;
+            }
+
+            public Configuration build() {
+                return new Configuration(failureRateThreshold, slowCallThresholdMs, slowCallRateThreshold, windowSize, Math.min(minimumCalls, windowSize), openDurationMs, halfOpenProbes);
+            }
+        }
+    }
+
+    /**
+     * Listener to be notified when the state of a circuit changes.
+     */
+    public interface StateListener {
+        void onStateChanged(String endpointFamily, State previousState, State newState);
+    }
+}
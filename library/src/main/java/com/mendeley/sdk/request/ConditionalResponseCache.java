@@ -0,0 +1,402 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed cache of the responses of {@link GetAuthorizedRequest}s, revalidated against the
+ * server using conditional GETs.
+ *
+ * <p/>
+ *
+ * Responses carrying an ETag or Last-Modified header are stored in disk. Further requests against
+ * the same URL send If-None-Match / If-Modified-Since, and if the server answers 304 Not Modified,
+ * the cached result is returned without downloading or, if it is still in memory, parsing it again.
+ *
+ * <p/>
+ *
+ * In stale-while-revalidate mode, requests with a cached response return it straight away, and
+ * the revalidation runs in background so the next request gets the fresh result.
+ *
+ * <p/>
+ *
+ * The cache is disabled until {@link #install(File, long)} is called. It should be cleared when
+ * the user signs out.
+ *
+ * <p/>
+ *
+ * The lock of the cache only guards the parsed resources in memory: entries are read and written
+ * in disk without it, relying on atomic renames so a reader never sees a half-written file.
+ */
+public class ConditionalResponseCache {
+
+    private static final int ENTRY_FORMAT_VERSION = 1;
+    private static final int MAX_PARSED_ENTRIES = 64;
+    private static final String ENTRY_EXTENSION = ".entry";
+
+    private static ConditionalResponseCache instance;
+
+    private final Map<String, Object> parsedResources = new LinkedHashMap<String, Object>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_PARSED_ENTRIES;
+        }
+    };
+    private final Set<String> revalidatingKeys = new HashSet<String>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final AtomicLong tempFileCounter = new AtomicLong();
+    private final Executor revalidationExecutor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+
+    private final AtomicLong notModifiedResponses = new AtomicLong();
+    private final AtomicLong parsesAvoided = new AtomicLong();
+    private final AtomicLong staleResponses = new AtomicLong();
+    private final AtomicLong storedResponses = new AtomicLong();
+
+    private volatile File directory;
+    private volatile long maxSizeBytes;
+    private volatile boolean staleWhileRevalidate;
+
+    /**
+     * @return a reference to the {@link ConditionalResponseCache} singleton.
+     */
+    public static synchronized ConditionalResponseCache getInstance() {
+        if (instance == null) {
+            instance = new ConditionalResponseCache();
+        }
+        return instance;
+    }
+
+    private ConditionalResponseCache() {
+    }
+
+    /**
+     * Enables the cache.
+     *
+     * @param directory directory to store the responses at, typically inside Context#getCacheDir()
+     * @param maxSizeBytes maximum size of the stored responses
+     */
+    public synchronized void install(File directory, long maxSizeBytes) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create cache directory " + directory);
+        }
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Disables the cache. Stored responses are kept in disk.
+     */
+    public synchronized void uninstall() {
+        this.directory = null;
+        parsedResources.clear();
+    }
+
+    public boolean isInstalled() {
+        return directory != null;
+    }
+
+    /**
+     * Sets whether cached responses are returned straight away while being revalidated in background.
+     */
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * Deletes all the cached responses.
+     */
+    public void clear() {
+        synchronized (this) {
+            parsedResources.clear();
+        }
+        final File dir = directory;
+        if (dir != null) {
+            final File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of 304 Not Modified responses served from the cache
+     */
+    public long getNotModifiedResponses() {
+        return notModifiedResponses.get();
+    }
+
+    /**
+     * @return number of responses served from the cache without parsing them again
+     */
+    public long getParsesAvoided() {
+        return parsesAvoided.get();
+    }
+
+    /**
+     * @return number of responses served stale while being revalidated in background
+     */
+    public long getStaleResponses() {
+        return staleResponses.get();
+    }
+
+    /**
+     * @return number of responses stored in the cache
+     */
+    public long getStoredResponses() {
+        return storedResponses.get();
+    }
+
+    static String getKey(Uri url, String accept) {
+        return url + " " + accept;
+    }
+
+    Entry get(String key) {
+        final File file = getFile(key);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (is.readInt() != ENTRY_FORMAT_VERSION || !key.equals(is.readUTF())) {
+                return null;
+            }
+            final String etag = readNullableString(is);
+            final String lastModified = readNullableString(is);
+            final String serverDate = readNullableString(is);
+            final String next = readNullableString(is);
+            final int bodyLength = is.readInt();
+            if (bodyLength < 0 || bodyLength > file.length()) {
+                throw new IOException("Corrupt cache entry " + file);
+            }
+            final byte[] body = new byte[bodyLength];
+            is.readFully(body);
+            return new Entry(etag, lastModified, serverDate, next, body);
+        } catch (IOException e) {
+            // corrupt or truncated, like after a crash while writing it
+            file.delete();
+            return null;
+        } finally {
+            closeQuietly(is);
+        }
+    }
+
+    void put(String key, Entry entry, Object parsedResource) {
+        final File file = getFile(key);
+        if (file == null) {
+            return;
+        }
+
+        // unique, so concurrent puts of the same key do not write on the same file
+        final File tempFile = new File(file.getPath() + "." + tempFileCounter.incrementAndGet() + ".tmp");
+        DataOutputStream os = null;
+        try {
+            os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            os.writeInt(ENTRY_FORMAT_VERSION);
+            os.writeUTF(key);
+            writeNullableString(os, entry.etag);
+            writeNullableString(os, entry.lastModified);
+            writeNullableString(os, entry.serverDate);
+            writeNullableString(os, entry.next);
+            os.writeInt(entry.body.length);
+            os.write(entry.body);
+            os.close();
+            os = null;
+
+            if (!tempFile.renameTo(file)) {
+                tempFile.delete();
+                return;
+            }
+            synchronized (this) {
+                parsedResources.put(key, parsedResource);
+            }
+            storedResponses.incrementAndGet();
+            trimToSize(file.getParentFile());
+        } catch (IOException e) {
+            tempFile.delete();
+        } finally {
+            closeQuietly(os);
+        }
+    }
+
+    synchronized Object getParsedResource(String key) {
+        return parsedResources.get(key);
+    }
+
+    synchronized void putParsedResource(String key, Object parsedResource) {
+        parsedResources.put(key, parsedResource);
+    }
+
+    void onNotModified(boolean needsParse) {
+        notModifiedResponses.incrementAndGet();
+        if (!needsParse) {
+            parsesAvoided.incrementAndGet();
+        }
+    }
+
+    void onStaleResponse(boolean needsParse) {
+        staleResponses.incrementAndGet();
+        if (!needsParse) {
+            parsesAvoided.incrementAndGet();
+        }
+    }
+
+    /**
+     * Runs the revalidation in background, unless there is one in progress for the same key.
+     */
+    void revalidate(final String key, final Runnable revalidation) {
+        synchronized (revalidatingKeys) {
+            if (!revalidatingKeys.add(key)) {
+                return;
+            }
+        }
+        revalidationExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    revalidation.run();
+                } finally {
+                    synchronized (revalidatingKeys) {
+                        revalidatingKeys.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    private File getFile(String key) {
+        final File dir = directory;
+        if (dir == null) {
+            return null;
+        }
+        return new File(dir, md5Hex(key) + ENTRY_EXTENSION);
+    }
+
+    private void trimToSize(File dir) {
+        // one trim at a time is enough, the next put trims whatever this one missed
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            trimFilesToSize(dir);
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private void trimFilesToSize(File dir) {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+        if (size <= maxSizeBytes) {
+            return;
+        }
+
+        // evict the least recently written first
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                final long l = lhs.lastModified();
+                final long r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (size <= maxSizeBytes) {
+                break;
+            }
+            size -= file.length();
+            file.delete();
+        }
+    }
+
+    private static String md5Hex(String key) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes("UTF-8"));
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String readNullableString(DataInputStream is) throws IOException {
+        return is.readBoolean() ? is.readUTF() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream os, String value) throws IOException {
+        os.writeBoolean(value != null);
+        if (value != null) {
+            os.writeUTF(value);
+        }
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Response stored in the cache.
+     */
+    static class Entry {
+        final String etag;
+        final String lastModified;
+        final String serverDate;
+        final String next;
+        final byte[] body;
+
+        Entry(String etag, String lastModified, String serverDate, String next, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.serverDate = serverDate;
+            this.next = next;
+            this.body = body;
+        }
+    }
+}
@@ -23,6 +23,11 @@ public class DeleteAuthorizedRequest<ResultType> extends OkHttpAuthorizedRequest
         requestBld.delete();
     }
 
+    @Override
+    protected final boolean isIdempotent() {
+        return true;
+    }
+
     @Override
     protected ResultType manageResponse(InputStream is) throws Exception {
         return null;
@@ -0,0 +1,32 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import java.util.List;
+
+/**
+ * Utility to group the URLs of the requests by the endpoint they are sent to, this is, the
+ * first path segment matching one of the *_BASE_URL constants of the endpoints
+ * (documents, files, annotations...).
+ */
+public class EndpointFamily {
+
+    private EndpointFamily() {
+    }
+
+    /**
+     * @param url the URL of a request
+     * @return the key of the endpoint family of the URL, like "api.mendeley.com/documents"
+     */
+    public static String of(Uri url) {
+        if (url == null) {
+            return "";
+        }
+        final List<String> segments = url.getPathSegments();
+        final String host = url.getHost();
+        if (segments == null || segments.isEmpty()) {
+            return host;
+        }
+        return host + "/" + segments.get(0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mendeley.sdk.request;
+
+import java.util.Random;
+
+/**
+ * {@link RetryPolicy} that waits an exponentially growing, randomly jittered, delay between attempts.
+ *
+ * <ul>
+ * <li>Connection errors and 5xx gateway errors are only retried for idempotent requests, as the
+ * server may have already processed the request.</li>
+ * <li>429 and 503 responses are retried for any request, honouring the Retry-After header if
+ * the server sent one.</li>
+ * <li>Requests whose body cannot be sent again are never retried.</li>
+ * <li>No retry is scheduled if it would exceed the total time budget of the request.</li>
+ * </ul>
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private static final Random random = new Random();
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxTotalTimeMs;
+
+    /**
+     * Constructor using the default settings of the SDK.
+     */
+    public ExponentialBackoffRetryPolicy() {
+        this(2, 250, 5000, 30000);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxRetries maximum number of retries, not counting the first attempt
+     * @param baseDelayMs upper bound of the delay before the first retry, doubled on each retry
+     * @param maxDelayMs upper bound of the delay before any retry
+     * @param maxTotalTimeMs maximum time to spend across all the attempts, including the delays
+     */
+    public ExponentialBackoffRetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs, long maxTotalTimeMs) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.maxTotalTimeMs = maxTotalTimeMs;
+    }
+
+    @Override
+    public long getRetryDelayMs(Attempt attempt) {
+        if (attempt.number > maxRetries || !attempt.bodyReplayable || !isRetryable(attempt)) {
+            return NO_RETRY;
+        }
+
+        final long delayMs;
+        if (attempt.retryAfterMs >= 0) {
+            delayMs = attempt.retryAfterMs;
+        } else {
+            // "full jitter": a random delay between 0 and the exponential bound
+            final long bound = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt.number - 1, 16));
+            delayMs = (long) (random.nextDouble() * bound);
+        }
+
+        if (attempt.elapsedMs + delayMs >= maxTotalTimeMs) {
+            return NO_RETRY;
+        }
+        return delayMs;
+    }
+
+    private boolean isRetryable(Attempt attempt) {
+        switch (attempt.httpCode) {
+            case 0:
+            case 502:
+            case 504:
+                return attempt.idempotent;
+            case 429:
+            case 503:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -23,6 +23,26 @@ public abstract class GetAuthorizedRequest<ResultType> extends OkHttpAuthorizedR
         requestBld.get();
     }
 
+    @Override
+    protected final boolean isIdempotent() {
+        return true;
+    }
+
+    @Override
+    protected boolean isDeduplicable() {
+        return true;
+    }
+
+    @Override
+    protected boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    protected boolean isHedgeable() {
+        return true;
+    }
+
     @Override
     protected abstract ResultType manageResponse(InputStream is) throws Exception;
 
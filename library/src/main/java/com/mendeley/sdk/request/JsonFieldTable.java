@@ -0,0 +1,105 @@
+package com.mendeley.sdk.request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Perfect hash table of the field names of a JSON object, used by {@link JsonParser} to find the
+ * field of a key with one hash and one string comparison, instead of comparing the key with
+ * every field name of the object.
+ *
+ * <p/>
+ *
+ * The hash only reads the length and three chars of the key, and a seed and table size that
+ * give no collisions for the fields of the table are searched for when it is built.
+ */
+final class JsonFieldTable {
+
+    /**
+     * Returned by {@link #get(String)} for keys which are not fields of the table.
+     */
+    static final int UNKNOWN = -1;
+
+    private static final int MAX_SIZE = 1 << 12;
+
+    private final String[] names;
+    private final int[] fields;
+    private final int mask;
+    private final int seed;
+
+    private JsonFieldTable(String[] names, int[] fields, int seed) {
+        this.names = names;
+        this.fields = fields;
+        this.mask = names.length - 1;
+        this.seed = seed;
+    }
+
+    /**
+     * @return the field of the key, or {@link #UNKNOWN}
+     */
+    int get(String key) {
+        if (key.isEmpty()) {
+            return UNKNOWN;
+        }
+        final int slot = hash(key, seed) & mask;
+        final String name = names[slot];
+        return name != null && name.equals(key) ? fields[slot] : UNKNOWN;
+    }
+
+    private static int hash(String key, int seed) {
+        final int length = key.length();
+        int h = length;
+        h = 31 * h + key.charAt(0);
+        h = 31 * h + key.charAt(length / 2);
+        h = 31 * h + key.charAt(length - 1);
+        h *= seed;
+        return h ^ (h >>> 16);
+    }
+
+    static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> fields = new ArrayList<>();
+
+        Builder add(String name, int field) {
+            if (name.isEmpty() || field == UNKNOWN || names.contains(name)) {
+                throw new IllegalArgumentException("Invalid field " + name);
+            }
+            names.add(name);
+            fields.add(field);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no collision-free table is found for the fields,
+         *         which happens if several of them have the same length, first, middle and last char
+         */
+        JsonFieldTable build() {
+            for (int size = Integer.highestOneBit(Math.max(names.size(), 1)) << 1; size <= MAX_SIZE; size <<= 1) {
+                for (int seed = 1; seed < 512; seed += 2) {
+                    final JsonFieldTable table = tryBuild(size, seed);
+                    if (table != null) {
+                        return table;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("No perfect hash for the fields " + names);
+        }
+
+        private JsonFieldTable tryBuild(int size, int seed) {
+            final String[] tableNames = new String[size];
+            final int[] tableFields = new int[size];
+            Arrays.fill(tableFields, UNKNOWN);
+            for (int i = 0; i < names.size(); i++) {
+                final String name = names.get(i);
+                final int slot = hash(name, seed) & (size - 1);
+                if (tableNames[slot] != null) {
+                    return null;
+                }
+                tableNames[slot] = name;
+                tableFields[slot] = fields.get(i);
+            }
+            return new JsonFieldTable(tableNames, tableFields, seed);
+        }
+    }
+}
@@ -41,6 +41,55 @@ import static com.mendeley.sdk.model.Annotation.PrivacyLevel;
  */
 public class JsonParser {
 
+    // fields of the profiles, looked up with a perfect hash instead of comparing each key with all of them
+    private static final int PROFILE_ID = 0;
+    private static final int PROFILE_DISPLAY_NAME = 1;
+    private static final int PROFILE_USER_TYPE = 2;
+    private static final int PROFILE_URL = 3;
+    private static final int PROFILE_EMAIL = 4;
+    private static final int PROFILE_LINK = 5;
+    private static final int PROFILE_FIRST_NAME = 6;
+    private static final int PROFILE_LAST_NAME = 7;
+    private static final int PROFILE_TITLE = 8;
+    private static final int PROFILE_BIOGRAPHY = 9;
+    private static final int PROFILE_RESEARCH_INTERESTS = 10;
+    private static final int PROFILE_ACADEMIC_STATUS = 11;
+    private static final int PROFILE_VERIFIED = 12;
+    private static final int PROFILE_MARKETING = 13;
+    private static final int PROFILE_CREATED_AT = 14;
+    private static final int PROFILE_DISCIPLINE = 15;
+    private static final int PROFILE_PHOTOS = 16;
+    private static final int PROFILE_EDUCATION = 17;
+    private static final int PROFILE_EMPLOYMENT = 18;
+    private static final int PROFILE_INSTITUTION_DETAILS = 19;
+    private static final int PROFILE_EDITORSHIPS = 20;
+    private static final int PROFILE_RESEARCH_INTERESTS_LIST = 21;
+
+    private static final JsonFieldTable PROFILE_FIELDS = new JsonFieldTable.Builder()
+            .add("id", PROFILE_ID)
+            .add("display_name", PROFILE_DISPLAY_NAME)
+            .add("user_type", PROFILE_USER_TYPE)
+            .add("url", PROFILE_URL)
+            .add("email", PROFILE_EMAIL)
+            .add("link", PROFILE_LINK)
+            .add("first_name", PROFILE_FIRST_NAME)
+            .add("last_name", PROFILE_LAST_NAME)
+            .add("title", PROFILE_TITLE)
+            .add("biography", PROFILE_BIOGRAPHY)
+            .add("research_interests", PROFILE_RESEARCH_INTERESTS)
+            .add("academic_status", PROFILE_ACADEMIC_STATUS)
+            .add("verified", PROFILE_VERIFIED)
+            .add("marketing", PROFILE_MARKETING)
+            .add("created_at", PROFILE_CREATED_AT)
+            .add("discipline", PROFILE_DISCIPLINE)
+            .add("photos", PROFILE_PHOTOS)
+            .add("education", PROFILE_EDUCATION)
+            .add("employment", PROFILE_EMPLOYMENT)
+            .add("institution_details", PROFILE_INSTITUTION_DETAILS)
+            .add("editorships", PROFILE_EDITORSHIPS)
+            .add("research_interests_list", PROFILE_RESEARCH_INTERESTS_LIST)
+            .build();
+
     public static Profile profileFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
         final Profile.Builder builder = new Profile.Builder();
 
@@ -48,75 +97,97 @@ public class JsonParser {
 
         while (reader.hasNext()) {
 
-            final String key = reader.nextName();
-            if (key.equals("id")) {
-                builder.setId(reader.nextString());
+            switch (PROFILE_FIELDS.get(reader.nextName())) {
+                case PROFILE_ID:
+                    builder.setId(reader.nextString());
+                    break;
 
-            } else if (key.equals("display_name")) {
-                builder.setDisplayName(reader.nextString());
+                case PROFILE_DISPLAY_NAME:
+                    builder.setDisplayName(reader.nextString());
+                    break;
 
-            } else if (key.equals("user_type")) {
-                builder.setUserType(reader.nextString());
+                case PROFILE_USER_TYPE:
+                    builder.setUserType(reader.nextString());
+                    break;
 
-            } else if (key.equals("url")) {
-                builder.setUrl(reader.nextString());
+                case PROFILE_URL:
+                    builder.setUrl(reader.nextString());
+                    break;
 
-            } else if (key.equals("email")) {
-                builder.setEmail(reader.nextString());
+                case PROFILE_EMAIL:
+                    builder.setEmail(reader.nextString());
+                    break;
 
-            } else if (key.equals("link")) {
-                builder.setLink(reader.nextString());
+                case PROFILE_LINK:
+                    builder.setLink(reader.nextString());
+                    break;
 
-            } else if (key.equals("first_name")) {
-                builder.setFirstName(reader.nextString());
+                case PROFILE_FIRST_NAME:
+                    builder.setFirstName(reader.nextString());
+                    break;
 
-            } else if (key.equals("last_name")) {
-                builder.setLastName(reader.nextString());
+                case PROFILE_LAST_NAME:
+                    builder.setLastName(reader.nextString());
+                    break;
 
-            } else if (key.equals("title")) {
-                builder.setTitle(reader.nextString());
+                case PROFILE_TITLE:
+                    builder.setTitle(reader.nextString());
+                    break;
 
-            } else if (key.equals("biography")) {
-                builder.setBiography(reader.nextString());
+                case PROFILE_BIOGRAPHY:
+                    builder.setBiography(reader.nextString());
+                    break;
 
-            } else if (key.equals("research_interests")) {
-                builder.setResearchInterests(reader.nextString());
+                case PROFILE_RESEARCH_INTERESTS:
+                    builder.setResearchInterests(reader.nextString());
+                    break;
 
-            } else if (key.equals("academic_status")) {
-                builder.setAcademicStatus(reader.nextString());
+                case PROFILE_ACADEMIC_STATUS:
+                    builder.setAcademicStatus(reader.nextString());
+                    break;
 
-            } else if (key.equals("verified")) {
-                builder.setVerified(reader.nextBoolean());
+                case PROFILE_VERIFIED:
+                    builder.setVerified(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("marketing")) {
-                builder.setMarketing(reader.nextBoolean());
+                case PROFILE_MARKETING:
+                    builder.setMarketing(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("created_at")) {
-                builder.setCreatedAt(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case PROFILE_CREATED_AT:
+                    builder.setCreatedAt(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("discipline")) {
-                builder.setDiscipline(disciplineFromJson(reader));
+                case PROFILE_DISCIPLINE:
+                    builder.setDiscipline(disciplineFromJson(reader));
+                    break;
 
-            } else if (key.equals("photos")) {
-                builder.setPhotos(profilePhotosFromJson(reader));
+                case PROFILE_PHOTOS:
+                    builder.setPhotos(profilePhotosFromJson(reader));
+                    break;
 
-            } else if (key.equals("education")) {
-                builder.setEducation(educationsFromJson(reader));
+                case PROFILE_EDUCATION:
+                    builder.setEducation(educationsFromJson(reader));
+                    break;
 
-            } else if (key.equals("employment")) {
-                builder.setEmployment(employmentsFromJson(reader));
+                case PROFILE_EMPLOYMENT:
+                    builder.setEmployment(employmentsFromJson(reader));
+                    break;
 
-            } else if (key.equals("institution_details")) {
-                builder.setInstitutionDetails(institutionFromJson(reader));
+                case PROFILE_INSTITUTION_DETAILS:
+                    builder.setInstitutionDetails(institutionFromJson(reader));
+                    break;
 
-            } else if (key.equals("editorships")) {
-                builder.setEditorships(editorshipsFromJsonFromJson(reader));
+                case PROFILE_EDITORSHIPS:
+                    builder.setEditorships(editorshipsFromJsonFromJson(reader));
+                    break;
 
-            } else if (key.equals("research_interests_list")) {
-                builder.setResearchInterestsList(stringListFromJson(reader));
+                case PROFILE_RESEARCH_INTERESTS_LIST:
+                    builder.setResearchInterestsList(stringListFromJson(reader));
+                    break;
 
-            } else {
-                reader.skipValue();
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -198,6 +269,85 @@ public class JsonParser {
         return documents;
     }
 
+    // fields of the documents
+    private static final int DOCUMENT_TITLE = 0;
+    private static final int DOCUMENT_TYPE = 1;
+    private static final int DOCUMENT_LAST_MODIFIED = 2;
+    private static final int DOCUMENT_GROUP_ID = 3;
+    private static final int DOCUMENT_PROFILE_ID = 4;
+    private static final int DOCUMENT_READ = 5;
+    private static final int DOCUMENT_STARRED = 6;
+    private static final int DOCUMENT_AUTHORED = 7;
+    private static final int DOCUMENT_CONFIRMED = 8;
+    private static final int DOCUMENT_HIDDEN = 9;
+    private static final int DOCUMENT_ID = 10;
+    private static final int DOCUMENT_MONTH = 11;
+    private static final int DOCUMENT_YEAR = 12;
+    private static final int DOCUMENT_DAY = 13;
+    private static final int DOCUMENT_SOURCE = 14;
+    private static final int DOCUMENT_REVISION = 15;
+    private static final int DOCUMENT_CREATED = 16;
+    private static final int DOCUMENT_ABSTRACT = 17;
+    private static final int DOCUMENT_PAGES = 18;
+    private static final int DOCUMENT_NOTES = 19;
+    private static final int DOCUMENT_VOLUME = 20;
+    private static final int DOCUMENT_ISSUE = 21;
+    private static final int DOCUMENT_PUBLISHER = 22;
+    private static final int DOCUMENT_CITY = 23;
+    private static final int DOCUMENT_EDITION = 24;
+    private static final int DOCUMENT_INSTITUTION = 25;
+    private static final int DOCUMENT_SERIES = 26;
+    private static final int DOCUMENT_CHAPTER = 27;
+    private static final int DOCUMENT_CLIENT_DATA = 28;
+    private static final int DOCUMENT_UNIQUE_ID = 29;
+    private static final int DOCUMENT_AUTHORS = 30;
+    private static final int DOCUMENT_EDITORS = 31;
+    private static final int DOCUMENT_IDENTIFIERS = 32;
+    private static final int DOCUMENT_TAGS = 33;
+    private static final int DOCUMENT_FILE_ATTACHED = 34;
+    private static final int DOCUMENT_KEYWORDS = 35;
+    private static final int DOCUMENT_WEBSITES = 36;
+
+    private static final JsonFieldTable DOCUMENT_FIELDS = new JsonFieldTable.Builder()
+            .add("title", DOCUMENT_TITLE)
+            .add("type", DOCUMENT_TYPE)
+            .add("last_modified", DOCUMENT_LAST_MODIFIED)
+            .add("group_id", DOCUMENT_GROUP_ID)
+            .add("profile_id", DOCUMENT_PROFILE_ID)
+            .add("read", DOCUMENT_READ)
+            .add("starred", DOCUMENT_STARRED)
+            .add("authored", DOCUMENT_AUTHORED)
+            .add("confirmed", DOCUMENT_CONFIRMED)
+            .add("hidden", DOCUMENT_HIDDEN)
+            .add("id", DOCUMENT_ID)
+            .add("month", DOCUMENT_MONTH)
+            .add("year", DOCUMENT_YEAR)
+            .add("day", DOCUMENT_DAY)
+            .add("source", DOCUMENT_SOURCE)
+            .add("revision", DOCUMENT_REVISION)
+            .add("created", DOCUMENT_CREATED)
+            .add("abstract", DOCUMENT_ABSTRACT)
+            .add("pages", DOCUMENT_PAGES)
+            .add("notes", DOCUMENT_NOTES)
+            .add("volume", DOCUMENT_VOLUME)
+            .add("issue", DOCUMENT_ISSUE)
+            .add("publisher", DOCUMENT_PUBLISHER)
+            .add("city", DOCUMENT_CITY)
+            .add("edition", DOCUMENT_EDITION)
+            .add("institution", DOCUMENT_INSTITUTION)
+            .add("series", DOCUMENT_SERIES)
+            .add("chapter", DOCUMENT_CHAPTER)
+            .add("client_data", DOCUMENT_CLIENT_DATA)
+            .add("unique_id", DOCUMENT_UNIQUE_ID)
+            .add("authors", DOCUMENT_AUTHORS)
+            .add("editors", DOCUMENT_EDITORS)
+            .add("identifiers", DOCUMENT_IDENTIFIERS)
+            .add("tags", DOCUMENT_TAGS)
+            .add("file_attached", DOCUMENT_FILE_ATTACHED)
+            .add("keywords", DOCUMENT_KEYWORDS)
+            .add("websites", DOCUMENT_WEBSITES)
+            .build();
+
     public static Document documentFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
 
         final Document.Builder bld = new Document.Builder();
@@ -205,125 +355,164 @@ public class JsonParser {
         reader.beginObject();
         while (reader.hasNext()) {
 
-            final String key = reader.nextName();
-            if (key.equals("title")) {
-                bld.setTitle(reader.nextString());
+            switch (DOCUMENT_FIELDS.get(reader.nextName())) {
+                case DOCUMENT_TITLE:
+                    bld.setTitle(reader.nextString());
+                    break;
 
-            } else if (key.equals("type")) {
-                bld.setType(reader.nextString());
+                case DOCUMENT_TYPE:
+                    bld.setType(reader.nextString());
+                    break;
 
-            } else if (key.equals("last_modified")) {
-                bld.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case DOCUMENT_LAST_MODIFIED:
+                    bld.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("group_id")) {
-                bld.setGroupId(reader.nextString());
+                case DOCUMENT_GROUP_ID:
+                    bld.setGroupId(reader.nextString());
+                    break;
 
-            } else if (key.equals("profile_id")) {
-                bld.setProfileId(reader.nextString());
+                case DOCUMENT_PROFILE_ID:
+                    bld.setProfileId(reader.nextString());
+                    break;
 
-            } else if (key.equals("read")) {
-                bld.setRead(reader.nextBoolean());
+                case DOCUMENT_READ:
+                    bld.setRead(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("starred")) {
-                bld.setStarred(reader.nextBoolean());
+                case DOCUMENT_STARRED:
+                    bld.setStarred(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("authored")) {
-                bld.setAuthored(reader.nextBoolean());
+                case DOCUMENT_AUTHORED:
+                    bld.setAuthored(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("confirmed")) {
-                bld.setConfirmed(reader.nextBoolean());
+                case DOCUMENT_CONFIRMED:
+                    bld.setConfirmed(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("hidden")) {
-                bld.setHidden(reader.nextBoolean());
+                case DOCUMENT_HIDDEN:
+                    bld.setHidden(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("id")) {
-                bld.setId(reader.nextString());
+                case DOCUMENT_ID:
+                    bld.setId(reader.nextString());
+                    break;
 
-            } else if (key.equals("month")) {
-                bld.setMonth(reader.nextInt());
+                case DOCUMENT_MONTH:
+                    bld.setMonth(reader.nextInt());
+                    break;
 
-            } else if (key.equals("year")) {
-                bld.setYear(reader.nextInt());
+                case DOCUMENT_YEAR:
+                    bld.setYear(reader.nextInt());
+                    break;
 
-            } else if (key.equals("day")) {
-                bld.setDay(reader.nextInt());
+                case DOCUMENT_DAY:
+                    bld.setDay(reader.nextInt());
+                    break;
 
-            } else if (key.equals("source")) {
-                bld.setSource(reader.nextString());
+                case DOCUMENT_SOURCE:
+                    bld.setSource(reader.nextString());
+                    break;
 
-            } else if (key.equals("revision")) {
-                bld.setRevision(reader.nextString());
+                case DOCUMENT_REVISION:
+                    bld.setRevision(reader.nextString());
+                    break;
 
-            } else if (key.equals("created")) {
-                bld.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case DOCUMENT_CREATED:
+                    bld.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("abstract")) {
-                bld.setAbstractString(reader.nextString());
+                case DOCUMENT_ABSTRACT:
+                    bld.setAbstractString(reader.nextString());
+                    break;
 
-            } else if (key.equals("pages")) {
-                bld.setPages(reader.nextString());
+                case DOCUMENT_PAGES:
+                    bld.setPages(reader.nextString());
+                    break;
 
-            } else if (key.equals("notes")) {
-                bld.setNotes(reader.nextString());
+                case DOCUMENT_NOTES:
+                    bld.setNotes(reader.nextString());
+                    break;
 
-            } else if (key.equals("volume")) {
-                bld.setVolume(reader.nextString());
+                case DOCUMENT_VOLUME:
+                    bld.setVolume(reader.nextString());
+                    break;
 
-            } else if (key.equals("issue")) {
-                bld.setIssue(reader.nextString());
+                case DOCUMENT_ISSUE:
+                    bld.setIssue(reader.nextString());
+                    break;
 
-            } else if (key.equals("publisher")) {
-                bld.setPublisher(reader.nextString());
+                case DOCUMENT_PUBLISHER:
+                    bld.setPublisher(reader.nextString());
+                    break;
 
-            } else if (key.equals("city")) {
-                bld.setCity(reader.nextString());
+                case DOCUMENT_CITY:
+                    bld.setCity(reader.nextString());
+                    break;
 
-            } else if (key.equals("edition")) {
-                bld.setEdition(reader.nextString());
+                case DOCUMENT_EDITION:
+                    bld.setEdition(reader.nextString());
+                    break;
+
+                case DOCUMENT_INSTITUTION:
+                    bld.setInstitution(reader.nextString());
+                    break;
 
-            } else if (key.equals("institution")) {
-                bld.setInstitution(reader.nextString());
+                case DOCUMENT_SERIES:
+                    bld.setSeries(reader.nextString());
+                    break;
 
-            } else if (key.equals("series")) {
-                bld.setSeries(reader.nextString());
+                case DOCUMENT_CHAPTER:
+                    bld.setChapter(reader.nextString());
+                    break;
 
-            } else if (key.equals("chapter")) {
-                bld.setChapter(reader.nextString());
+                case DOCUMENT_CLIENT_DATA:
+                    bld.setClientData(reader.nextString());
+                    break;
 
-            } else if (key.equals("client_data")) {
-                bld.setClientData(reader.nextString());
+                case DOCUMENT_UNIQUE_ID:
+                    bld.setUniqueId(reader.nextString());
+                    break;
 
-            } else if (key.equals("unique_id")) {
-                bld.setUniqueId(reader.nextString());
+                case DOCUMENT_AUTHORS:
+                    bld.setAuthors(personsFromJson(reader));
+                    break;
 
-            } else if (key.equals("authors")) {
-                bld.setAuthors(personsFromJson(reader));
+                case DOCUMENT_EDITORS:
+                    bld.setEditors(personsFromJson(reader));
+                    break;
 
-            } else if (key.equals("editors")) {
-                bld.setEditors(personsFromJson(reader));
+                case DOCUMENT_IDENTIFIERS:
+                    final Map<String, String> map = new HashMap<>();
 
-            } else if (key.equals("identifiers")) {
-                final Map<String, String> map = new HashMap<>();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        map.put(reader.nextName(), reader.nextString());
+                    }
+                    reader.endObject();
+                    bld.setIdentifiers(map);
+                    break;
 
-                reader.beginObject();
-                while (reader.hasNext()) {
-                    map.put(reader.nextName(), reader.nextString());
-                }
-                reader.endObject();
-                bld.setIdentifiers(map);
-            } else if (key.equals("tags")) {
-                bld.setTags(stringListFromJson(reader));
+                case DOCUMENT_TAGS:
+                    bld.setTags(stringListFromJson(reader));
+                    break;
 
-            } else if (key.equals("file_attached")) {
-                bld.setFileAttached(reader.nextBoolean());
+                case DOCUMENT_FILE_ATTACHED:
+                    bld.setFileAttached(reader.nextBoolean());
+                    break;
 
-            } else if (key.equals("keywords")) {
-                bld.setKeywords(stringListFromJson(reader));
+                case DOCUMENT_KEYWORDS:
+                    bld.setKeywords(stringListFromJson(reader));
+                    break;
 
-            } else if (key.equals("websites")) {
-                bld.setWebsites(stringListFromJson(reader));
-            } else {
-                reader.skipValue();
+                case DOCUMENT_WEBSITES:
+                    bld.setWebsites(stringListFromJson(reader));
+                    break;
+
+                default:
+                    reader.skipValue();
             }
         }
 
@@ -676,51 +865,92 @@ public class JsonParser {
         return annotations;
     }
 
+    // fields of the annotations
+    private static final int ANNOTATION_ID = 0;
+    private static final int ANNOTATION_TYPE = 1;
+    private static final int ANNOTATION_PREVIOUS_ID = 2;
+    private static final int ANNOTATION_COLOR = 3;
+    private static final int ANNOTATION_TEXT = 4;
+    private static final int ANNOTATION_PROFILE_ID = 5;
+    private static final int ANNOTATION_POSITIONS = 6;
+    private static final int ANNOTATION_CREATED = 7;
+    private static final int ANNOTATION_LAST_MODIFIED = 8;
+    private static final int ANNOTATION_PRIVACY_LEVEL = 9;
+    private static final int ANNOTATION_FILEHASH = 10;
+    private static final int ANNOTATION_DOCUMENT_ID = 11;
+
+    private static final JsonFieldTable ANNOTATION_FIELDS = new JsonFieldTable.Builder()
+            .add("id", ANNOTATION_ID)
+            .add("type", ANNOTATION_TYPE)
+            .add("previous_id", ANNOTATION_PREVIOUS_ID)
+            .add("color", ANNOTATION_COLOR)
+            .add("text", ANNOTATION_TEXT)
+            .add("profile_id", ANNOTATION_PROFILE_ID)
+            .add("positions", ANNOTATION_POSITIONS)
+            .add("created", ANNOTATION_CREATED)
+            .add("last_modified", ANNOTATION_LAST_MODIFIED)
+            .add("privacy_level", ANNOTATION_PRIVACY_LEVEL)
+            .add("filehash", ANNOTATION_FILEHASH)
+            .add("document_id", ANNOTATION_DOCUMENT_ID)
+            .build();
+
     public static Annotation annotationFromJson(JsonReader reader) throws JSONException, IOException, ParseException {
         final Annotation.Builder builder = new Annotation.Builder();
 
         reader.beginObject();
 
         while (reader.hasNext()) {
-            final String key = reader.nextName();
+            switch (ANNOTATION_FIELDS.get(reader.nextName())) {
+                case ANNOTATION_ID:
+                    builder.setId(reader.nextString());
+                    break;
 
-            if (key.equals("id")) {
-                builder.setId(reader.nextString());
+                case ANNOTATION_TYPE:
+                    builder.setType(Annotation.Type.fromName(reader.nextString()));
+                    break;
 
-            } else if (key.equals("type")) {
-                builder.setType(Annotation.Type.fromName(reader.nextString()));
+                case ANNOTATION_PREVIOUS_ID:
+                    builder.setPreviousId(reader.nextString());
+                    break;
 
-            } else if (key.equals("previous_id")) {
-                builder.setPreviousId(reader.nextString());
+                case ANNOTATION_COLOR:
+                    builder.setColor(colorFromJson(reader));
+                    break;
 
-            } else if (key.equals("color")) {
-                builder.setColor(colorFromJson(reader));
+                case ANNOTATION_TEXT:
+                    builder.setText(reader.nextString());
+                    break;
 
-            } else if (key.equals("text")) {
-                builder.setText(reader.nextString());
+                case ANNOTATION_PROFILE_ID:
+                    builder.setProfileId(reader.nextString());
+                    break;
 
-            } else if (key.equals("profile_id")) {
-                builder.setProfileId(reader.nextString());
+                case ANNOTATION_POSITIONS:
+                    builder.setPositions(positionsFromJson(reader));
+                    break;
 
-            } else if (key.equals("positions")) {
-                builder.setPositions(positionsFromJson(reader));
+                case ANNOTATION_CREATED:
+                    builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("created")) {
-                builder.setCreated(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case ANNOTATION_LAST_MODIFIED:
+                    builder.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                    break;
 
-            } else if (key.equals("last_modified")) {
-                builder.setLastModified(DateUtils.parseMendeleyApiTimestamp(reader.nextString()));
+                case ANNOTATION_PRIVACY_LEVEL:
+                    builder.setPrivacyLevel(PrivacyLevel.fromName(reader.nextString()));
+                    break;
 
-            } else if (key.equals("privacy_level")) {
-                builder.setPrivacyLevel(PrivacyLevel.fromName(reader.nextString()));
+                case ANNOTATION_FILEHASH:
+                    builder.setFileHash(reader.nextString());
+                    break;
 
-            } else if (key.equals("filehash")) {
-                builder.setFileHash(reader.nextString());
+                case ANNOTATION_DOCUMENT_ID:
+                    builder.setDocumentId(reader.nextString());
+                    break;
 
-            } else if (key.equals("document_id")) {
-                builder.setDocumentId(reader.nextString());
-            } else {
-                reader.skipValue();
+                default:
+                    reader.skipValue();
             }
         }
 
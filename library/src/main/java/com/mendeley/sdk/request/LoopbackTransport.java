@@ -0,0 +1,238 @@
+package com.mendeley.sdk.request;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+
+/**
+ * In-process {@link Transport} serving canned responses from memory, without opening any socket.
+ *
+ * <p/>
+ *
+ * Useful to benchmark the building of the requests and the parsing of the responses in isolation,
+ * and to test the SDK without a server.
+ */
+public class LoopbackTransport implements Transport {
+
+    private final Map<String, CannedResponse> responses = new HashMap<String, CannedResponse>();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final SimpleDateFormat httpHeaderDateFormat;
+
+    private volatile CannedResponse defaultResponse = new CannedResponse.Builder().setCode(404).setMessage("Not Found").build();
+    private volatile okhttp3.Request lastRequest;
+
+    public LoopbackTransport() {
+        httpHeaderDateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        httpHeaderDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+    }
+
+    /**
+     * Serves the response to every request with the given method and URL.
+     */
+    public synchronized LoopbackTransport addResponse(String method, String url, CannedResponse response) {
+        responses.put(method + " " + url, response);
+        return this;
+    }
+
+    /**
+     * Serves the response to every request not matching any other one.
+     */
+    public LoopbackTransport setDefaultResponse(CannedResponse response) {
+        this.defaultResponse = response;
+        return this;
+    }
+
+    /**
+     * @return number of requests served
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the last request served, or null
+     */
+    public okhttp3.Request getLastRequest() {
+        return lastRequest;
+    }
+
+    @Override
+    public Call newCall(okhttp3.Request request) {
+        return new LoopbackCall(request);
+    }
+
+    private synchronized CannedResponse getResponse(okhttp3.Request request) {
+        final CannedResponse response = responses.get(request.method() + " " + request.url());
+        return response != null ? response : defaultResponse;
+    }
+
+    private String formatDate(Date date) {
+        synchronized (httpHeaderDateFormat) {
+            return httpHeaderDateFormat.format(date);
+        }
+    }
+
+    /**
+     * {@link Call} served from memory.
+     */
+    private class LoopbackCall implements Call {
+
+        private final okhttp3.Request request;
+        private volatile boolean executed;
+        private volatile boolean canceled;
+
+        LoopbackCall(okhttp3.Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public okhttp3.Request request() {
+            return request;
+        }
+
+        @Override
+        public okhttp3.Response execute() throws IOException {
+            synchronized (this) {
+                if (executed) {
+                    throw new IllegalStateException("Already Executed");
+                }
+                executed = true;
+            }
+            if (canceled) {
+                throw new IOException("Canceled");
+            }
+
+            if (request.body() != null) {
+                // consume the body, as the network would
+                request.body().writeTo(new okio.Buffer());
+            }
+
+            requestCount.incrementAndGet();
+            lastRequest = request;
+
+            final CannedResponse cannedResponse = getResponse(request);
+            final okhttp3.Response.Builder bld = new okhttp3.Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(cannedResponse.code)
+                    .message(cannedResponse.message)
+                    .header("Date", formatDate(new Date()))
+                    .body(ResponseBody.create(cannedResponse.contentType, cannedResponse.body));
+            for (Map.Entry<String, String> header : cannedResponse.headers.entrySet()) {
+                bld.header(header.getKey(), header.getValue());
+            }
+            return bld.build();
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback) {
+            try {
+                responseCallback.onResponse(this, execute());
+            } catch (IOException e) {
+                responseCallback.onFailure(this, e);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+    }
+
+    /**
+     * Response served by the {@link LoopbackTransport}.
+     */
+    public static class CannedResponse {
+
+        public final int code;
+        public final String message;
+        public final Map<String, String> headers;
+        public final MediaType contentType;
+        public final byte[] body;
+
+        private CannedResponse(int code, String message, Map<String, String> headers, MediaType contentType, byte[] body) {
+            this.code = code;
+            this.message = message;
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public static class Builder {
+            private int code = 200;
+            private String message = "OK";
+            private final Map<String, String> headers = new LinkedHashMap<String, String>();
+            private MediaType contentType;
+            private byte[] body = new byte[0];
+
+            public Builder() {}
+
+            public Builder setCode(int code) {
+                this.code = code;
+                return this;
+            }
+
+            public Builder setMessage(String message) {
+                this.message = message;
+                return this;
+            }
+
+            public Builder addHeader(String name, String value) {
+                this.headers.put(name, value);
+                return this;
+            }
+
+            public Builder setContentType(String contentType) {
+                this.contentType = MediaType.parse(contentType);
+                return this;
+            }
+
+            public Builder setBody(byte[] body) {
+                this.body = body;
+                return this;
+            }
+
+            public Builder setBody(String body) {
+                try {
+                    this.body = body.getBytes("UTF-8");
+                } catch (java.io.UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                }
+                return this;
+            }
+
+            public CannedResponse build() {
+                return new CannedResponse(
+                        code,
+                        message,
+                        Collections.unmodifiableMap(new LinkedHashMap<String, String>(headers)),
+                        contentType,
+                        body
+                );
+            }
+        }
+    }
+}
@@ -4,41 +4,54 @@ import android.net.Uri;
 
 import com.mendeley.sdk.ClientCredentials;
 import com.mendeley.sdk.AuthTokenManager;
+import com.mendeley.sdk.Deadline;
+import com.mendeley.sdk.HttpClientRegistry;
 import com.mendeley.sdk.Request;
+import com.mendeley.sdk.ServerClock;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
 import com.mendeley.sdk.exceptions.HttpResponseException;
 import com.mendeley.sdk.exceptions.MendeleyException;
 import com.mendeley.sdk.exceptions.UserCancelledException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 
 /**
  * Base implementation of {@link Request} using {@link OkHttpClient} as the HTTP client.
+ * The client is shared across the SDK, see {@link HttpClientRegistry}.
+ * Requests are sent through the {@link Transport} of the registry, unless this request has its
+ * own one, see {@link #setTransport(Transport)}.
  */
 public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequest<ResultType> {
 
-    private static OkHttpClient sOkHttpClient;
+    private static final RetryPolicy DEFAULT_RETRY_POLICY = new ExponentialBackoffRetryPolicy();
 
-    static  {
-        sOkHttpClient = new OkHttpClient.Builder()
-                .connectTimeout(CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
-                .writeTimeout(READ_TIMEOUT, TimeUnit.MILLISECONDS)
-                .readTimeout(READ_TIMEOUT, TimeUnit.MILLISECONDS)
-                .followRedirects(true)
-                .build();
-
-    }
+    // Bodies bigger than this (or of unknown length) are only sent with tokens valid for a while:
+    private static final long LARGE_BODY_BYTES = 1024 * 1024;
+    private static final int LARGE_BODY_MIN_TOKEN_VALIDITY_SEC = 1800;
 
     private RequestProgressListener progressListener;
+    private RetryPolicy retryPolicy = DEFAULT_RETRY_POLICY;
+    private RetryPolicy.RetryListener retryListener;
+    private Transport transport;
 
     public OkHttpAuthorizedRequest(Uri url, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
         super(url, authTokenManager, clientCredentials);
@@ -46,71 +59,492 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
 
     @Override
     public final Response doRunAuthorized() throws MendeleyException {
-        return doRun(getUrl(), 0, true);
-    }
+        final ConditionalResponseCache cache = ConditionalResponseCache.getInstance();
+        if (mayServeStale() && isCacheable() && cache.isInstalled() && cache.isStaleWhileRevalidate()) {
+            final Response staleResponse = getStaleResponse(cache);
+            if (staleResponse != null) {
+                return staleResponse;
+            }
+        }
 
-    private Response doRun(Uri url, int currentRetry, boolean addOauthToken) throws MendeleyException {
-        ResponseBody responseBody = null;
+        final RequestDeduplicator deduplicator = RequestDeduplicator.getInstance();
+        if (!deduplicator.isEnabled() || !isDeduplicable()) {
+            return doRun(getUrl(), true);
+        }
 
-        try {
-            okhttp3.Request.Builder requestBld = new okhttp3.Request.Builder();
-            requestBld.url(url.toString());
-            setMethod(requestBld);
+        final String key = RequestDeduplicator.getKey(this, "GET", getUrl(), getAcceptHeader());
 
-            if (addOauthToken) {
-                requestBld.addHeader("Authorization", "Bearer " + authTokenManager.getAccessToken());
+        final RequestDeduplicator.Result result = deduplicator.execute(key, this, new RequestDeduplicator.Call() {
+            @Override
+            public RequestDeduplicator.Result execute() throws MendeleyException {
+                final Response response = doRun(getUrl(), true);
+                return new RequestDeduplicator.Result(response.resource, response.serverDate, response.next);
             }
+        });
 
+        // the result is shared by the leader and its followers: each of them gets its own copy
+        @SuppressWarnings("unchecked")
+        final ResultType resource = copyCachedResource((ResultType) result.resource);
+        return new Response(resource, result.serverDate, result.next);
+    }
 
+    /**
+     * Returns the cached response of this request, if any, and revalidates it in background.
+     */
+    private Response getStaleResponse(ConditionalResponseCache cache) throws MendeleyException {
+        final String cacheKey = ConditionalResponseCache.getKey(getUrl(), getAcceptHeader());
 
-            final Map<String, String> requestHeaders = new HashMap<String, String>();
-            appendHeaders(requestHeaders);
-            for (String key : requestHeaders.keySet()) {
-                requestBld.addHeader(key, requestHeaders.get(key));
-            }
-
-            final okhttp3.Request okHttpRequest =  requestBld.build();
-            final okhttp3.Response okHttpResponse = sOkHttpClient.newCall(okHttpRequest).execute();
+        final ConditionalResponseCache.Entry cachedEntry = cache.get(cacheKey);
+        if (cachedEntry == null) {
+            return null;
+        }
 
-            final int responseCode = okHttpResponse.code();
+        final boolean needsParse = cache.getParsedResource(cacheKey) == null;
+        final Response staleResponse = getCachedResponse(cache, cacheKey, cachedEntry, cachedEntry.serverDate);
+        cache.onStaleResponse(needsParse);
 
-            responseBody = okHttpResponse.body();
-            if (responseCode / 100 != 2) {
-                throw new HttpResponseException(responseCode, okHttpResponse.message(), url.toString(), responseBody.string(), okHttpResponse.header("X-Mendeley-Trace-Id"));
+        // revalidated by a request of its own, so cancelling this one does not abort it
+        final Revalidation<ResultType> revalidation = new Revalidation<ResultType>(this);
+        cache.revalidate(cacheKey, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    revalidation.run();
+                } catch (MendeleyException ignored) {
+                    // the stale response will be revalidated again next time
+                }
             }
+        });
+        return staleResponse;
+    }
 
-            // wrapping the input stream of the connection in:
-            // -- CancellableInputStream to stop reading if the request has been cancelled
-            // -- ProgressPublisherInputStream to publish progress as the file is being read
-            final InputStream is = new MyCancellableInputStream(new MyProgressPublisherInputStream(responseBody.byteStream(), responseBody.contentLength()));
-            final Map<String, List<String>> responseHeaders = okHttpResponse.headers().toMultimap();
-            return new Response(manageResponse(is), getServerDateString(responseHeaders), getNextPage(responseHeaders));
-        } catch (CancellationException ce) {
-            throw new UserCancelledException(ce);
-        } catch (MendeleyException me) {
-            throw me;
-        } catch (ParseException pe) {
-            throw new MendeleyException("Could not parse a date in the JSON response " + url, pe);
-        } catch (IOException ioe) {
-            // If the issue is due to IOException, retry up to MAX_HTTP_RETRIES times
-            if (currentRetry <  MAX_HTTP_RETRIES) {
-                return doRun(url, currentRetry + 1, addOauthToken);
-            } else {
-                throw new MendeleyException("IO error performing the request " + url, ioe);
+    /**
+     * Builds the response of this request from a cached one, parsing the cached body only if
+     * the parsed resource is not in memory any more. The resource returned is a copy of the
+     * one kept by the cache, see {@link #copyCachedResource(Object)}.
+     */
+    private Response getCachedResponse(ConditionalResponseCache cache, String cacheKey, ConditionalResponseCache.Entry cachedEntry, String serverDate) throws MendeleyException {
+        @SuppressWarnings("unchecked")
+        ResultType resource = (ResultType) cache.getParsedResource(cacheKey);
+        if (resource == null) {
+            try {
+                resource = manageResponse(new ByteArrayInputStream(cachedEntry.body));
+            } catch (Exception e) {
+                throw new MendeleyException("Error parsing the cached response of " + getUrl(), e);
             }
-        } catch (Exception e) {
-            throw new MendeleyException("Error performing the request " + url, e);
-        } finally {
-            if (responseBody != null) {
-                if (responseBody.byteStream() != null) {
+            cache.putParsedResource(cacheKey, resource);
+        }
+        final Date date = serverDate != null ? parseHeaderDate(serverDate) : null;
+        final Uri next = cachedEntry.next != null ? Uri.parse(cachedEntry.next) : null;
+        return new Response(copyCachedResource(resource), date, next);
+    }
+
+    private Response doRun(Uri url, boolean addOauthToken) throws MendeleyException {
+        final long startNanos = System.nanoTime();
+        final RetryStats retryStats = RetryStats.getInstance();
+        retryStats.onRequest();
+
+        // parsed once, and reused by every attempt
+        final RequestTemplate template = getRequestTemplate();
+        final HttpUrl httpUrl;
+        try {
+            httpUrl = template != null ? template.toHttpUrl(url) : RequestTemplate.parseHttpUrl(url);
+        } catch (IllegalArgumentException e) {
+            throw new MendeleyException("Error building the request to " + url, e);
+        }
+
+        // the request sent again, with a fresh access token, after the previous one expired in flight
+        okhttp3.Request replayRequest = null;
+        boolean tokenRefreshed = false;
+
+        int attemptNumber = 0;
+        while (true) {
+            checkDeadline();
+            attemptNumber++;
+            retryStats.onAttempt();
+
+            long retryDelayMs;
+            ResponseBody responseBody = null;
+            CircuitBreaker.Permit circuitPermit = null;
+            AdaptiveConcurrencyLimiter.Permit permit = null;
+            Future<?> deadlineWatch = null;
+            Call call = null;
+
+            try {
+                final okhttp3.Request.Builder requestBld;
+                final String accept;
+                if (replayRequest != null) {
+                    // the body is sent again as it is, only the token and the conditional headers change
+                    requestBld = replayRequest.newBuilder().removeHeader("If-None-Match").removeHeader("If-Modified-Since");
+                    accept = replayRequest.header("Accept");
+                    replayRequest = null;
+                } else {
+                    requestBld = new okhttp3.Request.Builder();
+                    requestBld.url(httpUrl);
+                    if (template != null) {
+                        requestBld.headers(template.getHeaders());
+                        accept = template.getContentType();
+                    } else {
+                        final Map<String, String> requestHeaders = new HashMap<String, String>();
+                        appendHeaders(requestHeaders);
+                        for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                            requestBld.addHeader(header.getKey(), header.getValue());
+                        }
+                        accept = requestHeaders.get("Accept");
+                    }
+                    setMethod(requestBld);
+
+                    if (addOauthToken && isLargeBody(requestBld.build().body())) {
+                        // better refreshing the token now than finding it expired once the body has been sent
+                        refreshTokenIfExpiresWithin(TimeUnit.SECONDS.toMillis(LARGE_BODY_MIN_TOKEN_VALIDITY_SEC));
+                    }
+                }
+
+                final String accessToken = authTokenManager.getAccessToken();
+                if (addOauthToken) {
+                    requestBld.header("Authorization", "Bearer " + accessToken);
+                }
+
+                final ConditionalResponseCache cache = ConditionalResponseCache.getInstance();
+                final String cacheKey = isCacheable() && cache.isInstalled() ? ConditionalResponseCache.getKey(url, accept) : null;
+                final ConditionalResponseCache.Entry cachedEntry = cacheKey != null ? cache.get(cacheKey) : null;
+                if (cachedEntry != null) {
+                    if (cachedEntry.etag != null) {
+                        requestBld.addHeader("If-None-Match", cachedEntry.etag);
+                    }
+                    if (cachedEntry.lastModified != null) {
+                        requestBld.addHeader("If-Modified-Since", cachedEntry.lastModified);
+                    }
+                }
+
+                final okhttp3.Request okHttpRequest =  requestBld.build();
+                circuitPermit = CircuitBreaker.getInstance().acquire(url);
+                permit = AdaptiveConcurrencyLimiter.getInstance().acquire(url, this);
+                final okhttp3.Response okHttpResponse;
+                if (isHedgeable() && RequestHedger.getInstance().isEnabled()) {
+                    okHttpResponse = RequestHedger.getInstance().execute(getTransport(), okHttpRequest, url, this);
+                } else {
+                    call = getTransport().newCall(okHttpRequest);
+                    // aborts the call as soon as the request is cancelled
+                    attachCall(call);
+                    if (getDeadline() != null) {
+                        // aborts the connection, wherever the call is blocked at
+                        deadlineWatch = getDeadline().cancelOnExpiry(call);
+                    }
+                    okHttpResponse = call.execute();
+                }
+
+                final int responseCode = okHttpResponse.code();
+                final String dateHeader = okHttpResponse.header("Date");
+                if (dateHeader != null) {
                     try {
-                        responseBody.byteStream().close();
-                    } catch (IOException ignored) {
+                        ServerClock.getInstance().onServerDate(parseHeaderDate(dateHeader));
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+                if (responseCode == 429 || responseCode == 503) {
+                    permit.onDropped();
+                } else if (responseCode / 100 == 2 || responseCode == 304) {
+                    permit.onSuccess(permit.getElapsedMs());
+                }
+                if (responseCode / 100 == 5) {
+                    circuitPermit.onFailure();
+                } else {
+                    circuitPermit.onSuccess(permit.getElapsedMs());
+                }
+
+                responseBody = okHttpResponse.body();
+                if (responseCode == 304 && cachedEntry != null) {
+                    final boolean needsParse = cache.getParsedResource(cacheKey) == null;
+                    final String serverDate = okHttpResponse.header("Date");
+                    final Response response = getCachedResponse(cache, cacheKey, cachedEntry, serverDate != null ? serverDate : cachedEntry.serverDate);
+                    cache.onNotModified(needsParse);
+                    return response;
+                } else if (responseCode / 100 != 2) {
+                    final String errorBody = responseBody.string();
+                    final HttpResponseException httpException = new HttpResponseException(responseCode, okHttpResponse.message(), url.toString(), errorBody, okHttpResponse.header("X-Mendeley-Trace-Id"));
+                    if (addOauthToken && !tokenRefreshed && responseCode == 401 && errorBody.contains("Token has expired")) {
+                        // The refresh-token-in-advance logic did not work for some reason: force a refresh now,
+                        // unless another request has already done it, and send the same request again.
+                        // A body that has been consumed cannot be sent again, so those requests just fail.
+                        if (!isBodyReplayable()) {
+                            throw httpException;
+                        }
+                        tokenRefreshed = true;
+                        refreshExpiredToken(accessToken);
+                        replayRequest = okHttpRequest;
+                        retryDelayMs = 0;
+                    } else {
+                        retryDelayMs = getRetryDelayMs(attemptNumber, responseCode, getRetryAfterMs(okHttpResponse.header("Retry-After")), startNanos, httpException);
+                        if (retryDelayMs == RetryPolicy.NO_RETRY) {
+                            throw httpException;
+                        }
+                    }
+                } else {
+                    final Map<String, List<String>> responseHeaders = okHttpResponse.headers().toMultimap();
+                    final String etag = okHttpResponse.header("ETag");
+                    final String lastModified = okHttpResponse.header("Last-Modified");
+
+                    if (cacheKey != null && (etag != null || lastModified != null)) {
+                        // keep the raw body, so it can be cached
+                        final byte[] body = responseBody.bytes();
+                        final InputStream is = new MyCancellableInputStream(new MyProgressPublisherInputStream(new ByteArrayInputStream(body), body.length));
+                        final Response response = new Response(manageResponse(is), getServerDateString(responseHeaders), getNextPage(responseHeaders));
+                        cache.put(cacheKey, new ConditionalResponseCache.Entry(etag, lastModified, getServerDateString(responseHeaders), response.next != null ? response.next.toString() : null, body), copyCachedResource(response.resource));
+                        return response;
                     }
+
+                    // wrapping the input stream of the connection in:
+                    // -- CancellableInputStream to stop reading if the request has been cancelled
+                    // -- ProgressPublisherInputStream to publish progress as the file is being read
+                    final InputStream is = new MyCancellableInputStream(new MyProgressPublisherInputStream(responseBody.byteStream(), responseBody.contentLength()));
+                    return new Response(manageResponse(is), getServerDateString(responseHeaders), getNextPage(responseHeaders));
+                }
+            } catch (CancellationException ce) {
+                if (isDeadlineExpired()) {
+                    throw new DeadlineExceededException(ce);
+                }
+                throw new UserCancelledException(ce);
+            } catch (MendeleyException me) {
+                throw me;
+            } catch (ParseException pe) {
+                throw new MendeleyException("Could not parse a date in the JSON response " + url, pe);
+            } catch (IOException ioe) {
+                if (isDeadlineExpired()) {
+                    throw new DeadlineExceededException(ioe);
+                }
+                if (isCancelled()) {
+                    throw new UserCancelledException(ioe);
+                }
+                if (permit != null && ioe instanceof SocketTimeoutException) {
+                    permit.onDropped();
+                }
+                if (circuitPermit != null) {
+                    circuitPermit.onFailure();
+                }
+                final MendeleyException ioException = new MendeleyException("IO error performing the request " + url, ioe);
+                retryDelayMs = getRetryDelayMs(attemptNumber, 0, -1, startNanos, ioException);
+                if (retryDelayMs == RetryPolicy.NO_RETRY) {
+                    throw ioException;
+                }
+            } catch (Exception e) {
+                if (isDeadlineExpired()) {
+                    throw new DeadlineExceededException(e);
+                }
+                if (isCancelled()) {
+                    throw new UserCancelledException(e);
+                }
+                throw new MendeleyException("Error performing the request " + url, e);
+            } finally {
+                if (deadlineWatch != null) {
+                    deadlineWatch.cancel(false);
+                }
+                if (call != null) {
+                    detachCall(call);
+                }
+                if (responseBody != null) {
+                    if (responseBody.byteStream() != null) {
+                        try {
+                            responseBody.byteStream().close();
+                        } catch (IOException ignored) {
+                        }
+                    }
+                    responseBody.close();
+                }
+                if (permit != null) {
+                    permit.release();
+                }
+                if (circuitPermit != null) {
+                    circuitPermit.release();
                 }
-                responseBody.close();
             }
+
+            waitBeforeRetry(retryDelayMs);
+        }
+    }
+
+    private long getRetryDelayMs(int attemptNumber, int httpCode, long retryAfterMs, long startNanos, Exception cause) {
+        final long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        final RetryPolicy.Attempt attempt = new RetryPolicy.Attempt(attemptNumber, isIdempotent(), isBodyReplayable(), httpCode, retryAfterMs, elapsedMs, cause);
+        // the body may have been consumed by the failed attempt, whatever the policy says
+        final long delayMs = attempt.bodyReplayable ? retryPolicy.getRetryDelayMs(attempt) : RetryPolicy.NO_RETRY;
+
+        if (delayMs != RetryPolicy.NO_RETRY) {
+            RetryStats.getInstance().onRetry(delayMs);
+            if (retryListener != null) {
+                retryListener.onRetry(this, attempt, delayMs);
+            }
+        }
+        return delayMs;
+    }
+
+    private void waitBeforeRetry(long delayMs) throws MendeleyException {
+        final Deadline deadline = getDeadline();
+        if (deadline != null && delayMs >= deadline.getRemainingMs()) {
+            // no point in waiting for a retry that cannot finish in time
+            throw new DeadlineExceededException();
+        }
+        try {
+            if (delayMs > 0) {
+                Thread.sleep(delayMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UserCancelledException(e);
+        }
+        if (isCancelled()) {
+            throw new UserCancelledException();
+        }
+    }
+
+    /**
+     * Parses the value of a Retry-After header, which may be either a number of seconds or
+     * a date.
+     *
+     * @return the delay in milliseconds, or -1 if absent or unparseable
+     */
+    private static long getRetryAfterMs(String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            return Math.max(0, parseHeaderDate(retryAfter).getTime() - System.currentTimeMillis());
+        } catch (IllegalArgumentException ignored) {
+            return -1;
+        }
+    }
+
+    /**
+     * Sets the policy used to decide whether or not failed attempts of this request are retried.
+     * By default, requests use an {@link ExponentialBackoffRetryPolicy}.
+     *
+     * @param retryPolicy the policy, or {@link RetryPolicy#NONE} to disable retries
+     */
+    public final void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy != null ? retryPolicy : RetryPolicy.NONE;
+    }
+
+    /**
+     * Sets a listener to be notified every time this request is retried
+     * @param retryListener
+     */
+    public final void setRetryListener(RetryPolicy.RetryListener retryListener) {
+        this.retryListener = retryListener;
+    }
+
+    /**
+     * Sets the transport used to send this request, instead of the one of the {@link HttpClientRegistry}.
+     *
+     * @param transport the transport, or null to use the one of the registry
+     */
+    public final void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    private Transport getTransport() {
+        return transport != null ? transport : HttpClientRegistry.getInstance().getTransport();
+    }
+
+    /**
+     * @return whether or not this request may be sent again after an attempt that may have
+     *         reached the server. Only idempotent requests are retried after connection errors.
+     */
+    protected boolean isIdempotent() {
+        return false;
+    }
+
+    /**
+     * @return whether or not this request may share its network call and parsed result with
+     *         identical requests running at the same time, see {@link RequestDeduplicator}.
+     */
+    protected boolean isDeduplicable() {
+        return false;
+    }
+
+    /**
+     * @return whether or not the response of this request may be stored and revalidated by the
+     *         {@link ConditionalResponseCache}.
+     */
+    protected boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * Copies a resource kept by the {@link ConditionalResponseCache}, or shared by the
+     * {@link RequestDeduplicator}, so that callers do not share it with each other. By default lists and maps are copied, and any other resource,
+     * like the immutable models of the SDK, is returned as it is. Requests with other mutable
+     * results should override this.
+     */
+    @SuppressWarnings("unchecked")
+    protected ResultType copyCachedResource(ResultType resource) {
+        if (resource instanceof List) {
+            return (ResultType) new ArrayList<Object>((List<Object>) resource);
+        }
+        if (resource instanceof Map) {
+            // keeping the order of the entries, if any
+            return (ResultType) new LinkedHashMap<Object, Object>((Map<Object, Object>) resource);
+        }
+        return resource;
+    }
+
+    /**
+     * @return whether or not this request may be answered with a cached response while it is
+     *         revalidated in background. Revalidations must not.
+     */
+    boolean mayServeStale() {
+        return true;
+    }
+
+    /**
+     * @return whether or not a second copy of this request may be sent if it is slow, see
+     *         {@link RequestHedger}. Only idempotent requests without a body should be hedged.
+     */
+    protected boolean isHedgeable() {
+        return false;
+    }
+
+    /**
+     * Attaches a call sent on behalf of the request by the {@link RequestHedger}, so it is
+     * aborted if the request is cancelled.
+     */
+    static void attachCall(OkHttpAuthorizedRequest<?> request, Call call) {
+        request.attachCall(call);
+    }
+
+    /**
+     * Detaches a call attached with {@link #attachCall(OkHttpAuthorizedRequest, Call)}.
+     */
+    static void detachCall(OkHttpAuthorizedRequest<?> request, Call call) {
+        request.detachCall(call);
+    }
+
+    /**
+     * @return whether or not the body of this request may be sent compressed by the
+     *         {@link RequestBodyCompressor}.
+     */
+    protected boolean isBodyCompressible() {
+        return false;
+    }
+
+    /**
+     * @return whether or not the body of this request may be sent more than once, so that the
+     *         request can be retried or sent again with a refreshed access token. Requests whose
+     *         body streams data that can only be read once fail instead.
+     */
+    protected boolean isBodyReplayable() {
+        return true;
+    }
+
+    private boolean isLargeBody(RequestBody body) throws IOException {
+        if (body == null) {
+            return false;
         }
+        final long contentLength = body.contentLength();
+        return !isBodyReplayable() || contentLength < 0 || contentLength > LARGE_BODY_BYTES;
     }
 
     protected abstract void setMethod(okhttp3.Request.Builder requestBld) throws Exception;
@@ -123,9 +557,28 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
         this.progressListener = progressListener;
     }
 
+    /**
+     * @return the template of the endpoint this request is sent to, or null to build the request
+     *         from {@link #getUrl()} and {@link #appendHeaders(Map)}. Requests with a template
+     *         take their headers from it, and {@link #appendHeaders(Map)} is not invoked.
+     */
+    protected RequestTemplate getRequestTemplate() {
+        return null;
+    }
+
     protected void appendHeaders(Map<String, String> headers) {
     }
 
+    private String getAcceptHeader() {
+        final RequestTemplate template = getRequestTemplate();
+        if (template != null) {
+            return template.getContentType();
+        }
+        final Map<String, String> requestHeaders = new HashMap<String, String>();
+        appendHeaders(requestHeaders);
+        return requestHeaders.get("Accept");
+    }
+
     protected abstract ResultType manageResponse(InputStream is) throws Exception;
 
 
@@ -163,7 +616,7 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
 
         @Override
         protected boolean isCancelled() {
-            return OkHttpAuthorizedRequest.this.isCancelled();
+            return OkHttpAuthorizedRequest.this.isCancelled() || isDeadlineExpired();
         }
     }
 
@@ -195,4 +648,60 @@ public abstract class OkHttpAuthorizedRequest<ResultType> extends AuthorizedRequ
         void onProgress(long progress);
     }
 
+    /**
+     * Request revalidating the cached response of another request in background. It is sent,
+     * built and parsed like the original one, but has its own cancellation state and no deadline.
+     */
+    private static class Revalidation<ResultType> extends OkHttpAuthorizedRequest<ResultType> {
+
+        private final OkHttpAuthorizedRequest<ResultType> original;
+
+        Revalidation(OkHttpAuthorizedRequest<ResultType> original) {
+            super(original.getUrl(), original.authTokenManager, original.clientCredentials);
+            this.original = original;
+            setTransport(original.transport);
+            setRetryPolicy(original.retryPolicy);
+        }
+
+        @Override
+        boolean mayServeStale() {
+            return false;
+        }
+
+        @Override
+        protected void setMethod(okhttp3.Request.Builder requestBld) throws Exception {
+            original.setMethod(requestBld);
+        }
+
+        @Override
+        protected RequestTemplate getRequestTemplate() {
+            return original.getRequestTemplate();
+        }
+
+        @Override
+        protected void appendHeaders(Map<String, String> headers) {
+            original.appendHeaders(headers);
+        }
+
+        @Override
+        protected ResultType manageResponse(InputStream is) throws Exception {
+            return original.manageResponse(is);
+        }
+
+        @Override
+        protected ResultType copyCachedResource(ResultType resource) {
+            return original.copyCachedResource(resource);
+        }
+
+        @Override
+        protected boolean isIdempotent() {
+            return original.isIdempotent();
+        }
+
+        @Override
+        protected boolean isCacheable() {
+            return true;
+        }
+    }
+
 }
@@ -0,0 +1,17 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.HttpClientRegistry;
+
+import okhttp3.Call;
+
+/**
+ * {@link Transport} sending the requests through the network with the shared OkHttp client
+ * of the {@link HttpClientRegistry}.
+ */
+public class OkHttpTransport implements Transport {
+
+    @Override
+    public Call newCall(okhttp3.Request request) {
+        return HttpClientRegistry.getInstance().getClient().newCall(request);
+    }
+}
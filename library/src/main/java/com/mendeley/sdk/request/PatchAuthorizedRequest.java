@@ -11,7 +11,6 @@ import org.json.JSONException;
 
 import java.io.OutputStream;
 import java.util.Date;
-import java.util.Map;
 
 import okhttp3.RequestBody;
 
@@ -30,19 +29,16 @@ public abstract class PatchAuthorizedRequest<ResultType> extends OkHttpAuthorize
 
     @Override
     protected final void setMethod(okhttp3.Request.Builder requestBld) throws Exception {
-        requestBld.patch(getBody());
-    }
-
-    protected abstract RequestBody getBody() throws JSONException;
-
-    @Override
-    protected void appendHeaders(Map<String, String> headers) {
-        super.appendHeaders(headers);
+        // set here rather than in appendHeaders, so requests with a template send it as well
         if (ifModifiedSinceDate != null) {
-            headers.put("If-Unmodified-Since", DateUtils.formatMendeleyApiTimestamp(ifModifiedSinceDate));
+            requestBld.header("If-Unmodified-Since", DateUtils.formatMendeleyApiTimestamp(ifModifiedSinceDate));
         }
+        final RequestBody body = getBody();
+        requestBld.patch(isBodyCompressible() ? RequestBodyCompressor.getInstance().compress(body, requestBld) : body);
     }
 
+    protected abstract RequestBody getBody() throws JSONException;
+
 
     /**
      * Implementation of {@link CancellableOutputStream} that uses the {@link Request} to determine
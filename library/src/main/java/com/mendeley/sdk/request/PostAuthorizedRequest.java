@@ -21,7 +21,8 @@ public abstract class PostAuthorizedRequest<ResultType> extends OkHttpAuthorized
 
     @Override
     protected final void setMethod(okhttp3.Request.Builder requestBld) throws Exception {
-        requestBld.post(getBody());
+        final RequestBody body = getBody();
+        requestBld.post(isBodyCompressible() ? RequestBodyCompressor.getInstance().compress(body, requestBld) : body);
     }
 
     protected abstract RequestBody getBody() throws JSONException;
@@ -0,0 +1,118 @@
+package com.mendeley.sdk.request;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Compresses the bodies of write requests with gzip, sending them with Content-Encoding: gzip.
+ *
+ * <p/>
+ *
+ * Only bodies of requests that declare themselves compressible (see
+ * {@link OkHttpAuthorizedRequest#isBodyCompressible()}) and bigger than the threshold are
+ * compressed, and only if compressing actually makes them smaller.
+ * Disabled by default, see {@link #setEnabled(boolean)}.
+ */
+public class RequestBodyCompressor {
+
+    private static final long DEFAULT_THRESHOLD_BYTES = 1024;
+
+    private static RequestBodyCompressor instance;
+
+    private final AtomicLong compressedBodies = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile long thresholdBytes = DEFAULT_THRESHOLD_BYTES;
+
+    /**
+     * @return a reference to the {@link RequestBodyCompressor} singleton.
+     */
+    public static synchronized RequestBodyCompressor getInstance() {
+        if (instance == null) {
+            instance = new RequestBodyCompressor();
+        }
+        return instance;
+    }
+
+    private RequestBodyCompressor() {
+    }
+
+    /**
+     * Enables or disables the compression of request bodies.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param thresholdBytes minimum size of the bodies to compress
+     */
+    public void setThresholdBytes(long thresholdBytes) {
+        this.thresholdBytes = thresholdBytes;
+    }
+
+    /**
+     * @return number of bodies sent compressed
+     */
+    public long getCompressedBodies() {
+        return compressedBodies.get();
+    }
+
+    /**
+     * @return bytes not sent thanks to the compression
+     */
+    public long getBytesSaved() {
+        return uncompressedBytes.get() - compressedBytes.get();
+    }
+
+    /**
+     * Compresses the body if enabled and worth it, adding the Content-Encoding header to the request.
+     *
+     * @param body the original body
+     * @param requestBld builder of the request the body will be sent with
+     * @return the body to send
+     */
+    RequestBody compress(RequestBody body, okhttp3.Request.Builder requestBld) throws IOException {
+        if (!enabled || body == null) {
+            return body;
+        }
+
+        final long contentLength = body.contentLength();
+        if (contentLength >= 0 && contentLength < thresholdBytes) {
+            return body;
+        }
+
+        final Buffer uncompressed = new Buffer();
+        body.writeTo(uncompressed);
+        final long uncompressedSize = uncompressed.size();
+
+        final Buffer compressed = new Buffer();
+        final BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed));
+        uncompressed.copyTo(gzipSink.buffer(), 0, uncompressedSize);
+        gzipSink.close();
+        final long compressedSize = compressed.size();
+
+        if (uncompressedSize < thresholdBytes || compressedSize >= uncompressedSize) {
+            return RequestBody.create(body.contentType(), uncompressed.readByteString());
+        }
+
+        compressedBodies.incrementAndGet();
+        uncompressedBytes.addAndGet(uncompressedSize);
+        compressedBytes.addAndGet(compressedSize);
+
+        requestBld.header("Content-Encoding", "gzip");
+        return RequestBody.create(body.contentType(), compressed.readByteString());
+    }
+}
@@ -0,0 +1,213 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical GET requests running at the same time, so they share one network call
+ * and one parsed result ("single flight").
+ *
+ * <p/>
+ *
+ * Two requests are identical if they are of the same class, have the same URL and the same
+ * Accept header. The first one to run performs the call; the rest wait for its result.
+ * Every caller keeps its own cancellation: cancelling a waiting caller only stops it waiting, and
+ * if the caller performing the call is cancelled, the ones still waiting run the call again.
+ *
+ * <p/>
+ *
+ * Note the parsed result is the same object for all the callers, so it should not be modified.
+ * Disabled by default, see {@link #setEnabled(boolean)}.
+ */
+public class RequestDeduplicator {
+
+    private static final long WAIT_SLICE_MS = 100;
+
+    private static RequestDeduplicator instance;
+
+    private final Map<String, Flight> flights = new HashMap<String, Flight>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalescedCalls = new AtomicLong();
+
+    private volatile boolean enabled;
+
+    /**
+     * @return a reference to the {@link RequestDeduplicator} singleton.
+     */
+    public static synchronized RequestDeduplicator getInstance() {
+        if (instance == null) {
+            instance = new RequestDeduplicator();
+        }
+        return instance;
+    }
+
+    private RequestDeduplicator() {
+    }
+
+    /**
+     * Enables or disables the coalescing of identical GET requests.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return number of network calls performed through the deduplicator
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @return number of requests that were served with the result of another identical request
+     */
+    public long getCoalescedCalls() {
+        return coalescedCalls.get();
+    }
+
+    /**
+     * Runs the call, or waits for the result of an identical one already running.
+     *
+     * @param key identifies identical requests
+     * @param request the request asking for the result, used to check its cancellation
+     * @param call performs the actual work
+     * @return the result of the call
+     */
+    Result execute(String key, Request<?> request, Call call) throws MendeleyException {
+        final Flight flight;
+        final boolean leader;
+
+        synchronized (flights) {
+            final Flight existingFlight = flights.get(key);
+            if (existingFlight == null) {
+                flight = new Flight();
+                flights.put(key, flight);
+                leader = true;
+            } else {
+                flight = existingFlight;
+                leader = false;
+            }
+        }
+
+        if (leader) {
+            calls.incrementAndGet();
+            Result result = null;
+            MendeleyException error = null;
+            try {
+                result = call.execute();
+                return result;
+            } catch (MendeleyException e) {
+                error = e;
+                throw e;
+            } finally {
+                synchronized (flights) {
+                    flights.remove(key);
+                }
+                if (result == null && error == null) {
+                    // the call failed with an unexpected exception, already propagating to the leader
+                    error = new MendeleyException("Error performing the coalesced request " + key);
+                }
+                flight.complete(result, error);
+            }
+        }
+
+        coalescedCalls.incrementAndGet();
+        try {
+            return flight.await(request);
+        } catch (UserCancelledException e) {
+            if (request.isCancelled()) {
+                throw e;
+            }
+            // the caller performing the call was cancelled, but this one wasn't
+            coalescedCalls.decrementAndGet();
+            return execute(key, request, call);
+        } catch (DeadlineExceededException e) {
+            if (request.getDeadline() != null && request.getDeadline().isExpired()) {
+                throw e;
+            }
+            // the deadline of the caller performing the call passed, but this one still has time
+            coalescedCalls.decrementAndGet();
+            return execute(key, request, call);
+        }
+    }
+
+    /**
+     * Builds the key identifying identical requests.
+     */
+    static String getKey(Request<?> request, String method, Uri url, String accept) {
+        return request.getClass().getName() + " " + method + " " + url + " " + accept;
+    }
+
+    /**
+     * Work performed by the first of the identical requests.
+     */
+    interface Call {
+        Result execute() throws MendeleyException;
+    }
+
+    /**
+     * Outcome of a call, shared by all the identical requests.
+     */
+    static class Result {
+        final Object resource;
+        final Date serverDate;
+        final Uri next;
+
+        Result(Object resource, Date serverDate, Uri next) {
+            this.resource = resource;
+            this.serverDate = serverDate;
+            this.next = next;
+        }
+    }
+
+    /**
+     * One call in progress.
+     */
+    private static class Flight {
+
+        private boolean done;
+        private Result result;
+        private MendeleyException error;
+
+        synchronized void complete(Result result, MendeleyException error) {
+            this.result = result;
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        synchronized Result await(Request<?> request) throws MendeleyException {
+            try {
+                while (!done) {
+                    if (request.isCancelled()) {
+                        throw new UserCancelledException();
+                    }
+                    if (request.getDeadline() != null) {
+                        request.getDeadline().check();
+                    }
+                    wait(WAIT_SLICE_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserCancelledException(e);
+            }
+            if (error != null) {
+                throw error;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import com.mendeley.sdk.Deadline;
+import com.mendeley.sdk.exceptions.CircuitOpenException;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+
+/**
+ * Sends a second copy of slow requests to cut the tail latency caused by stalled connections.
+ *
+ * <p/>
+ *
+ * If a hedgeable request (see {@link OkHttpAuthorizedRequest#isHedgeable()}) has not got a
+ * response after the configured percentile of the latencies seen for its endpoint family (see
+ * {@link EndpointFamily}), a second call is sent. Whichever call responds first is used, and the
+ * other one is cancelled.
+ *
+ * <p/>
+ *
+ * Hedges are limited by a budget, so they never exceed a fixed fraction of the traffic. They also
+ * count against the {@link AdaptiveConcurrencyLimiter} and the {@link CircuitBreaker} of their
+ * endpoint family: requests are not hedged if their family is at its limit or its circuit is not
+ * closed. Disabled by default, see {@link #setEnabled(boolean)}.
+ */
+public class RequestHedger {
+
+    private static final long WAIT_SLICE_MS = 100;
+    private static final int MAX_SAMPLES = 128;
+    private static final int MIN_SAMPLES = 20;
+    private static final double MAX_BUDGET = 10;
+    private static final int MAX_THREADS = 16;
+
+    private static RequestHedger instance;
+
+    private final Map<String, Latencies> latencies = new HashMap<String, Latencies>();
+    // racing calls are rejected, and sent without hedging, when all the threads are busy
+    private final Executor executor = new ThreadPoolExecutor(0, MAX_THREADS, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedgedCalls = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile double percentile = 0.95;
+    private volatile double budgetFraction = 0.05;
+    private double budget;
+
+    /**
+     * @return a reference to the {@link RequestHedger} singleton.
+     */
+    public static synchronized RequestHedger getInstance() {
+        if (instance == null) {
+            instance = new RequestHedger();
+        }
+        return instance;
+    }
+
+    private RequestHedger() {
+    }
+
+    /**
+     * Enables or disables hedging.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Configures the hedging. The latencies learnt so far are discarded.
+     *
+     * @param percentile percentile of the latencies of the endpoint family after which a
+     *                   request is hedged, between 0 and 1
+     * @param budgetFraction maximum fraction of the calls that may be hedges, between 0 and 1
+     */
+    public synchronized void configure(double percentile, double budgetFraction) {
+        this.percentile = percentile;
+        this.budgetFraction = budgetFraction;
+        this.budget = 0;
+        latencies.clear();
+    }
+
+    /**
+     * @return number of calls sent through the hedger, not counting the hedges
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @return number of hedges sent
+     */
+    public long getHedgedCalls() {
+        return hedgedCalls.get();
+    }
+
+    /**
+     * @return number of hedges that responded before the original call
+     */
+    public long getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * @return the delay after which requests of the family are currently hedged, or -1 if not
+     *         enough latencies have been seen yet
+     */
+    public long getHedgeDelayMs(String endpointFamily) {
+        return obtainLatencies(endpointFamily).getPercentile(percentile);
+    }
+
+    /**
+     * Executes the request, hedging it if it is slow and there is budget.
+     *
+     * @param transport transport to send the calls through
+     * @param httpRequest request to send, without a body
+     * @param url URL of the request
+     * @param request the request, used to stop waiting if it gets cancelled
+     * @return the first response received
+     * @throws UserCancelledException if the request is cancelled or the thread interrupted while waiting
+     * @throws DeadlineExceededException if the deadline of the request passes while waiting
+     */
+    okhttp3.Response execute(Transport transport, okhttp3.Request httpRequest, Uri url, OkHttpAuthorizedRequest<?> request) throws IOException, UserCancelledException, DeadlineExceededException {
+        if (!enabled) {
+            return execute(transport.newCall(httpRequest), request);
+        }
+
+        calls.incrementAndGet();
+        final Latencies familyLatencies = obtainLatencies(EndpointFamily.of(url));
+        final long hedgeDelayMs = familyLatencies.getPercentile(percentile);
+        refillBudget();
+
+        if (hedgeDelayMs < 0) {
+            // nothing learnt yet, just measure
+            return executeMeasured(transport.newCall(httpRequest), familyLatencies, request);
+        }
+
+        final Race race = new Race(familyLatencies, request);
+        try {
+            if (!race.start(transport.newCall(httpRequest), null, null)) {
+                return executeMeasured(transport.newCall(httpRequest), familyLatencies, request);
+            }
+            if (!race.await(hedgeDelayMs, request)) {
+                hedge(race, transport, httpRequest, url);
+            }
+            race.await(Long.MAX_VALUE, request);
+            return race.getResult();
+        } finally {
+            race.detachAll();
+        }
+    }
+
+    /**
+     * Sends the hedge of a race, if there is budget and its endpoint family can take one more call.
+     */
+    private void hedge(Race race, Transport transport, okhttp3.Request httpRequest, Uri url) {
+        final String endpointFamily = EndpointFamily.of(url);
+        final CircuitBreaker circuitBreaker = CircuitBreaker.getInstance();
+        if (circuitBreaker.isEnabled() && circuitBreaker.getState(endpointFamily) != CircuitBreaker.State.CLOSED) {
+            return;
+        }
+        final AdaptiveConcurrencyLimiter.Permit permit = AdaptiveConcurrencyLimiter.getInstance().tryAcquire(url);
+        if (permit == null) {
+            return;
+        }
+        CircuitBreaker.Permit circuitPermit = null;
+        try {
+            circuitPermit = circuitBreaker.acquire(url);
+            if (consumeBudget() && race.start(transport.newCall(httpRequest), permit, circuitPermit)) {
+                hedgedCalls.incrementAndGet();
+                return;
+            }
+        } catch (CircuitOpenException ignored) {
+        }
+        // not sent
+        permit.release();
+        if (circuitPermit != null) {
+            circuitPermit.release();
+        }
+    }
+
+    /**
+     * Executes the call in the calling thread, adding its latency to the ones of its family even
+     * if it fails, unless it was aborted.
+     */
+    private static okhttp3.Response executeMeasured(Call call, Latencies familyLatencies, OkHttpAuthorizedRequest<?> request) throws IOException {
+        final long startNanos = System.nanoTime();
+        try {
+            return execute(call, request);
+        } finally {
+            if (!call.isCanceled()) {
+                familyLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+    }
+
+    /**
+     * Executes the call, aborting it if the request is cancelled or its deadline passes while
+     * waiting for the response.
+     */
+    private static okhttp3.Response execute(Call call, OkHttpAuthorizedRequest<?> request) throws IOException {
+        if (request == null) {
+            return call.execute();
+        }
+        OkHttpAuthorizedRequest.attachCall(request, call);
+        final Future<?> deadlineWatch = watchDeadline(call, request);
+        try {
+            return call.execute();
+        } finally {
+            if (deadlineWatch != null) {
+                deadlineWatch.cancel(false);
+            }
+            OkHttpAuthorizedRequest.detachCall(request, call);
+        }
+    }
+
+    /**
+     * @return the watch aborting the call once the deadline of the request passes, wherever the
+     *         call is blocked at, or null if the request has no deadline
+     */
+    private static Future<?> watchDeadline(Call call, OkHttpAuthorizedRequest<?> request) {
+        final Deadline deadline = request.getDeadline();
+        return deadline != null ? deadline.cancelOnExpiry(call) : null;
+    }
+
+    private synchronized Latencies obtainLatencies(String endpointFamily) {
+        Latencies familyLatencies = latencies.get(endpointFamily);
+        if (familyLatencies == null) {
+            familyLatencies = new Latencies();
+            latencies.put(endpointFamily, familyLatencies);
+        }
+        return familyLatencies;
+    }
+
+    private synchronized void refillBudget() {
+        budget = Math.min(MAX_BUDGET, budget + budgetFraction);
+    }
+
+    private synchronized boolean consumeBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+
+    /**
+     * Latest latencies seen for one endpoint family.
+     */
+    private static class Latencies {
+        private final long[] samples = new long[MAX_SAMPLES];
+        private int count;
+        private int next;
+
+        synchronized void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % MAX_SAMPLES;
+            count = Math.min(count + 1, MAX_SAMPLES);
+        }
+
+        synchronized long getPercentile(double percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            final long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+
+    /**
+     * Calls of one request racing for the first response.
+     *
+     * <p/>
+     *
+     * Only the latency of the original call is sampled, so that the samples are not biased by
+     * the fastest of both calls. If it loses or fails, the time it had been waiting when the race
+     * finished is sampled instead.
+     */
+    private class Race {
+        private final Latencies familyLatencies;
+        private final OkHttpAuthorizedRequest<?> request;
+        private final List<Call> raceCalls = new ArrayList<Call>();
+        private final List<Future<?>> deadlineWatches = new ArrayList<Future<?>>();
+        private int pending;
+        private okhttp3.Response response;
+        private Call winner;
+        private IOException failure;
+        private long originalStartNanos;
+        private boolean originalSampled;
+
+        Race(Latencies familyLatencies, OkHttpAuthorizedRequest<?> request) {
+            this.familyLatencies = familyLatencies;
+            this.request = request;
+        }
+
+        /**
+         * @param permit slot of the limiter taken by a hedge, released when the call finishes
+         * @param circuitPermit permit of the circuit breaker taken by a hedge, released when the call finishes
+         * @return false if the call could not be started because all the threads are busy
+         */
+        synchronized boolean start(final Call call, final AdaptiveConcurrencyLimiter.Permit permit, final CircuitBreaker.Permit circuitPermit) {
+            final boolean original = raceCalls.isEmpty();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final long startNanos = System.nanoTime();
+                        try {
+                            final okhttp3.Response callResponse = call.execute();
+                            final long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                            if (permit != null) {
+                                // as for the original request, see OkHttpAuthorizedRequest
+                                final int code = callResponse.code();
+                                if (code == 429 || code == 503) {
+                                    permit.onDropped();
+                                } else if (code / 100 == 2 || code == 304) {
+                                    permit.onSuccess(latencyMs);
+                                }
+                                if (code / 100 == 5) {
+                                    circuitPermit.onFailure();
+                                } else {
+                                    circuitPermit.onSuccess(latencyMs);
+                                }
+                            }
+                            onResponse(call, callResponse, original);
+                        } catch (IOException e) {
+                            if (permit != null && !call.isCanceled()) {
+                                if (e instanceof SocketTimeoutException) {
+                                    permit.onDropped();
+                                }
+                                circuitPermit.onFailure();
+                            }
+                            onFailure(call, e, original);
+                        } finally {
+                            if (permit != null) {
+                                permit.release();
+                                circuitPermit.release();
+                            }
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+            raceCalls.add(call);
+            if (original) {
+                originalStartNanos = System.nanoTime();
+            }
+            if (request != null) {
+                // aborts the call as soon as the request is cancelled or its deadline passes
+                OkHttpAuthorizedRequest.attachCall(request, call);
+                final Future<?> deadlineWatch = watchDeadline(call, request);
+                if (deadlineWatch != null) {
+                    deadlineWatches.add(deadlineWatch);
+                }
+            }
+            pending++;
+            return true;
+        }
+
+        // must be called holding the lock
+        private void sampleOriginal() {
+            if (!originalSampled) {
+                originalSampled = true;
+                familyLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - originalStartNanos));
+            }
+        }
+
+        private synchronized void onResponse(Call call, okhttp3.Response callResponse, boolean original) {
+            pending--;
+            if (original) {
+                sampleOriginal();
+            }
+            if (response != null || call.isCanceled()) {
+                callResponse.body().close();
+                return;
+            }
+            response = callResponse;
+            winner = call;
+            notifyAll();
+        }
+
+        private synchronized void onFailure(Call call, IOException e, boolean original) {
+            pending--;
+            if (original && call.isCanceled()) {
+                // aborted by the deadline of the request, which says nothing about the latency of the server
+                originalSampled = true;
+            } else if (original) {
+                sampleOriginal();
+            }
+            if (failure == null) {
+                failure = e;
+            }
+            notifyAll();
+        }
+
+        /**
+         * @return true if the race is finished, either with a response or because all the calls failed
+         */
+        synchronized boolean await(long timeoutMs, OkHttpAuthorizedRequest<?> request) throws UserCancelledException, DeadlineExceededException {
+            final long deadline = timeoutMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMs;
+            try {
+                while (response == null && pending > 0) {
+                    if (request != null && request.isCancelled()) {
+                        cancelAll();
+                        throw new UserCancelledException();
+                    }
+                    if (request != null && request.getDeadline() != null && request.getDeadline().isExpired()) {
+                        cancelAll();
+                        throw new DeadlineExceededException();
+                    }
+                    final long remainingMs = deadline - System.currentTimeMillis();
+                    if (remainingMs <= 0) {
+                        return false;
+                    }
+                    wait(Math.min(remainingMs, WAIT_SLICE_MS));
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new UserCancelledException(e);
+            }
+        }
+
+        synchronized okhttp3.Response getResult() throws IOException {
+            // the original call may be still running if it lost
+            sampleOriginal();
+            if (response == null) {
+                throw failure;
+            }
+            for (Call call : raceCalls) {
+                if (call != winner) {
+                    call.cancel();
+                }
+            }
+            if (winner != raceCalls.get(0)) {
+                hedgeWins.incrementAndGet();
+            }
+            return response;
+        }
+
+        synchronized void detachAll() {
+            for (Future<?> deadlineWatch : deadlineWatches) {
+                deadlineWatch.cancel(false);
+            }
+            if (request != null) {
+                for (Call call : raceCalls) {
+                    OkHttpAuthorizedRequest.detachCall(request, call);
+                }
+            }
+        }
+
+        // must be called holding the lock
+        private void cancelAll() {
+            // the caller gave up: the calls being aborted say nothing about the latency of the server
+            originalSampled = true;
+            for (Call call : raceCalls) {
+                call.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mendeley.sdk.request;
+
+import android.net.Uri;
+
+import java.util.List;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+
+/**
+ * Precompiled parts shared by every request against one endpoint: the base URL, already parsed
+ * both as {@link Uri} and {@link HttpUrl}, the immutable content negotiation headers and the
+ * resolved {@link MediaType} of its bodies.
+ *
+ * <p/>
+ *
+ * Endpoints keep one template each as a constant, and their requests return it from
+ * {@link OkHttpAuthorizedRequest#getRequestTemplate()}, so building the HTTP request does not
+ * parse URLs or media types again nor copy headers one by one.
+ */
+public class RequestTemplate {
+
+    private final Uri baseUrl;
+    private final HttpUrl baseHttpUrl;
+    private final String contentType;
+    private final MediaType mediaType;
+    private final Headers headers;
+
+    /**
+     * @param baseUrl URL of the endpoint
+     * @param contentType content type the endpoint accepts and produces
+     */
+    public RequestTemplate(String baseUrl, String contentType) {
+        this.baseUrl = Uri.parse(baseUrl);
+        this.baseHttpUrl = HttpUrl.parse(baseUrl);
+        if (baseHttpUrl == null) {
+            throw new IllegalArgumentException("Invalid base URL " + baseUrl);
+        }
+        this.contentType = contentType;
+        this.mediaType = MediaType.parse(contentType);
+        this.headers = new Headers.Builder()
+                .add("Content-type", contentType)
+                .add("Accept", contentType)
+                .build();
+    }
+
+    /**
+     * @return the URL of the endpoint
+     */
+    public Uri getUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @param pathSegments segments to append to the URL of the endpoint, encoded if needed
+     * @return the URL of a resource of the endpoint
+     */
+    public Uri getUrl(String... pathSegments) {
+        final Uri.Builder bld = baseUrl.buildUpon();
+        for (String pathSegment : pathSegments) {
+            bld.appendPath(pathSegment);
+        }
+        return bld.build();
+    }
+
+    /**
+     * @return the content type the endpoint accepts and produces
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the media type of the bodies sent to the endpoint
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @return the content negotiation headers of the requests against the endpoint
+     */
+    public Headers getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the passed URL as a {@link HttpUrl}. URLs of the endpoint and of its resources are
+     *         built from the parsed URL of the endpoint, and only other URLs are parsed.
+     */
+    HttpUrl toHttpUrl(Uri url) {
+        if (url == baseUrl) {
+            return baseHttpUrl;
+        }
+        if (!isUnderBaseUrl(url)) {
+            return parseHttpUrl(url);
+        }
+        final List<String> segments = url.getPathSegments();
+        final HttpUrl.Builder bld = baseHttpUrl.newBuilder();
+        for (int i = baseUrl.getPathSegments().size(); i < segments.size(); i++) {
+            bld.addPathSegment(segments.get(i));
+        }
+        return bld.encodedQuery(url.getEncodedQuery())
+                .encodedFragment(url.getEncodedFragment())
+                .build();
+    }
+
+    private boolean isUnderBaseUrl(Uri url) {
+        if (!baseUrl.getScheme().equals(url.getScheme()) || !baseUrl.getEncodedAuthority().equals(url.getEncodedAuthority())) {
+            return false;
+        }
+        final List<String> baseSegments = baseUrl.getPathSegments();
+        final List<String> segments = url.getPathSegments();
+        return segments.size() >= baseSegments.size() && segments.subList(0, baseSegments.size()).equals(baseSegments);
+    }
+
+    static HttpUrl parseHttpUrl(Uri url) {
+        final HttpUrl httpUrl = HttpUrl.parse(url.toString());
+        if (httpUrl == null) {
+            throw new IllegalArgumentException("Invalid URL " + url);
+        }
+        return httpUrl;
+    }
+}
@@ -0,0 +1,109 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.Request;
+
+/**
+ * Strategy deciding whether a failed attempt of a {@link Request} should be retried, and how
+ * long to wait before doing so.
+ */
+public interface RetryPolicy {
+
+    /**
+     * Value returned by {@link #getRetryDelayMs(Attempt)} when the request should not be retried.
+     */
+    long NO_RETRY = -1;
+
+    /**
+     * Policy that never retries.
+     */
+    RetryPolicy NONE = new RetryPolicy() {
+        @Override
+        public long getRetryDelayMs(Attempt attempt) {
+            return NO_RETRY;
+        }
+    };
+
+    /**
+     * @param attempt the attempt that has just failed
+     * @return the number of milliseconds to wait before retrying, or {@link #NO_RETRY}
+     */
+    long getRetryDelayMs(Attempt attempt);
+
+    /**
+     * Description of one failed attempt of a request.
+     */
+    class Attempt {
+
+        /**
+         * Number of the attempt that failed, starting at 1.
+         */
+        public final int number;
+
+        /**
+         * Whether or not the request can be safely sent again if it may have reached the server.
+         */
+        public final boolean idempotent;
+
+        /**
+         * Whether or not the body of the request can be sent again. Requests streaming a body
+         * which has been consumed by the failed attempt must not be retried.
+         */
+        public final boolean bodyReplayable;
+
+        /**
+         * HTTP code of the response, or 0 if no response was received.
+         */
+        public final int httpCode;
+
+        /**
+         * Delay requested by the server in its Retry-After header, or -1 if not present.
+         */
+        public final long retryAfterMs;
+
+        /**
+         * Time spent since the first attempt started.
+         */
+        public final long elapsedMs;
+
+        /**
+         * The error of the attempt.
+         */
+        public final Exception cause;
+
+        public Attempt(int number, boolean idempotent, int httpCode, long retryAfterMs, long elapsedMs, Exception cause) {
+            this(number, idempotent, true, httpCode, retryAfterMs, elapsedMs, cause);
+        }
+
+        public Attempt(int number, boolean idempotent, boolean bodyReplayable, int httpCode, long retryAfterMs, long elapsedMs, Exception cause) {
+            this.number = number;
+            this.idempotent = idempotent;
+            this.bodyReplayable = bodyReplayable;
+            this.httpCode = httpCode;
+            this.retryAfterMs = retryAfterMs;
+            this.elapsedMs = elapsedMs;
+            this.cause = cause;
+        }
+
+        @Override
+        public String toString() {
+            return "number: " + number +
+                    ", idempotent: " + idempotent +
+                    ", bodyReplayable: " + bodyReplayable +
+                    ", httpCode: " + httpCode +
+                    ", retryAfterMs: " + retryAfterMs +
+                    ", elapsedMs: " + elapsedMs;
+        }
+    }
+
+    /**
+     * To be implemented by classes that want to be notified every time a request is retried.
+     */
+    interface RetryListener {
+        /**
+         * @param request the request being retried
+         * @param attempt the attempt that has just failed
+         * @param delayMs time that will be waited before the next attempt
+         */
+        void onRetry(Request<?> request, Attempt attempt, long delayMs);
+    }
+}
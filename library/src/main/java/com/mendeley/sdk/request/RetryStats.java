@@ -0,0 +1,89 @@
+package com.mendeley.sdk.request;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SDK-wide counters of the retries performed by {@link OkHttpAuthorizedRequest}s, used to
+ * measure retry amplification: how many HTTP attempts are sent for every request run.
+ */
+public class RetryStats {
+
+    private static RetryStats instance;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong retryDelayMs = new AtomicLong();
+
+    /**
+     * @return a reference to the {@link RetryStats} singleton.
+     */
+    public static synchronized RetryStats getInstance() {
+        if (instance == null) {
+            instance = new RetryStats();
+        }
+        return instance;
+    }
+
+    private RetryStats() {
+    }
+
+    void onRequest() {
+        requests.incrementAndGet();
+    }
+
+    void onAttempt() {
+        attempts.incrementAndGet();
+    }
+
+    void onRetry(long delayMs) {
+        retries.incrementAndGet();
+        retryDelayMs.addAndGet(delayMs);
+    }
+
+    /**
+     * @return number of requests run
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of HTTP attempts sent, including the retries
+     */
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    /**
+     * @return number of retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * @return total time waited before retrying
+     */
+    public long getRetryDelayMs() {
+        return retryDelayMs.get();
+    }
+
+    /**
+     * @return attempts sent per request run, 1 meaning no retries at all
+     */
+    public double getAmplification() {
+        final long r = requests.get();
+        return r == 0 ? 1 : (double) attempts.get() / r;
+    }
+
+    /**
+     * Sets all the counters to zero.
+     */
+    public void reset() {
+        requests.set(0);
+        attempts.set(0);
+        retries.set(0);
+        retryDelayMs.set(0);
+    }
+}
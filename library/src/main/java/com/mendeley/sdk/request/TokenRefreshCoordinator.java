@@ -0,0 +1,211 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.AuthTokenManager;
+import com.mendeley.sdk.Request;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes sure only one refresh of the access token of an {@link AuthTokenManager} runs at a time.
+ *
+ * <p/>
+ *
+ * Refreshing the token invalidates the previous refresh token, so concurrent refreshes would
+ * invalidate each other. The first {@link AuthorizedRequest} needing a new token refreshes it;
+ * the rest wait for it and then carry on with the new token. A request that read the token before
+ * another one refreshed it does not refresh it again.
+ *
+ * <p/>
+ *
+ * The refresh runs in a thread of its own, detached from the cancellation and deadline of the
+ * requests needing it, bounded only by the timeouts of its transport: once the refresh request
+ * has been sent the server rotates the tokens, so aborting it could lose them. Every request,
+ * including the one that started the refresh, waits for it with its own cancellation and deadline,
+ * and gives up without affecting the refresh or the rest of the requests waiting for it.
+ */
+public class TokenRefreshCoordinator {
+
+    private static final long WAIT_SLICE_MS = 100;
+
+    // there is at most one refresh in progress per token manager
+    private final Executor executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+
+    private static TokenRefreshCoordinator instance;
+
+    private final Map<AuthTokenManager, Flight> flights = new IdentityHashMap<AuthTokenManager, Flight>();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong backgroundRefreshes = new AtomicLong();
+    private final AtomicLong joinedRefreshes = new AtomicLong();
+    private final AtomicLong skippedRefreshes = new AtomicLong();
+
+    /**
+     * @return a reference to the {@link TokenRefreshCoordinator} singleton.
+     */
+    public static synchronized TokenRefreshCoordinator getInstance() {
+        if (instance == null) {
+            instance = new TokenRefreshCoordinator();
+        }
+        return instance;
+    }
+
+    private TokenRefreshCoordinator() {
+    }
+
+    /**
+     * @return number of refreshes performed
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return number of refreshes performed in background, not by a request needing the token,
+     *          see {@link TokenRefreshScheduler}
+     */
+    public long getBackgroundRefreshes() {
+        return backgroundRefreshes.get();
+    }
+
+    /**
+     * @return number of refreshes performed by requests needing the token, which had to wait for them
+     */
+    public long getRequestPathRefreshes() {
+        return refreshes.get() - backgroundRefreshes.get();
+    }
+
+    /**
+     * @return number of refreshes avoided, either by waiting for another one in progress or
+     *          because the token had already been refreshed
+     */
+    public long getAvoidedRefreshes() {
+        return joinedRefreshes.get() + skippedRefreshes.get();
+    }
+
+    /**
+     * @return number of refreshes avoided by waiting for another one in progress
+     */
+    public long getJoinedRefreshes() {
+        return joinedRefreshes.get();
+    }
+
+    /**
+     * @return number of refreshes avoided because the token had already been refreshed
+     */
+    public long getSkippedRefreshes() {
+        return skippedRefreshes.get();
+    }
+
+    /**
+     * Refreshes the token, or waits for the refresh already in progress.
+     *
+     * @param authTokenManager holds the token to refresh
+     * @param staleAccessToken the access token the caller found not valid, or null to refresh
+     *                         it whatever it is
+     * @param request the request needing the new token, used to stop waiting for the refresh if it
+     *                is cancelled or its deadline passes, or null if refreshing in background
+     * @param refresh performs the actual refresh, detached from the caller
+     */
+    void refresh(AuthTokenManager authTokenManager, String staleAccessToken, Request<?> request, Refresh refresh) throws MendeleyException {
+        final Flight flight;
+        final boolean leader;
+
+        synchronized (flights) {
+            final Flight existingFlight = flights.get(authTokenManager);
+            if (existingFlight == null) {
+                if (staleAccessToken != null && !staleAccessToken.equals(authTokenManager.getAccessToken())) {
+                    // refreshed by another request since the caller read it
+                    skippedRefreshes.incrementAndGet();
+                    return;
+                }
+                flight = new Flight();
+                flights.put(authTokenManager, flight);
+                leader = true;
+            } else {
+                flight = existingFlight;
+                leader = false;
+            }
+        }
+
+        if (leader) {
+            refreshes.incrementAndGet();
+            if (request == null) {
+                backgroundRefreshes.incrementAndGet();
+            }
+            start(authTokenManager, flight, refresh);
+        } else {
+            joinedRefreshes.incrementAndGet();
+        }
+        flight.await(request);
+    }
+
+    private void start(final AuthTokenManager authTokenManager, final Flight flight, final Refresh refresh) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                MendeleyException error = null;
+                try {
+                    refresh.refresh();
+                } catch (MendeleyException e) {
+                    error = e;
+                } catch (RuntimeException e) {
+                    error = new MendeleyException("Error refreshing the access token", e);
+                } finally {
+                    synchronized (flights) {
+                        flights.remove(authTokenManager);
+                    }
+                    flight.complete(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Refresh of the token.
+     */
+    interface Refresh {
+        void refresh() throws MendeleyException;
+    }
+
+    /**
+     * One refresh in progress.
+     */
+    private static class Flight {
+
+        private boolean done;
+        private MendeleyException error;
+
+        synchronized void complete(MendeleyException error) {
+            this.error = error;
+            this.done = true;
+            notifyAll();
+        }
+
+        synchronized void await(Request<?> request) throws MendeleyException {
+            try {
+                while (!done) {
+                    if (request != null && request.isCancelled()) {
+                        throw new UserCancelledException();
+                    }
+                    if (request != null && request.getDeadline() != null) {
+                        request.getDeadline().check();
+                    }
+                    wait(WAIT_SLICE_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UserCancelledException(e);
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.mendeley.sdk.request;
+
+import android.text.TextUtils;
+
+import com.mendeley.sdk.AuthTokenManager;
+import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.ServerClock;
+import com.mendeley.sdk.exceptions.HttpResponseException;
+import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.request.endpoint.OAuthTokenEndpoint;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refreshes the access token in background some time before it expires, so
+ * {@link AuthorizedRequest}s do not have to refresh it themselves, adding the OAuth round trip to
+ * their own latency.
+ *
+ * <p/>
+ *
+ * The token is refreshed through the {@link TokenRefreshCoordinator}, so it never runs at the same
+ * time as a refresh started by a request, and the refresh request is sent through the shared
+ * client. Failed refreshes are retried with exponential backoff, unless the token endpoint rejects
+ * the refresh token (4xx), which stops refreshing it until the scheduler is started again.
+ * Successive refreshes are at least a minute apart, even if the tokens issued expire within the
+ * margin.
+ *
+ * <p/>
+ *
+ * Disabled by default, see {@link #setEnabled(boolean)}. Once enabled, {@link com.mendeley.sdk.Mendeley}
+ * starts it when initialised and when the user signs in, and stops it when the user signs out.
+ */
+public class TokenRefreshScheduler {
+
+    private static final long INITIAL_BACKOFF_MS = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_BACKOFF_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long MIN_REFRESH_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private static TokenRefreshScheduler instance;
+
+    private final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "Mendeley token refresher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile long marginMs = TimeUnit.MINUTES.toMillis(10);
+
+    // guarded by this
+    private AuthTokenManager authTokenManager;
+    private ClientCredentials clientCredentials;
+    private ScheduledFuture<?> scheduledRefresh;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+
+    /**
+     * @return a reference to the {@link TokenRefreshScheduler} singleton.
+     */
+    public static synchronized TokenRefreshScheduler getInstance() {
+        if (instance == null) {
+            instance = new TokenRefreshScheduler();
+        }
+        return instance;
+    }
+
+    private TokenRefreshScheduler() {
+    }
+
+    /**
+     * Enables or disables refreshing the token in background when the SDK is initialised and the
+     * user signs in.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets how long before the expiry of the token it is refreshed. 10 minutes by default, which
+     * is before {@link AuthorizedRequest}s consider refreshing it themselves. With a margin
+     * longer than the lifetime of the tokens, they are refreshed once a minute.
+     */
+    public void setMargin(long margin, TimeUnit unit) {
+        this.marginMs = unit.toMillis(margin);
+    }
+
+    /**
+     * @return number of successful refreshes performed in background. Each of them saved a
+     *          refresh to a request.
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return number of failed refreshes performed in background
+     */
+    public long getFailedRefreshes() {
+        return failedRefreshes.get();
+    }
+
+    /**
+     * @return number of refreshes that requests still had to perform themselves
+     */
+    public long getRequestPathRefreshes() {
+        return TokenRefreshCoordinator.getInstance().getRequestPathRefreshes();
+    }
+
+    /**
+     * Starts refreshing the token of the manager in background, replacing any manager passed before.
+     */
+    public synchronized void start(AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
+        this.authTokenManager = authTokenManager;
+        this.clientCredentials = clientCredentials;
+        backoffMs = INITIAL_BACKOFF_MS;
+        scheduleNextRefresh(0);
+    }
+
+    /**
+     * Stops refreshing the token in background.
+     */
+    public synchronized void stop() {
+        authTokenManager = null;
+        clientCredentials = null;
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    /**
+     * @return whether or not a refresh is scheduled
+     */
+    synchronized boolean isScheduled() {
+        return scheduledRefresh != null;
+    }
+
+    // must be called holding the lock
+    private void scheduleNextRefresh(long minDelayMs) {
+        final Date expiresAt = authTokenManager.getAuthTokenExpirationDate();
+        final long delayMs = expiresAt != null ? ServerClock.getInstance().getTimeToExpiryMs(authTokenManager.getAccessToken(), expiresAt) - marginMs : 0;
+        schedule(Math.max(minDelayMs, delayMs));
+    }
+
+    // must be called holding the lock
+    private void schedule(long delayMs) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        final AuthTokenManager scheduledManager = authTokenManager;
+        scheduledRefresh = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                refresh(scheduledManager);
+            }
+        }, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(final AuthTokenManager scheduledManager) {
+        final ClientCredentials credentials;
+        synchronized (this) {
+            if (authTokenManager != scheduledManager) {
+                // stopped or restarted meanwhile
+                return;
+            }
+            if (TextUtils.isEmpty(scheduledManager.getRefreshToken())) {
+                // signed out
+                return;
+            }
+            final Date expiresAt = scheduledManager.getAuthTokenExpirationDate();
+            if (expiresAt != null && !ServerClock.getInstance().willExpireWithin(scheduledManager.getAccessToken(), expiresAt, marginMs)) {
+                // already refreshed by a request
+                scheduleNextRefresh(0);
+                return;
+            }
+            credentials = clientCredentials;
+        }
+
+        // whether the refresh was performed for this scheduler, rather than avoided or joined
+        final AtomicBoolean led = new AtomicBoolean();
+        try {
+            TokenRefreshCoordinator.getInstance().refresh(scheduledManager, scheduledManager.getAccessToken(), null, new TokenRefreshCoordinator.Refresh() {
+                @Override
+                public void refresh() throws MendeleyException {
+                    led.set(true);
+                    new OAuthTokenEndpoint.RefreshTokenRequest(scheduledManager, credentials).run();
+                }
+            });
+            if (led.get()) {
+                refreshes.incrementAndGet();
+            }
+            synchronized (this) {
+                if (authTokenManager == scheduledManager) {
+                    backoffMs = INITIAL_BACKOFF_MS;
+                    // a margin at or above the lifetime of the new token, or a skewed clock, must
+                    // not make it refresh again straight away
+                    scheduleNextRefresh(MIN_REFRESH_INTERVAL_MS);
+                }
+            }
+        } catch (MendeleyException e) {
+            if (led.get()) {
+                failedRefreshes.incrementAndGet();
+            }
+            synchronized (this) {
+                if (authTokenManager != scheduledManager) {
+                    return;
+                }
+                if (isRejection(e)) {
+                    // like an invalid_grant, retrying does not help until the user signs in again
+                    scheduledRefresh = null;
+                    return;
+                }
+                schedule(backoffMs);
+                backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            }
+        }
+    }
+
+    /**
+     * @return whether or not the token endpoint rejected the refresh, which makes retrying it pointless
+     */
+    private static boolean isRejection(MendeleyException e) {
+        if (!(e instanceof HttpResponseException)) {
+            return false;
+        }
+        final int code = ((HttpResponseException) e).httpReturnCode;
+        // timeouts and throttling are retried
+        return code / 100 == 4 && code != 408 && code != 429;
+    }
+}
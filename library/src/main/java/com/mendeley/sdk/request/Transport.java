@@ -0,0 +1,30 @@
+package com.mendeley.sdk.request;
+
+import com.mendeley.sdk.HttpClientRegistry;
+
+import okhttp3.Call;
+
+/**
+ * Layer actually sending the HTTP requests built by the SDK.
+ *
+ * <p/>
+ *
+ * {@link OkHttpAuthorizedRequest}s build their request (see
+ * {@link OkHttpAuthorizedRequest#setMethod(okhttp3.Request.Builder)} and
+ * {@link OkHttpAuthorizedRequest#appendHeaders(java.util.Map)}) and parse the response
+ * (see {@link OkHttpAuthorizedRequest#manageResponse(java.io.InputStream)}) independently of
+ * the transport, so it can be replaced, for instance by a {@link LoopbackTransport} to measure
+ * the overhead of the SDK without any network.
+ *
+ * <p/>
+ *
+ * The transport used by default is {@link OkHttpTransport}, see {@link HttpClientRegistry#setTransport(Transport)}.
+ */
+public interface Transport {
+
+    /**
+     * @param request the request to send
+     * @return a call ready to be executed, and cancelled if needed
+     */
+    Call newCall(okhttp3.Request request);
+}
@@ -12,6 +12,7 @@ import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.RequestTemplate;
 import com.mendeley.sdk.util.DateUtils;
 
 import org.json.JSONException;
@@ -23,9 +24,7 @@ import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 
 import static com.mendeley.sdk.Request.MENDELEY_API_BASE_URL;
@@ -39,9 +38,11 @@ public class AnnotationsEndpoint {
     public static String ANNOTATIONS_BASE_URL = MENDELEY_API_BASE_URL + "annotations";
     private static String ANNOTATIONS_CONTENT_TYPE = "application/vnd.mendeley-annotation.1+json";
 
+    private static final RequestTemplate ANNOTATIONS_TEMPLATE = new RequestTemplate(ANNOTATIONS_BASE_URL, ANNOTATIONS_CONTENT_TYPE);
+
     public static class GetAnnotationRequest extends GetAuthorizedRequest<Annotation> {
         public GetAnnotationRequest(String annotationId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(ANNOTATIONS_BASE_URL + "/" + annotationId), authTokenManager, clientCredentials);
+            super(ANNOTATIONS_TEMPLATE.getUrl(annotationId), authTokenManager, clientCredentials);
         }
 
         @Override
@@ -51,16 +52,15 @@ public class AnnotationsEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", ANNOTATIONS_CONTENT_TYPE);
-            headers.put("Accept", ANNOTATIONS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return ANNOTATIONS_TEMPLATE;
         }
     }
 
     public static class GetAnnotationsRequest extends GetAuthorizedRequest<List<Annotation>> {
 
         private static Uri getAnnotationsUrl(AnnotationRequestParameters params) {
-            final Uri uri = Uri.parse(ANNOTATIONS_BASE_URL);
+            final Uri uri = ANNOTATIONS_TEMPLATE.getUrl();
             return params != null ? params.appendToUi(uri) : uri;
         }
 
@@ -79,9 +79,8 @@ public class AnnotationsEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", ANNOTATIONS_CONTENT_TYPE);
-            headers.put("Accept", ANNOTATIONS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return ANNOTATIONS_TEMPLATE;
         }
    }
 
@@ -89,13 +88,18 @@ public class AnnotationsEndpoint {
         private final Annotation annotation;
 
         public PostAnnotationRequest(Annotation annotation, AuthTokenManager authTokenManager, ClientCredentials clientCredentials){
-            super(Uri.parse(ANNOTATIONS_BASE_URL), authTokenManager, clientCredentials);
+            super(ANNOTATIONS_TEMPLATE.getUrl(), authTokenManager, clientCredentials);
             this.annotation = annotation;
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(ANNOTATIONS_CONTENT_TYPE), JsonParser.annotationToJson(annotation).toString());
+            return RequestBody.create(ANNOTATIONS_TEMPLATE.getMediaType(), JsonParser.annotationToJson(annotation).toString());
+        }
+
+        @Override
+        protected boolean isBodyCompressible() {
+            return true;
         }
 
         @Override
@@ -105,9 +109,8 @@ public class AnnotationsEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", ANNOTATIONS_CONTENT_TYPE);
-            headers.put("Accept", ANNOTATIONS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return ANNOTATIONS_TEMPLATE;
         }
 
     }
@@ -121,12 +124,17 @@ public class AnnotationsEndpoint {
         }
 
         private static Uri getUrl(String annotationId) {
-            return Uri.parse(ANNOTATIONS_BASE_URL + "/" + annotationId);
+            return ANNOTATIONS_TEMPLATE.getUrl(annotationId);
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(ANNOTATIONS_CONTENT_TYPE), JsonParser.annotationToJson(annotation).toString());
+            return RequestBody.create(ANNOTATIONS_TEMPLATE.getMediaType(), JsonParser.annotationToJson(annotation).toString());
+        }
+
+        @Override
+        protected boolean isBodyCompressible() {
+            return true;
         }
 
         @Override
@@ -136,15 +144,15 @@ public class AnnotationsEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Accept", ANNOTATIONS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return ANNOTATIONS_TEMPLATE;
         }
 
     }
 
     public static class DeleteAnnotationRequest extends DeleteAuthorizedRequest<Void> {
         public DeleteAnnotationRequest(String annotationId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(ANNOTATIONS_BASE_URL + "/" + annotationId), authTokenManager, clientCredentials);
+            super(ANNOTATIONS_TEMPLATE.getUrl(annotationId), authTokenManager, clientCredentials);
         }
     }
 
@@ -162,6 +170,7 @@ public class AnnotationsEndpoint {
 
         /**
          * Returns only annotations modified since this timestamp. Should be supplied in ISO 8601 format.
+         * Should be taken from the server clock, see {@link com.mendeley.sdk.ServerClock#now()}.
          */
         public Date modifiedSince;
 
@@ -12,6 +12,7 @@ import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.RequestTemplate;
 import com.mendeley.sdk.util.DateUtils;
 
 import org.json.JSONException;
@@ -23,7 +24,6 @@ import java.io.InputStreamReader;
 import java.text.ParseException;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
@@ -39,6 +39,8 @@ public class DocumentEndpoint {
     public static String DOCUMENTS_BASE_URL = MENDELEY_API_BASE_URL + "documents";
     public static String DOCUMENTS_CONTENT_TYPE = "application/vnd.mendeley-document.1+json";
 
+    private static final RequestTemplate DOCUMENTS_TEMPLATE = new RequestTemplate(DOCUMENTS_BASE_URL, DOCUMENTS_CONTENT_TYPE);
+
 
     public static class GetDocumentsRequest extends GetAuthorizedRequest<List<Document>> {
         public GetDocumentsRequest(Uri url, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
@@ -46,7 +48,7 @@ public class DocumentEndpoint {
         }
 
         public GetDocumentsRequest(DocumentEndpoint.DocumentRequestParameters params, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(params != null ? params.appendToUi(Uri.parse(DOCUMENTS_BASE_URL)) : Uri.parse(DOCUMENTS_BASE_URL), authTokenManager, clientCredentials);
+            super(params != null ? params.appendToUi(DOCUMENTS_TEMPLATE.getUrl()) : DOCUMENTS_TEMPLATE.getUrl(), authTokenManager, clientCredentials);
         }
 
         @Override
@@ -56,24 +58,19 @@ public class DocumentEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", DocumentEndpoint.DOCUMENTS_CONTENT_TYPE);
-            headers.put("Accept", DocumentEndpoint.DOCUMENTS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return DOCUMENTS_TEMPLATE;
         }
     }
 
     public static class GetDocumentRequest extends GetAuthorizedRequest<Document> {
 
         private static Uri getGetDocumentUrl(String documentId, DocumentRequestParameters.View view) {
-            StringBuilder url = new StringBuilder();
-            url.append(DOCUMENTS_BASE_URL);
-            url.append("/").append(documentId);
-
+            final Uri url = DOCUMENTS_TEMPLATE.getUrl(documentId);
             if (view != null) {
-                url.append("?").append("view=" + view);
+                return url.buildUpon().appendQueryParameter("view", view.toString()).build();
             }
-
-            return Uri.parse(url.toString());
+            return url;
         }
 
         public GetDocumentRequest(String documentId, DocumentRequestParameters.View view, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
@@ -87,9 +84,8 @@ public class DocumentEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", DOCUMENTS_CONTENT_TYPE);
-            headers.put("Accept", DOCUMENTS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return DOCUMENTS_TEMPLATE;
         }
     }
 
@@ -98,7 +94,7 @@ public class DocumentEndpoint {
         final private Document doc;
 
         public PostDocumentRequest(Document doc, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(DOCUMENTS_BASE_URL), authTokenManager, clientCredentials);
+            super(DOCUMENTS_TEMPLATE.getUrl(), authTokenManager, clientCredentials);
             this.doc = doc;
         }
 
@@ -109,14 +105,18 @@ public class DocumentEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", DOCUMENTS_CONTENT_TYPE);
-            headers.put("Accept", DOCUMENTS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return DOCUMENTS_TEMPLATE;
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(DOCUMENTS_CONTENT_TYPE), JsonParser.documentToJson(doc).toString());
+            return RequestBody.create(DOCUMENTS_TEMPLATE.getMediaType(), JsonParser.documentToJson(doc).toString());
+        }
+
+        @Override
+        protected boolean isBodyCompressible() {
+            return true;
         }
     }
 
@@ -125,13 +125,18 @@ public class DocumentEndpoint {
         private final Document document;
 
         public PatchDocumentAuthorizedRequest(String documentId, Document document, Date date, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(DOCUMENTS_BASE_URL + "/" + documentId), date, authTokenManager, clientCredentials);
+            super(DOCUMENTS_TEMPLATE.getUrl(documentId), date, authTokenManager, clientCredentials);
             this.document = document;
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(DOCUMENTS_CONTENT_TYPE), JsonParser.documentToJson(document).toString());
+            return RequestBody.create(DOCUMENTS_TEMPLATE.getMediaType(), JsonParser.documentToJson(document).toString());
+        }
+
+        @Override
+        protected boolean isBodyCompressible() {
+            return true;
         }
 
         @Override
@@ -141,15 +146,15 @@ public class DocumentEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Accept", DOCUMENTS_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return DOCUMENTS_TEMPLATE;
         }
 
     }
 
     public static class TrashDocumentRequest extends PostAuthorizedRequest<Void> {
         public TrashDocumentRequest(String documentId,  AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(DOCUMENTS_BASE_URL + "/" + documentId + "/trash"), authTokenManager, clientCredentials);
+            super(DOCUMENTS_TEMPLATE.getUrl(documentId, "trash"), authTokenManager, clientCredentials);
         }
 
         @Override
@@ -166,7 +171,7 @@ public class DocumentEndpoint {
     public static class DeleteDocumentRequest extends DeleteAuthorizedRequest<Void> {
 
         public DeleteDocumentRequest(String documentId,  AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(DOCUMENTS_BASE_URL + "/" + documentId), authTokenManager, clientCredentials);
+            super(DOCUMENTS_TEMPLATE.getUrl(documentId), authTokenManager, clientCredentials);
         }
     }
 
@@ -193,6 +198,7 @@ public class DocumentEndpoint {
 
         /**
          * Returns only documents modified since this timestamp. Should be supplied in ISO 8601 format.
+         * Should be taken from the server clock, see {@link com.mendeley.sdk.ServerClock#now()}.
          */
         public Date modifiedSince;
 
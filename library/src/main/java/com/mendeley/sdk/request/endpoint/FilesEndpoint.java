@@ -119,6 +119,24 @@ public class FilesEndpoint {
         public String getFileId() {
             return fileId;
         }
+
+        @Override
+        protected boolean isDeduplicable() {
+            // every request writes its own target file
+            return false;
+        }
+
+        @Override
+        protected boolean isCacheable() {
+            // binaries are stored by the app itself
+            return false;
+        }
+
+        @Override
+        protected boolean isHedgeable() {
+            // downloading big binaries twice would cost more than it saves
+            return false;
+        }
     }
 
     public static class PostFileWithBinaryRequest extends PostAuthorizedRequest<File> {
@@ -155,6 +173,12 @@ public class FilesEndpoint {
             return InputStreamRequestBody.create(MediaType.parse(contentType), cancelableInputStream);
         }
 
+        @Override
+        protected boolean isBodyReplayable() {
+            // the input stream can only be read once
+            return false;
+        }
+
         @Override
         protected File manageResponse(InputStream is) throws Exception {
             final JsonReader reader = new JsonReader(new InputStreamReader(is));
@@ -12,6 +12,7 @@ import com.mendeley.sdk.request.GetAuthorizedRequest;
 import com.mendeley.sdk.request.JsonParser;
 import com.mendeley.sdk.request.PatchAuthorizedRequest;
 import com.mendeley.sdk.request.PostAuthorizedRequest;
+import com.mendeley.sdk.request.RequestTemplate;
 
 import org.json.JSONException;
 
@@ -37,9 +38,11 @@ public class FoldersEndpoint {
 	public static final String FOLDERS_BASE_URL = MENDELEY_API_BASE_URL + "folders";
     public static final String FOLDER_CONTENT_TYPE = "application/vnd.mendeley-folder.1+json";
 
+    private static final RequestTemplate FOLDERS_TEMPLATE = new RequestTemplate(FOLDERS_BASE_URL, FOLDER_CONTENT_TYPE);
+
     public static class GetFoldersRequest extends GetAuthorizedRequest<List<Folder>> {
         private static Uri getGetFoldersUrl(FolderRequestParameters params) {
-            Uri uri = Uri.parse(FOLDERS_BASE_URL);
+            Uri uri = FOLDERS_TEMPLATE.getUrl();
             return params != null ? params.appendToUi(uri) : uri;
         }
 
@@ -58,15 +61,14 @@ public class FoldersEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", FOLDER_CONTENT_TYPE);
-            headers.put("Accept", FOLDER_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return FOLDERS_TEMPLATE;
         }
     }
 
     public static class GetFolderRequest extends GetAuthorizedRequest<Folder> {
         public GetFolderRequest(String folderId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FOLDERS_BASE_URL + "/" + folderId), authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(folderId), authTokenManager, clientCredentials);
         }
 
         @Override
@@ -76,9 +78,8 @@ public class FoldersEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Content-type", FOLDER_CONTENT_TYPE);
-            headers.put("Accept", FOLDER_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return FOLDERS_TEMPLATE;
         }
     }
 
@@ -86,13 +87,13 @@ public class FoldersEndpoint {
         private final Folder folder;
 
         public PostFolderRequest(Folder folder, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FoldersEndpoint.FOLDERS_BASE_URL), authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(), authTokenManager, clientCredentials);
             this.folder = folder;
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(FOLDER_CONTENT_TYPE), JsonParser.folderToJson(folder).toString());
+            return RequestBody.create(FOLDERS_TEMPLATE.getMediaType(), JsonParser.folderToJson(folder).toString());
         }
 
         @Override
@@ -102,8 +103,8 @@ public class FoldersEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Accept", FOLDER_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return FOLDERS_TEMPLATE;
         }
 
     }
@@ -112,13 +113,13 @@ public class FoldersEndpoint {
         private final Folder folder;
 
         public PatchFolderAuthorizedRequest(String folderId, Folder folder, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FOLDERS_BASE_URL + "/" + folderId), null, authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(folderId), null, authTokenManager, clientCredentials);
             this.folder = folder;
         }
 
         @Override
         protected RequestBody getBody() throws JSONException {
-            return RequestBody.create(MediaType.parse(FOLDER_CONTENT_TYPE), JsonParser.folderToJson(folder).toString());
+            return RequestBody.create(FOLDERS_TEMPLATE.getMediaType(), JsonParser.folderToJson(folder).toString());
         }
 
         @Override
@@ -128,8 +129,8 @@ public class FoldersEndpoint {
         }
 
         @Override
-        protected void appendHeaders(Map<String, String> headers) {
-            headers.put("Accept", FOLDER_CONTENT_TYPE);
+        protected RequestTemplate getRequestTemplate() {
+            return FOLDERS_TEMPLATE;
         }
     }
 
@@ -137,7 +138,7 @@ public class FoldersEndpoint {
         private final String documentId;
 
         public PostDocumentToFolderRequest(String folderId, String documentId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FOLDERS_BASE_URL).buildUpon().appendPath(folderId).appendPath("documents").build(), authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(folderId, "documents"), authTokenManager, clientCredentials);
             this.documentId = documentId;
         }
 
@@ -156,7 +157,7 @@ public class FoldersEndpoint {
     public static class GetFolderDocumentIdsRequest extends GetAuthorizedRequest<List<String>> {
 
         private static Uri getGetFolderDocumentIdsUrl(FolderRequestParameters params, String folderId) {
-            Uri uri = Uri.parse(FOLDERS_BASE_URL).buildUpon().appendPath(folderId).appendPath("documents").build();
+            Uri uri = FOLDERS_TEMPLATE.getUrl(folderId, "documents");
             return params != null ? params.appendToUi(uri) : uri;
         }
 
@@ -183,13 +184,13 @@ public class FoldersEndpoint {
 
     public static class DeleteFolderRequest extends DeleteAuthorizedRequest<Void> {
         public DeleteFolderRequest(String folderId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FOLDERS_BASE_URL).buildUpon().appendPath(folderId).build(), authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(folderId), authTokenManager, clientCredentials);
         }
     }
 
     public static class DeleteDocumentFromFolder extends DeleteAuthorizedRequest<Void> {
         public DeleteDocumentFromFolder(String folderId, String documentId, AuthTokenManager authTokenManager, ClientCredentials clientCredentials) {
-            super(Uri.parse(FOLDERS_BASE_URL).buildUpon().appendPath(folderId).appendPath("documents").appendPath(documentId).build(), authTokenManager, clientCredentials);
+            super(FOLDERS_TEMPLATE.getUrl(folderId, "documents", documentId), authTokenManager, clientCredentials);
         }
     }
 
@@ -5,21 +5,27 @@ import android.net.Uri;
 
 import com.mendeley.sdk.AuthTokenManager;
 import com.mendeley.sdk.ClientCredentials;
+import com.mendeley.sdk.HttpClientRegistry;
 import com.mendeley.sdk.Request;
+import com.mendeley.sdk.ServerClock;
+import com.mendeley.sdk.exceptions.DeadlineExceededException;
 import com.mendeley.sdk.exceptions.HttpResponseException;
 import com.mendeley.sdk.exceptions.JsonParsingException;
 import com.mendeley.sdk.exceptions.MendeleyException;
+import com.mendeley.sdk.exceptions.UserCancelledException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
+import okhttp3.Call;
 import okhttp3.FormBody;
-import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 
@@ -48,7 +54,10 @@ public class OAuthTokenEndpoint {
 
         @Override
         public Response doRun() throws MendeleyException {
+            checkDeadline();
             ResponseBody responseBody = null;
+            Future<?> deadlineWatch = null;
+            Call call = null;
 
             try {
                 final String url = getUrl().toString();
@@ -73,7 +82,12 @@ public class OAuthTokenEndpoint {
                         .post(postBody)
                         .build();
 
-                final okhttp3.Response okHttpResponse = new OkHttpClient().newCall(okHttpRequest).execute();
+                call = HttpClientRegistry.getInstance().getTransport().newCall(okHttpRequest);
+                attachCall(call);
+                if (getDeadline() != null) {
+                    deadlineWatch = getDeadline().cancelOnExpiry(call);
+                }
+                final okhttp3.Response okHttpResponse = call.execute();
 
                 final int responseCode = okHttpResponse.code();
                 responseBody = okHttpResponse.body();
@@ -81,15 +95,28 @@ public class OAuthTokenEndpoint {
                     throw new HttpResponseException(responseCode, okHttpResponse.message(), url.toString(), responseBody.string(), okHttpResponse.header("X-Mendeley-Trace-Id"));
                 }
 
-                saveTokens(authTokenManager, responseBody.string());
                 final Map<String, List<String>> responseHeaders = okHttpResponse.headers().toMultimap();
-                return new Response(null, getServerDateString(responseHeaders));
+                final String serverDate = getServerDateString(responseHeaders);
+                saveTokens(authTokenManager, responseBody.string(), serverDate);
+                return new Response(null, serverDate);
 
             } catch (MendeleyException me) {
                 throw me;
             } catch (Exception e) {
+                if (isDeadlineExpired()) {
+                    throw new DeadlineExceededException(e);
+                }
+                if (isCancelled()) {
+                    throw new UserCancelledException(e);
+                }
                 throw new MendeleyException("Cannot obtain token", e);
             } finally {
+                if (deadlineWatch != null) {
+                    deadlineWatch.cancel(false);
+                }
+                if (call != null) {
+                    detachCall(call);
+                }
                 if (responseBody != null) {
                     if (responseBody.byteStream() != null) {
                         try {
@@ -116,7 +143,15 @@ public class OAuthTokenEndpoint {
         }
 
 
-        private void saveTokens(AuthTokenManager authTokenManager, String serverResponse) throws JsonParsingException {
+        private Date parseServerDate(String serverDate) {
+            try {
+                return serverDate != null ? parseHeaderDate(serverDate) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private void saveTokens(AuthTokenManager authTokenManager, String serverResponse, String serverDate) throws JsonParsingException {
             try {
                 final JSONObject jsonResponse = new JSONObject(serverResponse);
                 final String accessToken = jsonResponse.getString("access_token");
@@ -125,6 +160,7 @@ public class OAuthTokenEndpoint {
                 final int expiresIn = jsonResponse.getInt("expires_in");
 
                 authTokenManager.saveTokens(accessToken, refreshToken, tokenType, expiresIn);
+                ServerClock.getInstance().onTokenIssued(accessToken, parseServerDate(serverDate), expiresIn);
             } catch (JSONException e) {
                 throw new JsonParsingException("Could not parse the server response with the access token", e);
             }
@@ -103,6 +103,11 @@ public class ProfilesEndpoint {
             return RequestBody.create(MediaType.parse(PROFILE_AMENDMENT_CONTENT_TYPE), JsonParser.profileToJsonAmendment(profile).toString());
         }
 
+        @Override
+        protected boolean isBodyCompressible() {
+            return true;
+        }
+
         @Override
         protected Profile manageResponse(InputStream is) throws Exception {
             final JsonReader reader = new JsonReader(new InputStreamReader(is));